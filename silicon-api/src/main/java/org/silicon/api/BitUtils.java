@@ -1,82 +1,68 @@
 package org.silicon.api;
 
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 /**
- * Utilities for converting between FP16 (half) and FP32 (float).
+ * Utilities for converting between FP32 (float) and narrower formats: FP16 (half),
+ * BF16 (bfloat16), FP8 (E4M3 and E5M2) and block-scaled INT8.
  * <p>
- * These helpers perform bit-level conversions and array-wide transforms.
+ * These helpers perform bit-level conversions and array-wide transforms. FP8 follows the
+ * OCP 8-bit floating point specification: E4M3 has no infinities and saturates at 448,
+ * E5M2 keeps IEEE infinities. FP8 values are decoded through lookup tables. Scalar conversions
+ * use {@link Float#floatToFloat16(float)} and {@link Float#float16ToFloat(short)}, which round
+ * to nearest-even and are compiled to hardware instructions where available. Bulk conversions
+ * of at least {@link #PARALLEL_THRESHOLD} elements are split across the common
+ * {@link ForkJoinPool}.
  */
 public class BitUtils {
+
+    /**
+     * Minimum number of elements handled by one task of a parallel bulk conversion.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private static final ValueLayout.OfShort HALF = ValueLayout.JAVA_SHORT_UNALIGNED;
+    private static final ValueLayout.OfFloat FLOAT = ValueLayout.JAVA_FLOAT_UNALIGNED;
+
+    private static final float[] E4M3_VALUES = fp8Table(3, 7, false);
+    private static final float[] E5M2_VALUES = fp8Table(2, 15, true);
+
     /**
      * Converts a half-precision value to float.
      * @param h half-precision bits
      * @return float value
      */
     public static float half2Float(short h) {
-        int bits = h & 0xFFFF;
-        
-        int sign = (bits & 0x8000) << 16;
-        int exp  = (bits >>> 10) & 0x1F;
-        int mant = bits & 0x03FF;
-        
-        if (exp == 0) {
-            if (mant == 0) {
-                // zero
-                return Float.intBitsToFloat(sign);
-            }
-            // subnormal
-            while ((mant & 0x0400) == 0) {
-                mant <<= 1;
-                exp--;
-            }
-            exp++;
-            mant &= ~0x0400;
-        } else if (exp == 31) {
-            // Inf / NaN
-            return Float.intBitsToFloat(sign | 0x7F800000 | (mant << 13));
-        }
-        
-        exp = exp - 15 + 127;
-        mant <<= 13;
-        
-        return Float.intBitsToFloat(sign | (exp << 23) | mant);
+        return Float.float16ToFloat(h);
     }
-    
+
     /**
-     * Converts a float to half-precision bits.
+     * Converts a float to half-precision bits, rounding to nearest-even.
      * @param f float value
      * @return half-precision bits
      */
     public static short float2Half(float f) {
-        int bits = Float.floatToIntBits(f);
-        
-        int sign = (bits >>> 16) & 0x8000;
-        int exp  = ((bits >>> 23) & 0xFF) - 127 + 15;
-        int mant = bits & 0x7FFFFF;
-        
-        if (exp <= 0) {
-            if (exp < -10) return (short) sign;
-            mant = (mant | 0x800000) >> (1 - exp);
-            return (short) (sign | (mant >> 13));
-        }
-        
-        if (exp >= 31) {
-            return (short) (sign | 0x7C00); // Inf
-        }
-        
-        return (short) (sign | (exp << 10) | (mant >> 13));
+        return Float.floatToFloat16(f);
     }
-    
+
     /**
-     * Converts an array of half-precision values to float in-place.
+     * Converts an array of half-precision values to float.
      * @param input half-precision input
-     * @param output float output (same length as input)
+     * @param output float output, at least as long as the input
      */
     public static void half2Float(short[] input, float[] output) {
-        for (int i = 0; i < input.length; i++) {
-            output[i] = BitUtils.half2Float(input[i]);
-        }
+        if (output.length < input.length) throw new IllegalArgumentException("Output is shorter than input");
+
+        split(input.length, (from, to) -> {
+            for (int i = (int) from; i < to; i++) {
+                output[i] = Float.float16ToFloat(input[i]);
+            }
+        });
     }
-    
+
     /**
      * Converts an array of half-precision values to a new float array.
      * @param values half-precision input
@@ -84,23 +70,25 @@ public class BitUtils {
      */
     public static float[] half2Float(short[] values) {
         float[] result = new float[values.length];
-        for (int i = 0; i < values.length; i++) {
-            result[i] = BitUtils.half2Float(values[i]);
-        }
+        half2Float(values, result);
         return result;
     }
-    
+
     /**
-     * Converts an array of float values to half-precision bits in-place.
+     * Converts an array of float values to half-precision bits.
      * @param input float input
-     * @param output half-precision output (same length as input)
+     * @param output half-precision output, at least as long as the input
      */
     public static void float2Half(float[] input, short[] output) {
-        for (int i = 0; i < input.length; i++) {
-            output[i] = BitUtils.float2Half(input[i]);
-        }
+        if (output.length < input.length) throw new IllegalArgumentException("Output is shorter than input");
+
+        split(input.length, (from, to) -> {
+            for (int i = (int) from; i < to; i++) {
+                output[i] = Float.floatToFloat16(input[i]);
+            }
+        });
     }
-    
+
     /**
      * Converts an array of float values to a new half-precision array.
      * @param values float input
@@ -108,9 +96,427 @@ public class BitUtils {
      */
     public static short[] float2Half(float[] values) {
         short[] result = new short[values.length];
-        for (int i = 0; i < values.length; i++) {
-            result[i] = BitUtils.float2Half(values[i]);
-        }
+        float2Half(values, result);
         return result;
     }
+
+    /**
+     * Converts half-precision values stored in a segment to floats stored in another segment.
+     * Both segments use the native byte order.
+     * @param input segment holding at least {@code count} half-precision values
+     * @param output segment with room for at least {@code count} floats
+     * @param count number of values to convert
+     */
+    public static void half2Float(MemorySegment input, MemorySegment output, long count) {
+        checkSegments(input, Short.BYTES, output, Float.BYTES, count);
+
+        split(count, (from, to) -> {
+            for (long i = from; i < to; i++) {
+                output.setAtIndex(FLOAT, i, Float.float16ToFloat(input.getAtIndex(HALF, i)));
+            }
+        });
+    }
+
+    /**
+     * Converts floats stored in a segment to half-precision values stored in another segment.
+     * Both segments use the native byte order.
+     * @param input segment holding at least {@code count} floats
+     * @param output segment with room for at least {@code count} half-precision values
+     * @param count number of values to convert
+     */
+    public static void float2Half(MemorySegment input, MemorySegment output, long count) {
+        checkSegments(input, Float.BYTES, output, Short.BYTES, count);
+
+        split(count, (from, to) -> {
+            for (long i = from; i < to; i++) {
+                output.setAtIndex(HALF, i, Float.floatToFloat16(input.getAtIndex(FLOAT, i)));
+            }
+        });
+    }
+
+    /**
+     * Converts bfloat16 bits to float. The conversion is exact.
+     * @param b bfloat16 bits
+     * @return float value
+     */
+    public static float bFloat16ToFloat(short b) {
+        return Float.intBitsToFloat((b & 0xFFFF) << 16);
+    }
+
+    /**
+     * Converts a float to bfloat16 bits, rounding to nearest-even.
+     * @param f float value
+     * @return bfloat16 bits, a quiet NaN if the value is NaN
+     */
+    public static short float2BFloat16(float f) {
+        int bits = Float.floatToRawIntBits(f);
+
+        if ((bits & 0x7FFFFFFF) > 0x7F800000) {
+            return (short) ((bits >>> 16) | 0x0040);
+        }
+
+        bits += 0x7FFF + ((bits >>> 16) & 1);
+        return (short) (bits >>> 16);
+    }
+
+    /**
+     * Converts an array of bfloat16 values to float.
+     * @param input bfloat16 input
+     * @param output float output, at least as long as the input
+     */
+    public static void bFloat16ToFloat(short[] input, float[] output) {
+        if (output.length < input.length) throw new IllegalArgumentException("Output is shorter than input");
+
+        split(input.length, (from, to) -> {
+            for (int i = (int) from; i < to; i++) {
+                output[i] = bFloat16ToFloat(input[i]);
+            }
+        });
+    }
+
+    /**
+     * Converts an array of float values to bfloat16 bits.
+     * @param input float input
+     * @param output bfloat16 output, at least as long as the input
+     */
+    public static void float2BFloat16(float[] input, short[] output) {
+        if (output.length < input.length) throw new IllegalArgumentException("Output is shorter than input");
+
+        split(input.length, (from, to) -> {
+            for (int i = (int) from; i < to; i++) {
+                output[i] = float2BFloat16(input[i]);
+            }
+        });
+    }
+
+    /**
+     * Converts bfloat16 values stored in a segment to floats stored in another segment.
+     * Both segments use the native byte order.
+     * @param input segment holding at least {@code count} bfloat16 values
+     * @param output segment with room for at least {@code count} floats
+     * @param count number of values to convert
+     */
+    public static void bFloat16ToFloat(MemorySegment input, MemorySegment output, long count) {
+        checkSegments(input, Short.BYTES, output, Float.BYTES, count);
+
+        split(count, (from, to) -> {
+            for (long i = from; i < to; i++) {
+                output.setAtIndex(FLOAT, i, bFloat16ToFloat(input.getAtIndex(HALF, i)));
+            }
+        });
+    }
+
+    /**
+     * Converts floats stored in a segment to bfloat16 values stored in another segment.
+     * Both segments use the native byte order.
+     * @param input segment holding at least {@code count} floats
+     * @param output segment with room for at least {@code count} bfloat16 values
+     * @param count number of values to convert
+     */
+    public static void float2BFloat16(MemorySegment input, MemorySegment output, long count) {
+        checkSegments(input, Float.BYTES, output, Short.BYTES, count);
+
+        split(count, (from, to) -> {
+            for (long i = from; i < to; i++) {
+                output.setAtIndex(HALF, i, float2BFloat16(input.getAtIndex(FLOAT, i)));
+            }
+        });
+    }
+
+    /**
+     * Converts FP8 E4M3 bits to float. The conversion is exact.
+     * @param b E4M3 bits
+     * @return float value
+     */
+    public static float fp8E4M3ToFloat(byte b) {
+        return E4M3_VALUES[b & 0xFF];
+    }
+
+    /**
+     * Converts a float to FP8 E4M3 bits, rounding to nearest-even.
+     * Values beyond the range, infinities included, saturate to &plusmn;448.
+     * @param f float value
+     * @return E4M3 bits
+     */
+    public static byte float2Fp8E4M3(float f) {
+        return encodeFp8(f, 3, 7, 0x7E, 0x7E);
+    }
+
+    /**
+     * Converts FP8 E5M2 bits to float. The conversion is exact.
+     * @param b E5M2 bits
+     * @return float value
+     */
+    public static float fp8E5M2ToFloat(byte b) {
+        return E5M2_VALUES[b & 0xFF];
+    }
+
+    /**
+     * Converts a float to FP8 E5M2 bits, rounding to nearest-even.
+     * Values beyond the range become infinities.
+     * @param f float value
+     * @return E5M2 bits
+     */
+    public static byte float2Fp8E5M2(float f) {
+        return encodeFp8(f, 2, 15, 0x7B, 0x7C);
+    }
+
+    /**
+     * Converts an array of FP8 E4M3 values to float.
+     * @param input E4M3 input
+     * @param output float output, at least as long as the input
+     */
+    public static void fp8E4M3ToFloat(byte[] input, float[] output) {
+        decodeFp8(E4M3_VALUES, MemorySegment.ofArray(input), MemorySegment.ofArray(output), input.length);
+    }
+
+    /**
+     * Converts an array of float values to FP8 E4M3 bits.
+     * @param input float input
+     * @param output E4M3 output, at least as long as the input
+     */
+    public static void float2Fp8E4M3(float[] input, byte[] output) {
+        float2Fp8E4M3(MemorySegment.ofArray(input), MemorySegment.ofArray(output), input.length);
+    }
+
+    /**
+     * Converts an array of FP8 E5M2 values to float.
+     * @param input E5M2 input
+     * @param output float output, at least as long as the input
+     */
+    public static void fp8E5M2ToFloat(byte[] input, float[] output) {
+        decodeFp8(E5M2_VALUES, MemorySegment.ofArray(input), MemorySegment.ofArray(output), input.length);
+    }
+
+    /**
+     * Converts an array of float values to FP8 E5M2 bits.
+     * @param input float input
+     * @param output E5M2 output, at least as long as the input
+     */
+    public static void float2Fp8E5M2(float[] input, byte[] output) {
+        float2Fp8E5M2(MemorySegment.ofArray(input), MemorySegment.ofArray(output), input.length);
+    }
+
+    /**
+     * Converts FP8 E4M3 values stored in a segment to floats stored in another segment.
+     * @param input segment holding at least {@code count} E4M3 values
+     * @param output segment with room for at least {@code count} floats, in native byte order
+     * @param count number of values to convert
+     */
+    public static void fp8E4M3ToFloat(MemorySegment input, MemorySegment output, long count) {
+        decodeFp8(E4M3_VALUES, input, output, count);
+    }
+
+    /**
+     * Converts floats stored in a segment to FP8 E4M3 values stored in another segment.
+     * @param input segment holding at least {@code count} floats, in native byte order
+     * @param output segment with room for at least {@code count} E4M3 values
+     * @param count number of values to convert
+     */
+    public static void float2Fp8E4M3(MemorySegment input, MemorySegment output, long count) {
+        checkSegments(input, Float.BYTES, output, Byte.BYTES, count);
+
+        split(count, (from, to) -> {
+            for (long i = from; i < to; i++) {
+                output.set(ValueLayout.JAVA_BYTE, i, float2Fp8E4M3(input.getAtIndex(FLOAT, i)));
+            }
+        });
+    }
+
+    /**
+     * Converts FP8 E5M2 values stored in a segment to floats stored in another segment.
+     * @param input segment holding at least {@code count} E5M2 values
+     * @param output segment with room for at least {@code count} floats, in native byte order
+     * @param count number of values to convert
+     */
+    public static void fp8E5M2ToFloat(MemorySegment input, MemorySegment output, long count) {
+        decodeFp8(E5M2_VALUES, input, output, count);
+    }
+
+    /**
+     * Converts floats stored in a segment to FP8 E5M2 values stored in another segment.
+     * @param input segment holding at least {@code count} floats, in native byte order
+     * @param output segment with room for at least {@code count} E5M2 values
+     * @param count number of values to convert
+     */
+    public static void float2Fp8E5M2(MemorySegment input, MemorySegment output, long count) {
+        checkSegments(input, Float.BYTES, output, Byte.BYTES, count);
+
+        split(count, (from, to) -> {
+            for (long i = from; i < to; i++) {
+                output.set(ValueLayout.JAVA_BYTE, i, float2Fp8E5M2(input.getAtIndex(FLOAT, i)));
+            }
+        });
+    }
+
+    /**
+     * Quantizes floats to INT8 with one scale per block of values.
+     * <p>
+     * Each block is scaled by its largest magnitude divided by 127, so values map
+     * symmetrically to {@code [-127, 127]} with rounding to nearest-even. A block of zeros
+     * gets a scale of zero.
+     * @param input float input
+     * @param output INT8 output, at least as long as the input
+     * @param scales receives the scale of each block, at least {@code ceil(input.length / blockSize)} long
+     * @param blockSize number of values sharing a scale
+     */
+    public static void quantizeInt8(float[] input, byte[] output, float[] scales, int blockSize) {
+        int blocks = checkBlocks(input.length, output.length, scales.length, blockSize);
+
+        split(blocks, (from, to) -> {
+            for (int block = (int) from; block < to; block++) {
+                int start = block * blockSize;
+                int end = Math.min(start + blockSize, input.length);
+                float max = 0;
+
+                for (int i = start; i < end; i++) {
+                    max = Math.max(max, Math.abs(input[i]));
+                }
+
+                float scale = max / 127;
+                float inverse = scale == 0 ? 0 : 1 / scale;
+                scales[block] = scale;
+
+                for (int i = start; i < end; i++) {
+                    output[i] = (byte) Math.max(-127, Math.min(127, Math.rint(input[i] * inverse)));
+                }
+            }
+        });
+    }
+
+    /**
+     * Restores floats from block-scaled INT8 values, see {@link #quantizeInt8}.
+     * @param input INT8 input
+     * @param scales scale of each block
+     * @param output float output, at least as long as the input
+     * @param blockSize number of values sharing a scale
+     */
+    public static void dequantizeInt8(byte[] input, float[] scales, float[] output, int blockSize) {
+        int blocks = checkBlocks(input.length, output.length, scales.length, blockSize);
+
+        split(blocks, (from, to) -> {
+            for (int block = (int) from; block < to; block++) {
+                int start = block * blockSize;
+                int end = Math.min(start + blockSize, input.length);
+                float scale = scales[block];
+
+                for (int i = start; i < end; i++) {
+                    output[i] = input[i] * scale;
+                }
+            }
+        });
+    }
+
+    private static int checkBlocks(int length, int outputLength, int scaleCount, int blockSize) {
+        if (blockSize <= 0) throw new IllegalArgumentException("Block size must be positive");
+        if (outputLength < length) throw new IllegalArgumentException("Output is shorter than input");
+
+        int blocks = (int) ((length + (long) blockSize - 1) / blockSize);
+        if (scaleCount < blocks) throw new IllegalArgumentException("Expected " + blocks + " scales, got " + scaleCount);
+
+        return blocks;
+    }
+
+    private static byte encodeFp8(float f, int mantissaBits, int bias, int maxCode, int overflowCode) {
+        int bits = Float.floatToRawIntBits(f);
+        int sign = (bits >>> 24) & 0x80;
+
+        if (Float.isNaN(f)) return (byte) (sign | 0x7F);
+        if (Float.isInfinite(f)) return (byte) (sign | overflowCode);
+
+        float magnitude = Math.abs(f);
+        if (magnitude == 0) return (byte) sign;
+
+        int minExponent = 1 - bias;
+        int exponent = Math.getExponent(magnitude);
+        int quantum = Math.max(exponent, minExponent) - mantissaBits;
+
+        // scaling by a power of two is exact, rint rounds to nearest-even
+        int mantissa = (int) Math.rint(Math.scalb(magnitude, -quantum));
+        int code = exponent < minExponent
+            ? mantissa
+            : ((exponent + bias) << mantissaBits) + mantissa - (1 << mantissaBits);
+
+        return (byte) (sign | (code > maxCode ? overflowCode : code));
+    }
+
+    private static void decodeFp8(float[] table, MemorySegment input, MemorySegment output, long count) {
+        checkSegments(input, Byte.BYTES, output, Float.BYTES, count);
+
+        split(count, (from, to) -> {
+            for (long i = from; i < to; i++) {
+                output.setAtIndex(FLOAT, i, table[input.get(ValueLayout.JAVA_BYTE, i) & 0xFF]);
+            }
+        });
+    }
+
+    private static float[] fp8Table(int mantissaBits, int bias, boolean infinities) {
+        float[] table = new float[256];
+        int exponentMask = (0x7F >>> mantissaBits);
+        int mantissaMask = (1 << mantissaBits) - 1;
+
+        for (int code = 0; code < 256; code++) {
+            int exponent = (code >>> mantissaBits) & exponentMask;
+            int mantissa = code & mantissaMask;
+            float value;
+
+            if (exponent == exponentMask && (infinities || mantissa == mantissaMask)) {
+                value = infinities && mantissa == 0 ? Float.POSITIVE_INFINITY : Float.NaN;
+            } else if (exponent == 0) {
+                value = Math.scalb((float) mantissa, 1 - bias - mantissaBits);
+            } else {
+                value = Math.scalb((float) (mantissa | (1 << mantissaBits)), exponent - bias - mantissaBits);
+            }
+
+            table[code] = (code & 0x80) != 0 ? -value : value;
+        }
+
+        return table;
+    }
+
+    private static void checkSegments(MemorySegment input, int inputWidth, MemorySegment output, int outputWidth, long count) {
+        if (count < 0) throw new IllegalArgumentException("Count must not be negative");
+
+        if (input.byteSize() / inputWidth < count || output.byteSize() / outputWidth < count) {
+            throw new IllegalArgumentException("Segments are too small for " + count + " values");
+        }
+    }
+
+    private static void split(long count, Range range) {
+        if (count < 2L * PARALLEL_THRESHOLD) {
+            range.run(0, count);
+            return;
+        }
+
+        ForkJoinPool.commonPool().invoke(new RangeTask(range, 0, count));
+    }
+
+    @FunctionalInterface
+    private interface Range {
+        void run(long from, long to);
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+
+        private final Range range;
+        private final long from;
+        private final long to;
+
+        private RangeTask(Range range, long from, long to) {
+            this.range = range;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < 2L * PARALLEL_THRESHOLD) {
+                range.run(from, to);
+                return;
+            }
+
+            long middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(range, from, middle), new RangeTask(range, middle, to));
+        }
+    }
 }
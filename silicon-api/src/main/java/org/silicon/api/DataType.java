@@ -0,0 +1,46 @@
+package org.silicon.api;
+
+/**
+ * Element types of tensors stored in device buffers.
+ * <p>
+ * Constant names follow the safetensors dtype names, so {@link #valueOf(String)} parses them.
+ */
+public enum DataType {
+    BOOL(1),
+    U8(1),
+    I8(1),
+    F8_E4M3(1),
+    F8_E5M2(1),
+    U16(2),
+    I16(2),
+    F16(2),
+    BF16(2),
+    U32(4),
+    I32(4),
+    F32(4),
+    U64(8),
+    I64(8),
+    F64(8);
+
+    private final int byteSize;
+
+    DataType(int byteSize) {
+        this.byteSize = byteSize;
+    }
+
+    /**
+     * @return size of one element in bytes
+     */
+    public int byteSize() {
+        return byteSize;
+    }
+
+    /**
+     * Gets the number of bytes taken by a number of elements.
+     * @param elements element count
+     * @return size in bytes
+     */
+    public long byteSize(long elements) {
+        return Math.multiplyExact(elements, (long) byteSize);
+    }
+}
@@ -0,0 +1,13 @@
+package org.silicon.api;
+
+/**
+ * Thrown when a backend cannot allocate device memory.
+ * <p>
+ * Contexts try to recover before throwing it, see {@link org.silicon.api.memory.MemoryStats#allocate}.
+ */
+public class OutOfDeviceMemoryException extends SiliconException {
+
+    public OutOfDeviceMemoryException(String message) {
+        super(message);
+    }
+}
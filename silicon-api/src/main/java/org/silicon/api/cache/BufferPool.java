@@ -0,0 +1,29 @@
+package org.silicon.api.cache;
+
+import org.silicon.api.device.ComputeBuffer;
+
+/**
+ * Base type of the pools that lend buffers through {@link Pooled} handles.
+ * <p>
+ * Subclasses decide how returned buffers are indexed and reused; callers only
+ * borrow values and give them back by closing the handle.
+ */
+public abstract class BufferPool {
+
+    BufferPool() {
+    }
+
+    /**
+     * Returns a value to the pool for reuse under the given key.
+     * @param key grouping key for reuse
+     * @param value value to return
+     */
+    abstract void release(Object key, ComputeBuffer value);
+
+    /**
+     * Frees all the buffers retained in this pool.
+     * <p>
+     * Borrowed buffers are not affected and are retained again when returned.
+     */
+    public abstract void free();
+}
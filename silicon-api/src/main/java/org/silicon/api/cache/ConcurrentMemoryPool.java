@@ -0,0 +1,57 @@
+package org.silicon.api.cache;
+
+import org.silicon.api.device.ComputeBuffer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe variant of {@link MemoryPool}.
+ * <p>
+ * Every key owns a lock-free deque, so threads acquiring and releasing different keys
+ * never contend and threads sharing a key only race on a compare-and-set. Allocation on
+ * a miss happens outside of any lock.
+ */
+public class ConcurrentMemoryPool<K extends Record> extends BufferPool {
+
+    private final ConcurrentHashMap<K, ConcurrentLinkedDeque<ComputeBuffer>> free = new ConcurrentHashMap<>();
+
+    /**
+     * Acquires a value for the given key, reusing a cached instance if available.
+     * @param key grouping key used for reuse
+     * @param allocator creates a new value when no cached instance exists
+     * @return a pooled wrapper that returns the value on close
+     */
+    public Pooled acquire(K key, Supplier<ComputeBuffer> allocator) {
+        ConcurrentLinkedDeque<ComputeBuffer> q = free.get(key);
+        ComputeBuffer value = q != null ? q.pollFirst() : null;
+
+        if (value == null) value = allocator.get();
+
+        return new Pooled(this, key, value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void release(Object key, ComputeBuffer value) {
+        free.computeIfAbsent((K) key, k -> new ConcurrentLinkedDeque<>())
+            .addFirst(value);
+    }
+
+    /**
+     * Frees all the buffers retained in this memory pool.
+     * <p>
+     * Buffers returned concurrently with this call may remain retained.
+     */
+    @Override
+    public void free() {
+        for (ConcurrentLinkedDeque<ComputeBuffer> q : free.values()) {
+            ComputeBuffer value;
+
+            while ((value = q.pollFirst()) != null) {
+                value.free();
+            }
+        }
+    }
+}
@@ -15,7 +15,7 @@ import java.util.function.Supplier;
  * <p>
  * This is useful for caching memory portions and to reduce allocations.
  */
-public class MemoryPool<K extends Record> {
+public class MemoryPool<K extends Record> extends BufferPool {
 
     private final Map<K, ArrayDeque<ComputeBuffer>> free = new HashMap<>();
 
@@ -40,6 +40,7 @@ public class MemoryPool<K extends Record> {
      * @param key grouping key for reuse
      * @param value value to return
      */
+    @Override
     void release(Object key, ComputeBuffer value) {
         free.computeIfAbsent((K) key, k -> new ArrayDeque<>())
             .addLast(value);
@@ -48,7 +49,9 @@ public class MemoryPool<K extends Record> {
     /**
      * Frees all the buffers retained in this memory pool.
      */
+    @Override
     public void free() {
         free.forEach((k, v) -> v.forEach(Freeable::free));
+        free.clear();
     }
 }
@@ -2,19 +2,21 @@ package org.silicon.api.cache;
 
 import org.silicon.api.device.ComputeBuffer;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
- * Wrapper for a value borrowed from a {@link MemoryPool}.
+ * Wrapper for a value borrowed from a {@link BufferPool}.
  * <p>
  * Use in try-with-resources to ensure the value is returned to the pool on {@link #close()}.
  */
 public final class Pooled implements AutoCloseable {
 
-    private final MemoryPool<?> pool;
+    private final BufferPool pool;
     private final Object key;
     private final ComputeBuffer value;
-    private boolean released;
+    private final AtomicBoolean released = new AtomicBoolean();
 
-    Pooled(MemoryPool<?> pool, Object key, ComputeBuffer value) {
+    Pooled(BufferPool pool, Object key, ComputeBuffer value) {
         this.pool = pool;
         this.key = key;
         this.value = value;
@@ -30,8 +32,7 @@ public final class Pooled implements AutoCloseable {
 
     @Override
     public void close() {
-        if (!released) {
-            released = true;
+        if (released.compareAndSet(false, true)) {
             pool.release(key, value);
         }
     }
@@ -0,0 +1,150 @@
+package org.silicon.api.cache;
+
+import org.silicon.api.device.ComputeBuffer;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongFunction;
+
+/**
+ * Pool that reuses buffers by size class instead of by exact key.
+ * <p>
+ * Requests are rounded up with {@link SizeClasses} and served by any idle buffer whose
+ * class is at least the requested class and at most twice as large, so borrowed buffers
+ * may be larger than requested. Idle buffers are bounded by a byte budget: when returning
+ * a buffer exceeds it, the least recently returned buffers are freed first.
+ * <p>
+ * All methods are synchronized.
+ */
+public class SizeClassPool extends BufferPool {
+
+    private final LongFunction<ComputeBuffer> allocator;
+    private final SizeClasses classes;
+    private final long byteBudget;
+    private final TreeMap<Long, ArrayDeque<ComputeBuffer>> idle = new TreeMap<>();
+    private final LinkedHashMap<ComputeBuffer, Long> recency = new LinkedHashMap<>();
+    private long idleBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a size-class pool.
+     * @param allocator allocates a buffer of the given size class
+     * @param classes rounding of requested sizes
+     * @param byteBudget maximum bytes retained by idle buffers
+     */
+    public SizeClassPool(LongFunction<ComputeBuffer> allocator, SizeClasses classes, long byteBudget) {
+        if (byteBudget < 0) throw new IllegalArgumentException("Byte budget must not be negative");
+
+        this.allocator = allocator;
+        this.classes = classes;
+        this.byteBudget = byteBudget;
+    }
+
+    /**
+     * Acquires a buffer of at least the given size, reusing an idle one if possible.
+     * @param size requested size in bytes
+     * @return a pooled wrapper that returns the buffer on close
+     */
+    public synchronized Pooled acquire(long size) {
+        if (size < 0) throw new IllegalArgumentException("Requested size must not be negative");
+
+        long sizeClass = classes.classOf(size);
+
+        for (Map.Entry<Long, ArrayDeque<ComputeBuffer>> entry : idle.tailMap(sizeClass, true).entrySet()) {
+            if (entry.getKey() / 2 > sizeClass) break;
+
+            ComputeBuffer buffer = entry.getValue().pollLast();
+            if (buffer == null) continue;
+
+            recency.remove(buffer);
+            idleBytes -= entry.getKey();
+            hits++;
+
+            return new Pooled(this, entry.getKey(), buffer);
+        }
+
+        misses++;
+        return new Pooled(this, sizeClass, allocator.apply(sizeClass));
+    }
+
+    @Override
+    synchronized void release(Object key, ComputeBuffer value) {
+        if (!value.isAlive()) return;
+
+        long sizeClass = (Long) key;
+
+        idle.computeIfAbsent(sizeClass, k -> new ArrayDeque<>()).addLast(value);
+        recency.put(value, sizeClass);
+        idleBytes += sizeClass;
+
+        evict(byteBudget);
+    }
+
+    /**
+     * Frees the least recently returned idle buffers until the idle bytes fit in a limit.
+     * @param limit maximum idle bytes to keep
+     * @return number of bytes freed
+     */
+    public synchronized long evict(long limit) {
+        long freed = 0;
+        Iterator<Map.Entry<ComputeBuffer, Long>> oldest = recency.entrySet().iterator();
+
+        while (idleBytes > limit && oldest.hasNext()) {
+            Map.Entry<ComputeBuffer, Long> entry = oldest.next();
+            ComputeBuffer buffer = entry.getKey();
+            long sizeClass = entry.getValue();
+            oldest.remove();
+
+            ArrayDeque<ComputeBuffer> bucket = idle.get(sizeClass);
+            bucket.removeFirstOccurrence(buffer);
+            if (bucket.isEmpty()) idle.remove(sizeClass);
+
+            idleBytes -= sizeClass;
+            freed += sizeClass;
+            evictions++;
+
+            buffer.free();
+        }
+
+        return freed;
+    }
+
+    @Override
+    public synchronized void free() {
+        evict(0);
+        idle.clear();
+    }
+
+    /**
+     * @return bytes currently retained by idle buffers
+     */
+    public synchronized long idleBytes() {
+        return idleBytes;
+    }
+
+    /**
+     * @return number of acquisitions served by an idle buffer
+     */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /**
+     * @return number of acquisitions that allocated a new buffer
+     */
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * @return number of idle buffers freed to stay within the budget
+     */
+    public synchronized long evictions() {
+        return evictions;
+    }
+}
@@ -0,0 +1,57 @@
+package org.silicon.api.cache;
+
+import java.util.Arrays;
+
+/**
+ * Maps requested sizes to the size class used for pooling.
+ * <p>
+ * Every request is served by a buffer of its size class, so requests
+ * of different sizes within one class can share buffers.
+ */
+@FunctionalInterface
+public interface SizeClasses {
+
+    /**
+     * Rounds a requested size up to its size class.
+     * @param size requested size in bytes
+     * @return size class in bytes, never smaller than the request
+     */
+    long classOf(long size);
+
+    /**
+     * Size classes at every power of two.
+     * @param minimum smallest class in bytes
+     * @return power-of-two size classes
+     */
+    static SizeClasses powerOfTwo(long minimum) {
+        if (minimum <= 0) throw new IllegalArgumentException("Minimum size class must be positive");
+
+        return size -> {
+            long target = Math.max(size, minimum);
+            long highest = Long.highestOneBit(target);
+            return highest == target ? target : highest << 1;
+        };
+    }
+
+    /**
+     * Explicit size classes. Requests above the largest class keep their exact size.
+     * @param classes class sizes in bytes
+     * @return the given size classes
+     */
+    static SizeClasses of(long... classes) {
+        long[] sorted = classes.clone();
+        Arrays.sort(sorted);
+
+        if (sorted.length == 0 || sorted[0] <= 0) {
+            throw new IllegalArgumentException("Size classes must be positive and non-empty");
+        }
+
+        return size -> {
+            int index = Arrays.binarySearch(sorted, size);
+            if (index >= 0) return sorted[index];
+
+            int insertion = -index - 1;
+            return insertion < sorted.length ? sorted[insertion] : size;
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package org.silicon.api.device;
+
+/**
+ * Hints describing how a buffer is going to be used, passed to
+ * {@link ComputeContext#allocateBytes(long, AllocationOptions)}.
+ * <p>
+ * Access describes what kernels do with the buffer, host transfers are always allowed.
+ * Backends translate the options to their closest native equivalent and fall back to
+ * device-local read-write memory for anything they cannot express.
+ * @param access kernel access to the buffer
+ * @param placement where the memory lives
+ */
+public record AllocationOptions(Access access, Placement placement) {
+
+    /**
+     * Device-local memory read and written by kernels, what {@link ComputeContext#allocateBytes(long)} uses.
+     */
+    public static final AllocationOptions DEFAULT = new AllocationOptions(Access.READ_WRITE, Placement.DEVICE);
+
+    public AllocationOptions {
+        if (access == null || placement == null) throw new IllegalArgumentException("Access and placement must not be null");
+    }
+
+    /**
+     * @param access kernel access to the buffer
+     * @return device-local options with the given access
+     */
+    public static AllocationOptions of(Access access) {
+        return new AllocationOptions(access, Placement.DEVICE);
+    }
+
+    /**
+     * @param placement where the memory lives
+     * @return read-write options with the given placement
+     */
+    public static AllocationOptions of(Placement placement) {
+        return new AllocationOptions(Access.READ_WRITE, placement);
+    }
+
+    /**
+     * @param access kernel access to the buffer
+     * @return copy of these options with another access
+     */
+    public AllocationOptions withAccess(Access access) {
+        return new AllocationOptions(access, placement);
+    }
+
+    /**
+     * @param placement where the memory lives
+     * @return copy of these options with another placement
+     */
+    public AllocationOptions withPlacement(Placement placement) {
+        return new AllocationOptions(access, placement);
+    }
+
+    /**
+     * How kernels access a buffer.
+     */
+    public enum Access {
+        /**
+         * Kernels only read the buffer, it is filled from the host or by copies.
+         */
+        READ_ONLY,
+        /**
+         * Kernels only write the buffer, it is read back to the host or by copies.
+         */
+        WRITE_ONLY,
+        /**
+         * Kernels read and write the buffer.
+         */
+        READ_WRITE
+    }
+
+    /**
+     * Where the memory of a buffer lives.
+     */
+    public enum Placement {
+        /**
+         * Device-local memory, fastest for kernels.
+         */
+        DEVICE,
+        /**
+         * Pinned host memory that kernels access over the bus, cheap to fill and read back from the host.
+         */
+        HOST,
+        /**
+         * Unified memory migrated on demand between host and device, may exceed device memory.
+         */
+        MANAGED
+    }
+}
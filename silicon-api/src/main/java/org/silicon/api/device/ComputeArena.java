@@ -1,9 +1,9 @@
 package org.silicon.api.device;
 
-import org.silicon.api.BitUtils;
 import org.silicon.api.kernel.ComputeQueue;
 import org.silicon.api.memory.Freeable;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -61,6 +61,28 @@ public class ComputeArena implements AutoCloseable {
         return retain(context.allocateBytes(size));
     }
 
+    /**
+     * Allocates an uninitialized byte buffer with access and placement hints and registers it.
+     * @param size size in bytes
+     * @param options access and placement hints
+     * @return registered buffer
+     */
+    public ComputeBuffer allocateBytes(long size, AllocationOptions options) {
+        return retain(context.allocateBytes(size, options));
+    }
+
+    /**
+     * Allocates a buffer holding a region of a file and registers it.
+     * @param path file to load
+     * @param offset byte position of the region in the file
+     * @param length number of bytes to load
+     * @return registered buffer
+     * @see ComputeContext#allocateFromFile(Path, long, long)
+     */
+    public ComputeBuffer allocateFromFile(Path path, long offset, long length) {
+        return retain(context.allocateFromFile(path, offset, length));
+    }
+
     /**
      * Allocates and initializes a byte buffer and registers it.
      * @param data source data
@@ -85,9 +107,20 @@ public class ComputeArena implements AutoCloseable {
      * @return registered buffer
      */
     public ComputeBuffer allocateHalf(float[] data) {
-        short[] result = new short[data.length];
-        BitUtils.float2Half(data, result);
-        return allocateArray(result);
+        ComputeBuffer buffer = allocateBytes((long) data.length * Short.BYTES);
+        buffer.writeHalf(data);
+        return buffer;
+    }
+
+    /**
+     * Allocates a BF16 buffer from float data (converted to bfloat16).
+     * @param data float values to convert
+     * @return registered buffer
+     */
+    public ComputeBuffer allocateBFloat16(float[] data) {
+        ComputeBuffer buffer = allocateBytes((long) data.length * Short.BYTES);
+        buffer.writeBFloat16(data);
+        return buffer;
     }
     
     /**
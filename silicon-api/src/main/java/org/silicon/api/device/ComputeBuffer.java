@@ -1,7 +1,15 @@
 package org.silicon.api.device;
 
-import org.silicon.api.BitUtils;
+import org.silicon.api.DataType;
+import org.silicon.api.SiliconException;
+import org.silicon.api.memory.ConvertingTransfer;
 import org.silicon.api.memory.Freeable;
+import org.silicon.api.memory.StagedCopy;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
 
 /**
  * Device-managed memory buffer.
@@ -26,100 +34,561 @@ public interface ComputeBuffer extends Freeable {
      */
     ComputeBuffer copyInto(ComputeBuffer other);
     
+    /**
+     * Copies this buffer into a buffer of any context, including other devices and backends.
+     * <p>
+     * Buffers of the same context use {@link #copyInto(ComputeBuffer)}. Backends copy between
+     * their own contexts directly where the driver allows it, everything else goes through
+     * a pipelined {@link StagedCopy}.
+     * @param other destination buffer, at least as large as this buffer
+     * @return the destination buffer (for chaining)
+     */
+    default ComputeBuffer copyTo(ComputeBuffer other) {
+        ensureAlive();
+        ensureOther(other);
+        other.ensureRange(0, size());
+
+        if (other.context() == context()) return copyInto(other);
+
+        StagedCopy.copy(this, 0, other, 0, size());
+        return other;
+    }
+
+    /**
+     * @return the context this buffer was allocated from
+     */
+    ComputeContext context();
+
+    /**
+     * Creates a non-owning view over a byte range of this buffer.
+     * <p>
+     * The view shares memory with this buffer and can be used wherever a buffer is accepted,
+     * including kernel arguments. Freeing the view never releases the underlying memory, and
+     * the view is no longer {@link #isAlive() alive} once this buffer has been freed.
+     * @param offset byte offset into this buffer
+     * @param length length of the view in bytes, must be positive
+     * @return a view over the requested range
+     * @throws UnsupportedOperationException if the backend cannot bind views at this offset
+     * @apiNote OpenCL requires the absolute offset to be aligned to the device base address alignment.
+     *          Metal requires natives exporting {@code metal_encoder_set_buffer_offset} for views
+     *          at a non-zero offset.
+     */
+    default ComputeBuffer slice(long offset, long length) {
+        return slice(offset, length, null);
+    }
+
+    /**
+     * Creates a non-owning view that runs an action when it is freed.
+     * <p>
+     * Lets allocators that hand out ranges of a larger buffer reclaim the range
+     * once the view is released, see {@link SubAllocatingContext}.
+     * @param offset byte offset into this buffer
+     * @param length length of the view in bytes, must be positive
+     * @param release action run once when the view is freed, may be null
+     * @return a view over the requested range
+     * @see #slice(long, long)
+     */
+    ComputeBuffer slice(long offset, long length, Runnable release);
+
     /**
      * Gets the size in bytes of this buffer.
      * @return size in bytes as a long
      */
     long size();
+
+    /**
+     * Ensures a byte range lies within this buffer or throws.
+     * @param offset byte offset into this buffer
+     * @param length number of bytes in the range
+     * @throws IllegalArgumentException if the range exceeds the buffer size
+     */
+    default void ensureRange(long offset, long length) {
+        if (offset >= 0 && length >= 0 && length <= size() - offset) return;
+
+        throw new IllegalArgumentException("Requested range of " + length + " bytes at offset " + offset + ", but buffer size is " + size());
+    }
+
+    /**
+     * Ensures a strided region lies within this buffer or throws.
+     * @param layout placement of the region in this buffer
+     * @param extent size of the region
+     * @throws IllegalArgumentException if the pitches are invalid or the region exceeds the buffer
+     */
+    default void ensureRegion(RegionLayout layout, RegionExtent extent) {
+        layout.ensureWithin(size(), extent);
+    }
+
+    /**
+     * Copies a strided region of this buffer into a region of another buffer on the device.
+     * @param dst destination buffer of the same backend
+     * @param srcLayout placement of the region in this buffer
+     * @param dstLayout placement of the region in the destination buffer
+     * @param extent size of the region
+     */
+    void copyRegionInto(ComputeBuffer dst, RegionLayout srcLayout, RegionLayout dstLayout, RegionExtent extent);
+
+    /**
+     * Writes a strided region of host memory into a region of this buffer.
+     * @param src source segment
+     * @param srcLayout placement of the region in the source segment
+     * @param dstLayout placement of the region in this buffer
+     * @param extent size of the region
+     */
+    void writeRegion(MemorySegment src, RegionLayout srcLayout, RegionLayout dstLayout, RegionExtent extent);
+
+    /**
+     * Reads a strided region of this buffer into a region of host memory.
+     * @param dst destination segment
+     * @param srcLayout placement of the region in this buffer
+     * @param dstLayout placement of the region in the destination segment
+     * @param extent size of the region
+     */
+    void readRegion(MemorySegment dst, RegionLayout srcLayout, RegionLayout dstLayout, RegionExtent extent);
+
+    /**
+     * Ensures a byte range can be filled with a pattern of the given width or throws.
+     * @param offset byte offset into this buffer
+     * @param length number of bytes in the range
+     * @param width pattern size in bytes
+     * @throws IllegalArgumentException if the range exceeds the buffer or is not a multiple of the pattern
+     */
+    default void ensureFillRange(long offset, long length, int width) {
+        ensureRange(offset, length);
+        if (offset % width == 0 && length % width == 0) return;
+
+        throw new IllegalArgumentException("Fill range at offset " + offset + " of " + length + " bytes is not a multiple of the " + width + " byte pattern");
+    }
+
+    /**
+     * Fills a byte range with a byte value on the device, without a host transfer.
+     * @param value value written to every byte
+     * @param offset byte offset into this buffer
+     * @param length number of bytes to fill
+     */
+    void fill(byte value, long offset, long length);
+
+    /**
+     * Fills a byte range with a short pattern on the device.
+     * @param value value written to every 2-byte element
+     * @param offset byte offset into this buffer, a multiple of 2
+     * @param length number of bytes to fill, a multiple of 2
+     */
+    void fill(short value, long offset, long length);
+
+    /**
+     * Fills a byte range with an int pattern on the device.
+     * @param value value written to every 4-byte element
+     * @param offset byte offset into this buffer, a multiple of 4
+     * @param length number of bytes to fill, a multiple of 4
+     */
+    void fill(int value, long offset, long length);
+
+    /**
+     * Fills a byte range with a float pattern on the device.
+     * @param value value written to every 4-byte element
+     * @param offset byte offset into this buffer, a multiple of 4
+     * @param length number of bytes to fill, a multiple of 4
+     */
+    default void fill(float value, long offset, long length) {
+        fill(Float.floatToRawIntBits(value), offset, length);
+    }
+
+    /**
+     * Sets every byte of this buffer to zero on the device.
+     */
+    default void clear() {
+        fill((byte) 0, 0, size());
+    }
+
+    /**
+     * Reads the buffer contents into a memory segment.
+     * <p>
+     * Native segments are transferred in place, without an intermediate host copy.
+     * Heap segments are staged through temporary native memory.
+     * @param data destination segment, {@link MemorySegment#byteSize()} bytes are read
+     * @return the data segment
+     */
+    default MemorySegment get(MemorySegment data) {
+        return get(0, data);
+    }
+
+    /**
+     * Reads a range of the buffer contents into a memory segment.
+     * @param offset byte offset into this buffer
+     * @param data destination segment, {@link MemorySegment#byteSize()} bytes are read
+     * @return the data segment
+     * @throws IllegalArgumentException if the range exceeds the buffer size
+     * @see #get(MemorySegment)
+     */
+    MemorySegment get(long offset, MemorySegment data);
+
+    /**
+     * Writes a memory segment into this buffer.
+     * <p>
+     * Native segments are transferred in place, without an intermediate host copy.
+     * Heap segments are staged through temporary native memory.
+     * @param data source segment, {@link MemorySegment#byteSize()} bytes are written
+     */
+    default void write(MemorySegment data) {
+        write(0, data);
+    }
+
+    /**
+     * Writes a memory segment into a range of this buffer.
+     * @param offset byte offset into this buffer
+     * @param data source segment, {@link MemorySegment#byteSize()} bytes are written
+     * @throws IllegalArgumentException if the range exceeds the buffer size
+     * @see #write(MemorySegment)
+     */
+    void write(long offset, MemorySegment data);
     
+    /**
+     * Writes a region of a file into this buffer without reading it into the heap.
+     * <p>
+     * The region is memory mapped and streamed in chunks, see {@link StagedCopy#stream}.
+     * @param channel readable file channel
+     * @param position byte position of the region in the file
+     * @param offset byte offset into this buffer
+     * @param length number of bytes to write
+     */
+    default void writeFrom(FileChannel channel, long position, long offset, long length) {
+        ensureAlive();
+        ensureRange(offset, length);
+        if (length == 0) return;
+
+        try (Arena arena = Arena.ofShared()) {
+            MemorySegment mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, length, arena);
+            StagedCopy.stream(mapped, this, offset);
+        } catch (IOException e) {
+            throw new SiliconException("writeFrom(FileChannel, long, long, long) failed", e);
+        }
+    }
+
     /**
      * Reads the buffer contents into a byte array.
      * @param data destination array
      * @return the data array
      */
-    byte[] get(byte[] data);
+    default byte[] get(byte[] data) {
+        return get(0, data, 0, data.length);
+    }
+
+    /**
+     * Reads a range of the buffer contents into a byte array.
+     * @param offset byte offset into this buffer
+     * @param data destination array
+     * @param index first array element to fill
+     * @param length number of elements to read
+     * @return the data array
+     */
+    default byte[] get(long offset, byte[] data, int index, int length) {
+        get(offset, MemorySegment.ofArray(data).asSlice((long) index * Byte.BYTES, (long) length * Byte.BYTES));
+        return data;
+    }
     
     /**
      * Writes a byte array into this buffer.
      * @param data source array
      */
-    void write(byte[] data);
+    default void write(byte[] data) {
+        write(0, data, 0, data.length);
+    }
 
+    /**
+     * Writes a range of a byte array into this buffer.
+     * @param offset byte offset into this buffer
+     * @param data source array
+     * @param index first array element to write
+     * @param length number of elements to write
+     */
+    default void write(long offset, byte[] data, int index, int length) {
+        write(offset, MemorySegment.ofArray(data).asSlice((long) index * Byte.BYTES, (long) length * Byte.BYTES));
+    }
+    
     /**
      * Reads the buffer contents into a double array.
      * @param data destination array
      * @return the data array
      */
-    double[] get(double[] data);
+    default double[] get(double[] data) {
+        return get(0, data, 0, data.length);
+    }
+
+    /**
+     * Reads a range of the buffer contents into a double array.
+     * @param offset byte offset into this buffer
+     * @param data destination array
+     * @param index first array element to fill
+     * @param length number of elements to read
+     * @return the data array
+     */
+    default double[] get(long offset, double[] data, int index, int length) {
+        get(offset, MemorySegment.ofArray(data).asSlice((long) index * Double.BYTES, (long) length * Double.BYTES));
+        return data;
+    }
     
     /**
      * Writes a double array into this buffer.
      * @param data source array
      */
-    void write(double[] data);
+    default void write(double[] data) {
+        write(0, data, 0, data.length);
+    }
+
+    /**
+     * Writes a range of a double array into this buffer.
+     * @param offset byte offset into this buffer
+     * @param data source array
+     * @param index first array element to write
+     * @param length number of elements to write
+     */
+    default void write(long offset, double[] data, int index, int length) {
+        write(offset, MemorySegment.ofArray(data).asSlice((long) index * Double.BYTES, (long) length * Double.BYTES));
+    }
     
     /**
      * Reads the buffer contents into a float array.
      * @param data destination array
      * @return the data array
      */
-    float[] get(float[] data);
+    default float[] get(float[] data) {
+        return get(0, data, 0, data.length);
+    }
+
+    /**
+     * Reads a range of the buffer contents into a float array.
+     * @param offset byte offset into this buffer
+     * @param data destination array
+     * @param index first array element to fill
+     * @param length number of elements to read
+     * @return the data array
+     */
+    default float[] get(long offset, float[] data, int index, int length) {
+        get(offset, MemorySegment.ofArray(data).asSlice((long) index * Float.BYTES, (long) length * Float.BYTES));
+        return data;
+    }
     
     /**
      * Writes a float array into this buffer.
      * @param data source array
      */
-    void write(float[] data);
+    default void write(float[] data) {
+        write(0, data, 0, data.length);
+    }
 
+    /**
+     * Writes a range of a float array into this buffer.
+     * @param offset byte offset into this buffer
+     * @param data source array
+     * @param index first array element to write
+     * @param length number of elements to write
+     */
+    default void write(long offset, float[] data, int index, int length) {
+        write(offset, MemorySegment.ofArray(data).asSlice((long) index * Float.BYTES, (long) length * Float.BYTES));
+    }
+    
     /**
      * Reads the buffer contents into a long array.
      * @param data destination array
      * @return the data array
      */
-    long[] get(long[] data);
+    default long[] get(long[] data) {
+        return get(0, data, 0, data.length);
+    }
+
+    /**
+     * Reads a range of the buffer contents into a long array.
+     * @param offset byte offset into this buffer
+     * @param data destination array
+     * @param index first array element to fill
+     * @param length number of elements to read
+     * @return the data array
+     */
+    default long[] get(long offset, long[] data, int index, int length) {
+        get(offset, MemorySegment.ofArray(data).asSlice((long) index * Long.BYTES, (long) length * Long.BYTES));
+        return data;
+    }
     
     /**
      * Writes a long array into this buffer.
      * @param data source array
      */
-    void write(long[] data);
+    default void write(long[] data) {
+        write(0, data, 0, data.length);
+    }
 
+    /**
+     * Writes a range of a long array into this buffer.
+     * @param offset byte offset into this buffer
+     * @param data source array
+     * @param index first array element to write
+     * @param length number of elements to write
+     */
+    default void write(long offset, long[] data, int index, int length) {
+        write(offset, MemorySegment.ofArray(data).asSlice((long) index * Long.BYTES, (long) length * Long.BYTES));
+    }
+    
     /**
      * Reads the buffer contents into an int array.
      * @param data destination array
      * @return the data array
      */
-    int[] get(int[] data);
+    default int[] get(int[] data) {
+        return get(0, data, 0, data.length);
+    }
+
+    /**
+     * Reads a range of the buffer contents into an int array.
+     * @param offset byte offset into this buffer
+     * @param data destination array
+     * @param index first array element to fill
+     * @param length number of elements to read
+     * @return the data array
+     */
+    default int[] get(long offset, int[] data, int index, int length) {
+        get(offset, MemorySegment.ofArray(data).asSlice((long) index * Integer.BYTES, (long) length * Integer.BYTES));
+        return data;
+    }
     
     /**
      * Writes an int array into this buffer.
      * @param data source array
      */
-    void write(int[] data);
+    default void write(int[] data) {
+        write(0, data, 0, data.length);
+    }
 
+    /**
+     * Writes a range of an int array into this buffer.
+     * @param offset byte offset into this buffer
+     * @param data source array
+     * @param index first array element to write
+     * @param length number of elements to write
+     */
+    default void write(long offset, int[] data, int index, int length) {
+        write(offset, MemorySegment.ofArray(data).asSlice((long) index * Integer.BYTES, (long) length * Integer.BYTES));
+    }
+    
     /**
      * Reads the buffer contents into a short array.
      * @param data destination array
      * @return the data array
      */
-    short[] get(short[] data);
+    default short[] get(short[] data) {
+        return get(0, data, 0, data.length);
+    }
+
+    /**
+     * Reads a range of the buffer contents into a short array.
+     * @param offset byte offset into this buffer
+     * @param data destination array
+     * @param index first array element to fill
+     * @param length number of elements to read
+     * @return the data array
+     */
+    default short[] get(long offset, short[] data, int index, int length) {
+        get(offset, MemorySegment.ofArray(data).asSlice((long) index * Short.BYTES, (long) length * Short.BYTES));
+        return data;
+    }
     
     /**
      * Writes a short array into this buffer.
      * @param data source array
      */
-    void write(short[] data);
+    default void write(short[] data) {
+        write(0, data, 0, data.length);
+    }
+
+    /**
+     * Writes a range of a short array into this buffer.
+     * @param offset byte offset into this buffer
+     * @param data source array
+     * @param index first array element to write
+     * @param length number of elements to write
+     */
+    default void write(long offset, short[] data, int index, int length) {
+        write(offset, MemorySegment.ofArray(data).asSlice((long) index * Short.BYTES, (long) length * Short.BYTES));
+    }
     
     /**
      * Reads FP16 (half) data and converts it to float.
-     * <p>
-     * Internally reads into a short array and converts via {@link BitUtils}.
      * @param data destination float array
      * @return the data array
+     * @see #readHalf(long, float[])
      */
     default float[] getHalf(float[] data) {
-        short[] tmp = new short[data.length];
-        BitUtils.half2Float(get(tmp), data);
-        return data;
+        return readHalf(0, data);
+    }
+
+    /**
+     * Converts floats to FP16 (half) while writing them, see {@link ConvertingTransfer}.
+     * @param offset byte offset into this buffer
+     * @param data values to convert
+     */
+    default void writeHalf(long offset, float[] data) {
+        ConvertingTransfer.write(this, offset, data, DataType.F16);
+    }
+
+    /**
+     * Converts floats to FP16 (half) while writing them at the start of this buffer.
+     * @param data values to convert
+     */
+    default void writeHalf(float[] data) {
+        writeHalf(0, data);
+    }
+
+    /**
+     * Reads FP16 (half) data and converts it to float, see {@link ConvertingTransfer}.
+     * @param offset byte offset into this buffer
+     * @param data destination float array
+     * @return the data array
+     */
+    default float[] readHalf(long offset, float[] data) {
+        return ConvertingTransfer.read(this, offset, data, DataType.F16);
+    }
+
+    /**
+     * Reads FP16 (half) data from the start of this buffer and converts it to float.
+     * @param data destination float array
+     * @return the data array
+     */
+    default float[] readHalf(float[] data) {
+        return readHalf(0, data);
+    }
+
+    /**
+     * Converts floats to BF16 (bfloat16) while writing them, see {@link ConvertingTransfer}.
+     * @param offset byte offset into this buffer
+     * @param data values to convert
+     */
+    default void writeBFloat16(long offset, float[] data) {
+        ConvertingTransfer.write(this, offset, data, DataType.BF16);
+    }
+
+    /**
+     * Converts floats to BF16 (bfloat16) while writing them at the start of this buffer.
+     * @param data values to convert
+     */
+    default void writeBFloat16(float[] data) {
+        writeBFloat16(0, data);
+    }
+
+    /**
+     * Reads BF16 (bfloat16) data and converts it to float, see {@link ConvertingTransfer}.
+     * @param offset byte offset into this buffer
+     * @param data destination float array
+     * @return the data array
+     */
+    default float[] readBFloat16(long offset, float[] data) {
+        return ConvertingTransfer.read(this, offset, data, DataType.BF16);
+    }
+
+    /**
+     * Reads BF16 (bfloat16) data from the start of this buffer and converts it to float.
+     * @param data destination float array
+     * @return the data array
+     */
+    default float[] readBFloat16(float[] data) {
+        return readBFloat16(0, data);
     }
 }
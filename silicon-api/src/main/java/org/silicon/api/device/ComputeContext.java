@@ -2,12 +2,20 @@ package org.silicon.api.device;
 
 import org.silicon.api.SiliconException;
 import org.silicon.api.backend.BackendType;
+import org.silicon.api.cache.ConcurrentMemoryPool;
 import org.silicon.api.cache.MemoryPool;
+import org.silicon.api.cache.SizeClassPool;
+import org.silicon.api.cache.SizeClasses;
 import org.silicon.api.function.ComputeModule;
 import org.silicon.api.kernel.ComputeQueue;
+import org.silicon.api.memory.MemoryStats;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Execution context for a compute backend.
@@ -45,13 +53,57 @@ public interface ComputeContext {
         // No impl by default
     }
 
+    /**
+     * Gets the memory counters of this context.
+     * <p>
+     * Pools created by this context are registered to it, so their retained buffers
+     * are freed before an allocation fails for lack of device memory.
+     * @return the memory counters of this context
+     */
+    MemoryStats memoryStats();
+
     /**
      * Creates a new memory pool.
      * @return the new memory pool
      * @param <K> key to index memory objects
      */
     default <K extends Record> MemoryPool<K> createPool() {
-        return new MemoryPool<>();
+        MemoryPool<K> pool = new MemoryPool<>();
+        memoryStats().register(pool);
+        return pool;
+    }
+
+    /**
+     * Creates a new memory pool that can be shared between threads.
+     * @return the new concurrent memory pool
+     * @param <K> key to index memory objects
+     */
+    default <K extends Record> ConcurrentMemoryPool<K> createConcurrentPool() {
+        ConcurrentMemoryPool<K> pool = new ConcurrentMemoryPool<>();
+        memoryStats().register(pool);
+        return pool;
+    }
+
+    /**
+     * Creates a pool that reuses buffers of this context by size class.
+     * @param classes rounding of requested sizes
+     * @param byteBudget maximum bytes retained by idle buffers
+     * @return the new size-class pool
+     * @see SizeClassPool
+     */
+    default SizeClassPool createPool(SizeClasses classes, long byteBudget) {
+        SizeClassPool pool = new SizeClassPool(this::allocateBytes, classes, byteBudget);
+        memoryStats().register(pool);
+        return pool;
+    }
+
+    /**
+     * Creates a context that sub-allocates buffers out of large blocks of this context.
+     * @return the new sub-allocating context
+     * @see SubAllocatingContext
+     */
+    default SubAllocatingContext createSubAllocator() {
+        return new SubAllocatingContext(this);
     }
 
     /**
@@ -100,6 +152,19 @@ public interface ComputeContext {
      */
     ComputeBuffer allocateBytes(long size);
 
+    /**
+     * Allocates an uninitialized byte buffer with access and placement hints.
+     * <p>
+     * The default implementation ignores the options, backends override it to map them
+     * to native memory flags.
+     * @param size size in bytes
+     * @param options access and placement hints
+     * @return allocated buffer
+     */
+    default ComputeBuffer allocateBytes(long size, AllocationOptions options) {
+        return allocateBytes(size);
+    }
+
     /**
      * Allocates and initializes a byte buffer.
      * @param data source data
@@ -142,6 +207,50 @@ public interface ComputeContext {
      */
     ComputeBuffer allocateArray(short[] data);
 
+    /**
+     * Allocates a buffer holding the contents of a whole file.
+     * @param path file to load
+     * @return allocated buffer
+     * @see #allocateFromFile(Path, long, long)
+     */
+    default ComputeBuffer allocateFromFile(Path path) {
+        try {
+            return allocateFromFile(path, 0, Files.size(path));
+        } catch (IOException e) {
+            throw new SiliconException("allocateFromFile(Path) failed", e);
+        }
+    }
+
+    /**
+     * Allocates a buffer holding a region of a file.
+     * <p>
+     * The file is memory mapped and streamed to the device in chunks, so it is never
+     * copied into the Java heap, see {@link ComputeBuffer#writeFrom}.
+     * @param path file to load
+     * @param offset byte position of the region in the file
+     * @param length number of bytes to load
+     * @return allocated buffer
+     */
+    default ComputeBuffer allocateFromFile(Path path, long offset, long length) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (offset < 0 || length < 0 || length > channel.size() - offset) {
+                throw new IllegalArgumentException("Region of " + length + " bytes at " + offset + " exceeds " + path);
+            }
+
+            ComputeBuffer buffer = allocateBytes(length);
+
+            try {
+                buffer.writeFrom(channel, offset, 0, length);
+                return buffer;
+            } catch (RuntimeException e) {
+                buffer.free();
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new SiliconException("allocateFromFile(Path, long, long) failed", e);
+        }
+    }
+
     /**
      * Creates an arena for automatic resource lifetime management.
      * @return new arena associated with this context
@@ -7,5 +7,17 @@ package org.silicon.api.device;
  */
 public enum DeviceFeature {
     FP16,
-    FP64
+    FP64,
+    /**
+     * Native bfloat16 arithmetic or conversions in kernels.
+     */
+    BF16,
+    /**
+     * Native FP8 (E4M3 and E5M2) conversions in kernels.
+     */
+    FP8,
+    /**
+     * Packed 8-bit integer dot products, used by INT8 quantized kernels.
+     */
+    INT8
 }
@@ -0,0 +1,40 @@
+package org.silicon.api.device;
+
+/**
+ * Size of a strided region copy.
+ * @param rowBytes number of contiguous bytes per row
+ * @param rows number of rows per slice
+ * @param slices number of slices
+ */
+public record RegionExtent(long rowBytes, long rows, long slices) {
+
+    public RegionExtent {
+        if (rowBytes < 0 || rows < 0 || slices < 0) {
+            throw new IllegalArgumentException("Region extent must not be negative");
+        }
+    }
+
+    /**
+     * Creates the extent of a two-dimensional region.
+     * @param rowBytes number of contiguous bytes per row
+     * @param rows number of rows
+     * @return an extent with a single slice
+     */
+    public static RegionExtent of(long rowBytes, long rows) {
+        return new RegionExtent(rowBytes, rows, 1);
+    }
+
+    /**
+     * @return true if the region contains no bytes
+     */
+    public boolean isEmpty() {
+        return rowBytes == 0 || rows == 0 || slices == 0;
+    }
+
+    /**
+     * @return number of bytes copied for this extent
+     */
+    public long byteSize() {
+        return rowBytes * rows * slices;
+    }
+}
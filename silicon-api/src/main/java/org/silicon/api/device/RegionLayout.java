@@ -0,0 +1,98 @@
+package org.silicon.api.device;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Placement of a strided region inside a buffer or a host segment.
+ * <p>
+ * Row {@code y} of slice {@code z} starts at {@code offset + z * slicePitch + y * rowPitch}.
+ * The slice pitch must be a multiple of the row pitch, as required by OpenCL and CUDA.
+ * @param offset byte offset of the first row
+ * @param rowPitch bytes between the starts of consecutive rows
+ * @param slicePitch bytes between the starts of consecutive slices
+ */
+public record RegionLayout(long offset, long rowPitch, long slicePitch) {
+
+    public RegionLayout {
+        if (offset < 0 || rowPitch < 0 || slicePitch < 0) {
+            throw new IllegalArgumentException("Region layout must not be negative");
+        }
+    }
+
+    /**
+     * Creates the layout of a tightly packed region.
+     * @param offset byte offset of the first row
+     * @param extent size of the region
+     * @return a layout without padding between rows or slices
+     */
+    public static RegionLayout packed(long offset, RegionExtent extent) {
+        return new RegionLayout(offset, extent.rowBytes(), extent.rowBytes() * extent.rows());
+    }
+
+    /**
+     * Creates the layout of a two-dimensional region.
+     * @param offset byte offset of the first row
+     * @param rowPitch bytes between the starts of consecutive rows
+     * @param rows number of rows of the region
+     * @return a layout whose slice pitch spans all rows
+     */
+    public static RegionLayout of(long offset, long rowPitch, long rows) {
+        return new RegionLayout(offset, rowPitch, rowPitch * rows);
+    }
+
+    /**
+     * Gets the number of bytes between the first and the last byte of a region, both included.
+     * @param extent size of the region
+     * @return span in bytes, zero for an empty region
+     */
+    public long span(RegionExtent extent) {
+        if (extent.isEmpty()) return 0;
+        return (extent.slices() - 1) * slicePitch + (extent.rows() - 1) * rowPitch + extent.rowBytes();
+    }
+
+    /**
+     * Ensures a region with this layout fits in memory of the given size or throws.
+     * @param size size in bytes of the buffer or segment
+     * @param extent size of the region
+     * @throws IllegalArgumentException if the pitches are too small or the region exceeds the size
+     */
+    public void ensureWithin(long size, RegionExtent extent) {
+        if (extent.isEmpty()) return;
+
+        if (rowPitch < extent.rowBytes() || slicePitch < rowPitch * extent.rows() || slicePitch % rowPitch != 0) {
+            throw new IllegalArgumentException("Invalid pitches " + this + " for " + extent);
+        }
+
+        long span = span(extent);
+        if (span <= size - offset) return;
+
+        throw new IllegalArgumentException("Region of " + span + " bytes at offset " + offset + " exceeds size " + size);
+    }
+
+    /**
+     * Copies a strided region between two host segments, row by row.
+     * @param src source segment
+     * @param srcLayout placement of the region in the source segment
+     * @param dst destination segment
+     * @param dstLayout placement of the region in the destination segment
+     * @param extent size of the region
+     */
+    public static void copy(MemorySegment src, RegionLayout srcLayout, MemorySegment dst, RegionLayout dstLayout, RegionExtent extent) {
+        srcLayout.ensureWithin(src.byteSize(), extent);
+        dstLayout.ensureWithin(dst.byteSize(), extent);
+        if (extent.isEmpty()) return;
+
+        for (long z = 0; z < extent.slices(); z++) {
+            long srcSlice = srcLayout.offset + z * srcLayout.slicePitch;
+            long dstSlice = dstLayout.offset + z * dstLayout.slicePitch;
+
+            for (long y = 0; y < extent.rows(); y++) {
+                MemorySegment.copy(
+                    src, srcSlice + y * srcLayout.rowPitch,
+                    dst, dstSlice + y * dstLayout.rowPitch,
+                    extent.rowBytes()
+                );
+            }
+        }
+    }
+}
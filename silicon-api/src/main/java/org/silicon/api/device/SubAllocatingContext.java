@@ -0,0 +1,284 @@
+package org.silicon.api.device;
+
+import org.silicon.api.backend.BackendType;
+import org.silicon.api.function.ComputeModule;
+import org.silicon.api.kernel.ComputeQueue;
+import org.silicon.api.memory.BuddyAllocator;
+import org.silicon.api.memory.Freeable;
+import org.silicon.api.memory.MemoryState;
+import org.silicon.api.memory.MemoryStats;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Context wrapper that carves allocations out of large device blocks.
+ * <p>
+ * Requests up to the block size are served as {@link ComputeBuffer#slice(long, long, Runnable) views}
+ * of blocks reserved from the wrapped context and managed by a {@link BuddyAllocator}. Freeing
+ * such a buffer returns its range to the allocator instead of the driver. Larger requests are
+ * forwarded to the wrapped context unchanged. Everything else delegates to the wrapped context.
+ * <p>
+ * Reserved blocks are only released by {@link #trim()} and {@link #free()}.
+ * <p>
+ * Backends that cannot create views at a non-zero offset, such as Metal with natives lacking
+ * {@code metal_encoder_set_buffer_offset}, are detected on the first rejected view. From then
+ * on every request is forwarded to the wrapped context and {@link #isForwarding()} returns true.
+ */
+public class SubAllocatingContext implements ComputeContext, Freeable {
+
+    /**
+     * Default size of the device blocks reserved from the wrapped context.
+     */
+    public static final long DEFAULT_BLOCK_SIZE = 64L << 20;
+
+    /**
+     * Default minimum block, large enough for the sub-buffer alignment of common OpenCL devices.
+     */
+    public static final long DEFAULT_MIN_BLOCK = 512;
+
+    private final ComputeContext delegate;
+    private final long blockSize;
+    private final long minBlock;
+    private final List<Block> blocks = new ArrayList<>();
+    private boolean forwarding;
+    private MemoryState state = MemoryState.ALIVE;
+
+    /**
+     * Creates a sub-allocator with the default block sizes.
+     * @param delegate context that provides the device blocks
+     */
+    public SubAllocatingContext(ComputeContext delegate) {
+        this(delegate, DEFAULT_BLOCK_SIZE, DEFAULT_MIN_BLOCK);
+    }
+
+    /**
+     * Creates a sub-allocator.
+     * @param delegate context that provides the device blocks
+     * @param blockSize bytes reserved per device block, a power of two
+     * @param minBlock smallest range handed out and its alignment, a power of two
+     */
+    public SubAllocatingContext(ComputeContext delegate, long blockSize, long minBlock) {
+        if (Long.bitCount(blockSize) != 1 || Long.bitCount(minBlock) != 1 || minBlock > blockSize) {
+            throw new IllegalArgumentException("Block sizes must be powers of two with minBlock <= blockSize");
+        }
+
+        this.delegate = delegate;
+        this.blockSize = blockSize;
+        this.minBlock = minBlock;
+    }
+
+    @Override
+    public synchronized ComputeBuffer allocateBytes(long size) {
+        ensureAlive();
+
+        if (size < 0) throw new IllegalArgumentException("Allocation size must be positive");
+        if (forwarding || size == 0 || size > blockSize) return delegate.allocateBytes(size);
+
+        try {
+            for (Block block : blocks) {
+                long offset = block.allocator.allocate(size);
+                if (offset >= 0) return block.view(offset, size);
+            }
+
+            Block block = new Block(delegate.allocateBytes(blockSize), new BuddyAllocator(blockSize, minBlock));
+            blocks.add(block);
+
+            return block.view(block.allocator.allocate(size), size);
+        } catch (UnsupportedOperationException e) {
+            // the backend cannot bind views at an offset, hand out plain buffers from now on
+            forwarding = true;
+            trim();
+            return delegate.allocateBytes(size);
+        }
+    }
+
+    /**
+     * Sub-allocates with {@link AllocationOptions#DEFAULT}, other options are forwarded to the
+     * wrapped context since blocks are shared between requests.
+     */
+    @Override
+    public ComputeBuffer allocateBytes(long size, AllocationOptions options) {
+        if (options.equals(AllocationOptions.DEFAULT)) return allocateBytes(size);
+        return delegate.allocateBytes(size, options);
+    }
+
+    @Override
+    public ComputeBuffer allocateArray(byte[] data) {
+        return upload(MemorySegment.ofArray(data));
+    }
+
+    @Override
+    public ComputeBuffer allocateArray(double[] data) {
+        return upload(MemorySegment.ofArray(data));
+    }
+
+    @Override
+    public ComputeBuffer allocateArray(float[] data) {
+        return upload(MemorySegment.ofArray(data));
+    }
+
+    @Override
+    public ComputeBuffer allocateArray(long[] data) {
+        return upload(MemorySegment.ofArray(data));
+    }
+
+    @Override
+    public ComputeBuffer allocateArray(int[] data) {
+        return upload(MemorySegment.ofArray(data));
+    }
+
+    @Override
+    public ComputeBuffer allocateArray(short[] data) {
+        return upload(MemorySegment.ofArray(data));
+    }
+
+    private ComputeBuffer upload(MemorySegment data) {
+        ComputeBuffer buffer = allocateBytes(data.byteSize());
+        buffer.write(data);
+        return buffer;
+    }
+
+    /**
+     * Releases every reserved block that has no live sub-allocation.
+     * @return number of bytes returned to the wrapped context
+     */
+    public synchronized long trim() {
+        long released = 0;
+
+        for (int i = blocks.size() - 1; i >= 0; i--) {
+            Block block = blocks.get(i);
+            if (!block.allocator.isEmpty()) continue;
+
+            block.buffer.free();
+            blocks.remove(i);
+            released += blockSize;
+        }
+
+        return released;
+    }
+
+    /**
+     * @return bytes reserved from the wrapped context
+     */
+    public synchronized long reservedBytes() {
+        return (long) blocks.size() * blockSize;
+    }
+
+    /**
+     * @return bytes handed out from reserved blocks, including rounding to block sizes
+     */
+    public synchronized long usedBytes() {
+        long used = 0;
+
+        for (Block block : blocks) {
+            used += block.allocator.usedBytes();
+        }
+
+        return used;
+    }
+
+    /**
+     * @return true if views are unsupported by the wrapped context and every request is forwarded
+     */
+    public synchronized boolean isForwarding() {
+        return forwarding;
+    }
+
+    /**
+     * @return the wrapped context
+     */
+    public ComputeContext delegate() {
+        return delegate;
+    }
+
+    @Override
+    public MemoryState state() {
+        return state;
+    }
+
+    /**
+     * Releases all reserved blocks. Buffers handed out from them must no longer be used.
+     */
+    @Override
+    public synchronized void free() {
+        if (!isAlive()) return;
+
+        for (Block block : blocks) {
+            block.buffer.free();
+        }
+
+        blocks.clear();
+        state = MemoryState.FREE;
+    }
+
+    private synchronized void release(Block block, long offset) {
+        if (block.buffer.isAlive()) block.allocator.free(offset);
+    }
+
+    /**
+     * Reserved blocks are counted by the wrapped context, so this returns its counters.
+     * @return the memory counters of the wrapped context
+     */
+    @Override
+    public MemoryStats memoryStats() {
+        return delegate.memoryStats();
+    }
+
+    @Override
+    public void syncThread() {
+        delegate.syncThread();
+    }
+
+    @Override
+    public BackendType backendType() {
+        return delegate.backendType();
+    }
+
+    @Override
+    public ComputeQueue createQueue() {
+        return delegate.createQueue();
+    }
+
+    @Override
+    public ComputeQueue createQueue(ComputeArena arena) {
+        return delegate.createQueue(arena);
+    }
+
+    @Override
+    public ComputeModule loadModule(Path path) {
+        return delegate.loadModule(path);
+    }
+
+    @Override
+    public ComputeModule loadModule(byte[] rawSrc) {
+        return delegate.loadModule(rawSrc);
+    }
+
+    @Override
+    public ComputeModule loadModule(String source) {
+        return delegate.loadModule(source);
+    }
+
+    private final class Block {
+
+        private final ComputeBuffer buffer;
+        private final BuddyAllocator allocator;
+
+        private Block(ComputeBuffer buffer, BuddyAllocator allocator) {
+            this.buffer = buffer;
+            this.allocator = allocator;
+        }
+
+        private ComputeBuffer view(long offset, long size) {
+            try {
+                return buffer.slice(offset, size, () -> release(this, offset));
+            } catch (RuntimeException e) {
+                allocator.free(offset);
+                throw e;
+            }
+        }
+    }
+}
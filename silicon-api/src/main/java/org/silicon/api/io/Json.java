@@ -0,0 +1,201 @@
+package org.silicon.api.io;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON reader for file headers.
+ * <p>
+ * Objects become {@link LinkedHashMap}s, arrays {@link ArrayList}s, integral numbers {@link Long}s,
+ * other numbers {@link Double}s, and {@code null}, booleans and strings their Java counterparts.
+ */
+final class Json {
+
+    private final String text;
+    private int position;
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Parses a complete JSON document.
+     * @param text document text
+     * @return parsed value
+     * @throws IllegalArgumentException if the text is not valid JSON
+     */
+    static Object parse(String text) {
+        Json json = new Json(text);
+        Object value = json.value();
+
+        json.skipWhitespace();
+        if (json.position != text.length()) throw json.error("Trailing characters");
+
+        return value;
+    }
+
+    private Object value() {
+        skipWhitespace();
+        if (position >= text.length()) throw error("Unexpected end of input");
+
+        char c = text.charAt(position);
+
+        return switch (c) {
+            case '{' -> object();
+            case '[' -> array();
+            case '"' -> string();
+            case 't' -> literal("true", Boolean.TRUE);
+            case 'f' -> literal("false", Boolean.FALSE);
+            case 'n' -> literal("null", null);
+            default -> number();
+        };
+    }
+
+    private Map<String, Object> object() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        position++;
+
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return map;
+        }
+
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') throw error("Expected a key");
+
+            String key = string();
+            skipWhitespace();
+            expect(':');
+            map.put(key, value());
+            skipWhitespace();
+
+            if (peek() == '}') {
+                position++;
+                return map;
+            }
+
+            expect(',');
+        }
+    }
+
+    private List<Object> array() {
+        List<Object> list = new ArrayList<>();
+        position++;
+
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            return list;
+        }
+
+        while (true) {
+            list.add(value());
+            skipWhitespace();
+
+            if (peek() == ']') {
+                position++;
+                return list;
+            }
+
+            expect(',');
+        }
+    }
+
+    private String string() {
+        StringBuilder builder = new StringBuilder();
+        position++;
+
+        while (true) {
+            if (position >= text.length()) throw error("Unterminated string");
+
+            char c = text.charAt(position++);
+            if (c == '"') return builder.toString();
+
+            if (c != '\\') {
+                builder.append(c);
+                continue;
+            }
+
+            if (position >= text.length()) throw error("Unterminated escape");
+            char escaped = text.charAt(position++);
+
+            switch (escaped) {
+                case '"', '\\', '/' -> builder.append(escaped);
+                case 'b' -> builder.append('\b');
+                case 'f' -> builder.append('\f');
+                case 'n' -> builder.append('\n');
+                case 'r' -> builder.append('\r');
+                case 't' -> builder.append('\t');
+                case 'u' -> {
+                    if (position + 4 > text.length()) throw error("Truncated unicode escape");
+
+                    try {
+                        builder.append((char) Integer.parseInt(text, position, position + 4, 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid unicode escape");
+                    }
+
+                    position += 4;
+                }
+                default -> throw error("Invalid escape");
+            }
+        }
+    }
+
+    private Object number() {
+        int start = position;
+        boolean integral = true;
+
+        while (position < text.length()) {
+            char c = text.charAt(position);
+
+            if (c == '.' || c == 'e' || c == 'E') {
+                integral = false;
+            } else if (c != '-' && c != '+' && (c < '0' || c > '9')) {
+                break;
+            }
+
+            position++;
+        }
+
+        String token = text.substring(start, position);
+        if (token.isEmpty()) throw error("Unexpected character");
+
+        try {
+            return integral ? (Object) Long.parseLong(token) : (Object) Double.parseDouble(token);
+        } catch (NumberFormatException e) {
+            throw error("Invalid number " + token);
+        }
+    }
+
+    private Object literal(String word, Object value) {
+        if (!text.startsWith(word, position)) throw error("Unexpected token");
+
+        position += word.length();
+        return value;
+    }
+
+    private void expect(char c) {
+        if (peek() != c) throw error("Expected '" + c + "'");
+        position++;
+    }
+
+    private char peek() {
+        if (position >= text.length()) throw error("Unexpected end of input");
+        return text.charAt(position);
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + position);
+    }
+}
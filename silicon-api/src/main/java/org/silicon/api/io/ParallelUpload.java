@@ -0,0 +1,134 @@
+package org.silicon.api.io;
+
+import org.silicon.api.SiliconException;
+import org.silicon.api.device.ComputeBuffer;
+import org.silicon.api.device.ComputeContext;
+import org.silicon.api.kernel.ComputeQueue;
+
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Uploads named host segments into new buffers across several queues.
+ * <p>
+ * Sections are spread over the queues largest first, each going to the queue that holds
+ * the fewest bytes so far. Every queue is driven by its own platform thread, which allocates
+ * its buffers and enqueues the uploads straight from the segments, so page faults of mapped
+ * files and transfers of different sections overlap.
+ */
+final class ParallelUpload {
+
+    private ParallelUpload() {
+    }
+
+    /**
+     * A named range of host memory to upload.
+     * @param name key of the resulting buffer
+     * @param data bytes to upload
+     */
+    record Section(String name, MemorySegment data) {
+    }
+
+    /**
+     * Uploads every section and blocks until all transfers completed.
+     * <p>
+     * Buffers are put in the target map as soon as they are allocated. If any upload fails,
+     * the caller is responsible for freeing the buffers collected so far.
+     * @param context context to allocate the buffers in
+     * @param sections sections to upload
+     * @param queues maximum number of queues uploading concurrently
+     * @param target receives each allocated buffer by section name, must be thread-safe
+     */
+    static void run(ComputeContext context, List<Section> sections, int queues, Map<String, ComputeBuffer> target) {
+        if (queues <= 0) throw new IllegalArgumentException("Queue count must be positive");
+
+        List<List<Section>> lanes = partition(sections, Math.min(queues, Math.max(1, sections.size())));
+        List<Thread> threads = new ArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        for (int i = 0; i < lanes.size(); i++) {
+            List<Section> lane = lanes.get(i);
+
+            // platform threads, the CUDA context is bound to the carrier thread
+            threads.add(Thread.ofPlatform().daemon().name("silicon-upload-" + i).start(() -> {
+                try {
+                    upload(context, lane, target, failure);
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }));
+        }
+
+        boolean interrupted = false;
+
+        for (Thread thread : threads) {
+            while (true) {
+                try {
+                    thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+
+        if (interrupted) Thread.currentThread().interrupt();
+
+        Throwable cause = failure.get();
+
+        if (cause instanceof RuntimeException runtime) throw runtime;
+        if (cause != null) throw new SiliconException("Upload failed", cause);
+    }
+
+    private static void upload(ComputeContext context, List<Section> lane, Map<String, ComputeBuffer> target, AtomicReference<Throwable> failure) {
+        context.syncThread();
+        ComputeQueue queue = context.createQueue();
+
+        try {
+            for (Section section : lane) {
+                if (failure.get() != null) break;
+
+                long size = section.data().byteSize();
+                ComputeBuffer buffer = context.allocateBytes(size);
+                target.put(section.name(), buffer);
+
+                if (size > 0) queue.writeAsync(buffer, 0, section.data());
+            }
+        } finally {
+            try {
+                queue.await();
+            } finally {
+                queue.free();
+            }
+        }
+    }
+
+    private static List<List<Section>> partition(List<Section> sections, int count) {
+        List<Section> sorted = new ArrayList<>(sections);
+        sorted.sort(Comparator.comparingLong((Section section) -> section.data().byteSize()).reversed());
+
+        List<List<Section>> lanes = new ArrayList<>();
+        long[] loads = new long[count];
+
+        for (int i = 0; i < count; i++) {
+            lanes.add(new ArrayList<>());
+        }
+
+        for (Section section : sorted) {
+            int lightest = 0;
+
+            for (int i = 1; i < count; i++) {
+                if (loads[i] < loads[lightest]) lightest = i;
+            }
+
+            lanes.get(lightest).add(section);
+            loads[lightest] += section.data().byteSize();
+        }
+
+        return lanes;
+    }
+}
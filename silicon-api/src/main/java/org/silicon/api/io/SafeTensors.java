@@ -0,0 +1,281 @@
+package org.silicon.api.io;
+
+import org.silicon.api.DataType;
+import org.silicon.api.SiliconException;
+import org.silicon.api.device.ComputeBuffer;
+import org.silicon.api.device.ComputeContext;
+import org.silicon.api.memory.Freeable;
+import org.silicon.api.memory.MemoryState;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reader for checkpoints in the safetensors format.
+ * <p>
+ * A file starts with the little-endian length of a JSON header that describes every tensor,
+ * followed by the raw tensor data. Opening a file parses the header and memory maps the data
+ * section, so tensors are uploaded straight from the page cache without copies on the Java heap.
+ * <p>
+ * {@link #load(ComputeContext, int)} uploads every tensor up front across several queues, each
+ * driven by its own thread, so page faults and transfers of different tensors overlap.
+ * {@link #loadLazy(ComputeContext)} defers each upload to the first access of the tensor.
+ * Freeing the file unmaps the data section, buffers that were already uploaded stay valid.
+ */
+public final class SafeTensors implements Freeable {
+
+    /**
+     * Number of queues used by {@link #load(ComputeContext)}.
+     */
+    public static final int DEFAULT_QUEUES = 4;
+
+    /**
+     * Upper bound on the header size, guards against reading garbage as a length.
+     */
+    public static final long MAX_HEADER_SIZE = 100L << 20;
+
+    private static final String METADATA_KEY = "__metadata__";
+
+    private final Path path;
+    private final Arena arena;
+    private final MemorySegment data;
+    private final Map<String, TensorInfo> tensors;
+    private final Map<String, String> metadata;
+    private MemoryState state = MemoryState.ALIVE;
+
+    private SafeTensors(Path path, Arena arena, MemorySegment data, Map<String, TensorInfo> tensors, Map<String, String> metadata) {
+        this.path = path;
+        this.arena = arena;
+        this.data = data;
+        this.tensors = Collections.unmodifiableMap(tensors);
+        this.metadata = Collections.unmodifiableMap(metadata);
+    }
+
+    /**
+     * Opens a safetensors file, parses its header and maps its data section.
+     * @param path file to open
+     * @return the opened file
+     * @throws SiliconException if the file cannot be read or is malformed
+     */
+    public static SafeTensors open(Path path) {
+        Arena arena = Arena.ofShared();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < Long.BYTES) throw new SiliconException("File too small for a safetensors header: " + path);
+
+            MemorySegment file = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize, arena);
+            long headerSize = file.get(ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN), 0);
+
+            if (headerSize < 0 || headerSize > MAX_HEADER_SIZE || headerSize > fileSize - Long.BYTES) {
+                throw new SiliconException("Invalid safetensors header size " + headerSize + " in " + path);
+            }
+
+            byte[] header = file.asSlice(Long.BYTES, headerSize).toArray(ValueLayout.JAVA_BYTE);
+            MemorySegment data = file.asSlice(Long.BYTES + headerSize);
+
+            Map<String, String> metadata = new LinkedHashMap<>();
+            Map<String, TensorInfo> tensors = parseHeader(new String(header, StandardCharsets.UTF_8), data.byteSize(), metadata);
+
+            return new SafeTensors(path, arena, data, tensors, metadata);
+        } catch (IOException e) {
+            arena.close();
+            throw new SiliconException("open(Path) failed", e);
+        } catch (RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return tensor descriptions by name, in header order
+     */
+    public Map<String, TensorInfo> tensors() {
+        return tensors;
+    }
+
+    /**
+     * @return free-form string metadata stored in the header
+     */
+    public Map<String, String> metadata() {
+        return metadata;
+    }
+
+    /**
+     * @return path of the file
+     */
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * Gets the mapped bytes of a tensor.
+     * @param info tensor of this file
+     * @return read-only view of the tensor data, valid while this file is alive
+     */
+    public MemorySegment data(TensorInfo info) {
+        ensureAlive();
+        return data.asSlice(info.offset(), info.byteSize());
+    }
+
+    /**
+     * Uploads every tensor using {@link #DEFAULT_QUEUES} queues.
+     * @param context context to allocate the buffers in
+     * @return map holding every tensor
+     * @see #load(ComputeContext, int)
+     */
+    public TensorMap load(ComputeContext context) {
+        return load(context, DEFAULT_QUEUES);
+    }
+
+    /**
+     * Uploads every tensor up front.
+     * <p>
+     * Tensors are spread over the queues largest first, each going to the queue that holds
+     * the fewest bytes so far. Every queue is driven by its own thread, which allocates its
+     * buffers and enqueues the uploads straight from the mapping. If any upload fails, the
+     * buffers allocated so far are freed.
+     * @param context context to allocate the buffers in
+     * @param queues maximum number of queues uploading concurrently
+     * @return map holding every tensor
+     */
+    public TensorMap load(ComputeContext context, int queues) {
+        ensureAlive();
+
+        List<ParallelUpload.Section> sections = new ArrayList<>();
+        Map<String, ComputeBuffer> buffers = new ConcurrentHashMap<>();
+
+        for (TensorInfo info : tensors.values()) {
+            sections.add(new ParallelUpload.Section(info.name(), data(info)));
+        }
+
+        try {
+            ParallelUpload.run(context, sections, queues, buffers);
+        } catch (RuntimeException e) {
+            for (ComputeBuffer buffer : buffers.values()) {
+                buffer.free();
+            }
+            throw e;
+        }
+
+        TensorMap map = new TensorMap(this, context);
+
+        for (String name : tensors.keySet()) {
+            map.put(name, buffers.get(name));
+        }
+
+        return map;
+    }
+
+    /**
+     * Creates a map that uploads each tensor on its first access.
+     * <p>
+     * This file must stay alive while tensors are still fetched from the map.
+     * @param context context to allocate the buffers in
+     * @return map that loads tensors on demand
+     */
+    public TensorMap loadLazy(ComputeContext context) {
+        ensureAlive();
+        return new TensorMap(this, context);
+    }
+
+    @Override
+    public MemoryState state() {
+        return state;
+    }
+
+    /**
+     * Unmaps the file. Lazy maps can no longer upload, loaded buffers are unaffected.
+     */
+    @Override
+    public synchronized void free() {
+        if (!isAlive()) return;
+
+        arena.close();
+        state = MemoryState.FREE;
+    }
+
+    private static Map<String, TensorInfo> parseHeader(String header, long dataSize, Map<String, String> metadata) {
+        Object root;
+
+        try {
+            root = Json.parse(header);
+        } catch (IllegalArgumentException e) {
+            throw new SiliconException("Malformed safetensors header", e);
+        }
+
+        if (!(root instanceof Map<?, ?> entries)) throw new SiliconException("Safetensors header is not an object");
+
+        Map<String, TensorInfo> tensors = new LinkedHashMap<>();
+
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            String name = (String) entry.getKey();
+
+            if (name.equals(METADATA_KEY)) {
+                if (!(entry.getValue() instanceof Map<?, ?> values)) throw new SiliconException("Invalid metadata entry");
+
+                for (Map.Entry<?, ?> value : values.entrySet()) {
+                    metadata.put((String) value.getKey(), String.valueOf(value.getValue()));
+                }
+                continue;
+            }
+
+            tensors.put(name, parseTensor(name, entry.getValue(), dataSize));
+        }
+
+        return tensors;
+    }
+
+    private static TensorInfo parseTensor(String name, Object value, long dataSize) {
+        if (!(value instanceof Map<?, ?> fields)
+            || !(fields.get("dtype") instanceof String dtypeName)
+            || !(fields.get("shape") instanceof List<?> shapeList)
+            || !(fields.get("data_offsets") instanceof List<?> offsets)
+            || offsets.size() != 2) {
+            throw new SiliconException("Invalid entry for tensor " + name);
+        }
+
+        DataType dtype;
+
+        try {
+            dtype = DataType.valueOf(dtypeName);
+        } catch (IllegalArgumentException e) {
+            throw new SiliconException("Unsupported dtype " + dtypeName + " for tensor " + name);
+        }
+
+        long[] shape = new long[shapeList.size()];
+
+        for (int i = 0; i < shape.length; i++) {
+            if (!(shapeList.get(i) instanceof Long dimension) || dimension < 0) {
+                throw new SiliconException("Invalid shape for tensor " + name);
+            }
+            shape[i] = dimension;
+        }
+
+        if (!(offsets.get(0) instanceof Long begin) || !(offsets.get(1) instanceof Long end)
+            || begin < 0 || end < begin || end > dataSize) {
+            throw new SiliconException("Invalid data offsets for tensor " + name);
+        }
+
+        TensorInfo info = new TensorInfo(name, dtype, shape, begin, end - begin);
+
+        if (dtype.byteSize(info.elementCount()) != info.byteSize()) {
+            throw new SiliconException("Data size of tensor " + name + " does not match its shape");
+        }
+
+        return info;
+    }
+}
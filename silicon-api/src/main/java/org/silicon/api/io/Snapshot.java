@@ -0,0 +1,317 @@
+package org.silicon.api.io;
+
+import org.silicon.api.SiliconException;
+import org.silicon.api.device.ComputeBuffer;
+import org.silicon.api.device.ComputeContext;
+import org.silicon.api.memory.Freeable;
+import org.silicon.api.memory.MemoryState;
+import org.silicon.api.memory.StagedCopy;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Indexed file of named buffer contents, used to checkpoint and restore device state.
+ * <p>
+ * A snapshot starts with a little-endian index holding the name, offset and size of every
+ * section, followed by the sections themselves, each aligned to {@link #ALIGNMENT} bytes.
+ * {@link #write(Path, Map)} maps each section of the output file and downloads the buffer
+ * straight into the mapping, and {@link #restore(ComputeContext, int)} maps the file and
+ * uploads the sections in parallel, so neither direction copies through the Java heap.
+ */
+public final class Snapshot implements Freeable {
+
+    /**
+     * Alignment of every section in the file, one page on common platforms.
+     */
+    public static final long ALIGNMENT = 4096;
+
+    /**
+     * Number of queues used by {@link #restore(ComputeContext)}.
+     */
+    public static final int DEFAULT_QUEUES = 4;
+
+    private static final byte[] MAGIC = "SLCSNAP\0".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+    private static final int PREFIX_SIZE = MAGIC.length + Integer.BYTES * 2 + Long.BYTES;
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Location of a buffer in a snapshot.
+     * @param name buffer name
+     * @param offset byte position of the section in the file, a multiple of {@link #ALIGNMENT}
+     * @param byteSize size of the section in bytes
+     */
+    public record Entry(String name, long offset, long byteSize) {
+    }
+
+    private final Path path;
+    private final Arena arena;
+    private final MemorySegment file;
+    private final Map<String, Entry> entries;
+    private MemoryState state = MemoryState.ALIVE;
+
+    private Snapshot(Path path, Arena arena, MemorySegment file, Map<String, Entry> entries) {
+        this.path = path;
+        this.arena = arena;
+        this.file = file;
+        this.entries = Collections.unmodifiableMap(entries);
+    }
+
+    /**
+     * Writes the contents of a set of buffers to a snapshot file, replacing any existing file.
+     * <p>
+     * Buffers are read synchronously one after the other, each directly into its mapped
+     * section, and every section is forced to storage before this method returns.
+     * @param path file to write
+     * @param buffers buffers by name, written in iteration order
+     * @return the index of the written file
+     * @throws SiliconException if the file cannot be written
+     */
+    public static List<Entry> write(Path path, Map<String, ComputeBuffer> buffers) {
+        List<Entry> index = new ArrayList<>();
+        List<byte[]> names = new ArrayList<>();
+        long indexSize = PREFIX_SIZE;
+
+        for (Map.Entry<String, ComputeBuffer> entry : buffers.entrySet()) {
+            entry.getValue().ensureAlive();
+
+            byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            indexSize += Integer.BYTES + name.length + Long.BYTES * 2;
+        }
+
+        long position = align(indexSize);
+
+        for (Map.Entry<String, ComputeBuffer> entry : buffers.entrySet()) {
+            long size = entry.getValue().size();
+            index.add(new Entry(entry.getKey(), position, size));
+            position = align(position + size);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(Math.toIntExact(indexSize)).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC).putInt(VERSION).putInt(index.size()).putLong(position);
+
+        for (int i = 0; i < index.size(); i++) {
+            Entry entry = index.get(i);
+            header.putInt(names.get(i).length).put(names.get(i)).putLong(entry.offset()).putLong(entry.byteSize());
+        }
+
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+
+            int i = 0;
+
+            for (ComputeBuffer buffer : buffers.values()) {
+                Entry entry = index.get(i++);
+                if (entry.byteSize() == 0) continue;
+
+                try (Arena mapping = Arena.ofConfined()) {
+                    MemorySegment section = channel.map(FileChannel.MapMode.READ_WRITE, entry.offset(), entry.byteSize(), mapping);
+                    buffer.context().syncThread();
+                    buffer.get(0, section);
+                    section.force();
+                }
+            }
+
+            // the file ends at the aligned end of the last section
+            if (channel.size() < position) channel.write(ByteBuffer.allocate(1), position - 1);
+            channel.force(true);
+        } catch (IOException e) {
+            throw new SiliconException("write(Path, Map) failed", e);
+        }
+
+        return Collections.unmodifiableList(index);
+    }
+
+    /**
+     * Opens a snapshot file and maps it.
+     * @param path file to open
+     * @return the opened snapshot
+     * @throws SiliconException if the file cannot be read or is not a valid snapshot
+     */
+    public static Snapshot open(Path path) {
+        Arena arena = Arena.ofShared();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < PREFIX_SIZE) throw new SiliconException("File too small for a snapshot: " + path);
+
+            MemorySegment file = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize, arena);
+            byte[] magic = file.asSlice(0, MAGIC.length).toArray(ValueLayout.JAVA_BYTE);
+
+            if (!Arrays.equals(magic, MAGIC)) throw new SiliconException("Not a snapshot: " + path);
+
+            int version = file.get(INT, MAGIC.length);
+            if (version != VERSION) throw new SiliconException("Unsupported snapshot version " + version);
+
+            int count = file.get(INT, MAGIC.length + Integer.BYTES);
+            if (count < 0) throw new SiliconException("Invalid snapshot entry count " + count);
+
+            long total = file.get(LONG, MAGIC.length + Integer.BYTES * 2);
+            if (total > fileSize) throw new SiliconException("Truncated snapshot, expected " + total + " bytes");
+
+            Map<String, Entry> entries = new LinkedHashMap<>();
+            long position = PREFIX_SIZE;
+
+            for (int i = 0; i < count; i++) {
+                if (position + Integer.BYTES > fileSize) throw new SiliconException("Truncated snapshot index");
+
+                int nameLength = file.get(INT, position);
+                position += Integer.BYTES;
+
+                if (nameLength < 0 || position + nameLength + Long.BYTES * 2 > fileSize) {
+                    throw new SiliconException("Truncated snapshot index");
+                }
+
+                byte[] name = file.asSlice(position, nameLength).toArray(ValueLayout.JAVA_BYTE);
+                position += nameLength;
+
+                long offset = file.get(LONG, position);
+                long size = file.get(LONG, position + Long.BYTES);
+                position += Long.BYTES * 2;
+
+                if (offset < 0 || size < 0 || offset > fileSize - size) {
+                    throw new SiliconException("Snapshot section exceeds the file");
+                }
+
+                Entry entry = new Entry(new String(name, StandardCharsets.UTF_8), offset, size);
+                entries.put(entry.name(), entry);
+            }
+
+            return new Snapshot(path, arena, file, entries);
+        } catch (IOException e) {
+            arena.close();
+            throw new SiliconException("open(Path) failed", e);
+        } catch (RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return sections by buffer name, in file order
+     */
+    public Map<String, Entry> entries() {
+        return entries;
+    }
+
+    /**
+     * @return path of the file
+     */
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * Gets the mapped bytes of a section.
+     * @param name buffer name
+     * @return read-only view of the section, valid while this snapshot is alive
+     * @throws IllegalArgumentException if the snapshot has no such section
+     */
+    public MemorySegment data(String name) {
+        ensureAlive();
+
+        Entry entry = entries.get(name);
+        if (entry == null) throw new IllegalArgumentException("Unknown section " + name);
+
+        return file.asSlice(entry.offset(), entry.byteSize());
+    }
+
+    /**
+     * Uploads every section using {@link #DEFAULT_QUEUES} queues.
+     * @param context context to allocate the buffers in
+     * @return restored buffers by name
+     * @see #restore(ComputeContext, int)
+     */
+    public Map<String, ComputeBuffer> restore(ComputeContext context) {
+        return restore(context, DEFAULT_QUEUES);
+    }
+
+    /**
+     * Uploads every section into a new buffer, across several queues.
+     * <p>
+     * If any upload fails, the buffers allocated so far are freed.
+     * @param context context to allocate the buffers in
+     * @param queues maximum number of queues uploading concurrently
+     * @return restored buffers by name, in file order
+     */
+    public Map<String, ComputeBuffer> restore(ComputeContext context, int queues) {
+        ensureAlive();
+
+        List<ParallelUpload.Section> sections = new ArrayList<>();
+        Map<String, ComputeBuffer> buffers = new ConcurrentHashMap<>();
+
+        for (String name : entries.keySet()) {
+            sections.add(new ParallelUpload.Section(name, data(name)));
+        }
+
+        try {
+            ParallelUpload.run(context, sections, queues, buffers);
+        } catch (RuntimeException e) {
+            for (ComputeBuffer buffer : buffers.values()) {
+                buffer.free();
+            }
+            throw e;
+        }
+
+        Map<String, ComputeBuffer> restored = new LinkedHashMap<>();
+
+        for (String name : entries.keySet()) {
+            restored.put(name, buffers.get(name));
+        }
+
+        return restored;
+    }
+
+    /**
+     * Uploads a section into an existing buffer.
+     * @param name buffer name
+     * @param dst destination buffer, at least as large as the section
+     */
+    public void restore(String name, ComputeBuffer dst) {
+        MemorySegment section = data(name);
+        if (section.byteSize() > 0) StagedCopy.stream(section, dst, 0);
+    }
+
+    @Override
+    public MemoryState state() {
+        return state;
+    }
+
+    /**
+     * Unmaps the file. Restored buffers are unaffected.
+     */
+    @Override
+    public synchronized void free() {
+        if (!isAlive()) return;
+
+        arena.close();
+        state = MemoryState.FREE;
+    }
+
+    private static long align(long position) {
+        return (position + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+}
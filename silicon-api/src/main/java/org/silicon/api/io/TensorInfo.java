@@ -0,0 +1,62 @@
+package org.silicon.api.io;
+
+import org.silicon.api.DataType;
+
+import java.util.Arrays;
+
+/**
+ * Describes a tensor stored in a file.
+ * @param name tensor name
+ * @param dtype element type
+ * @param shape dimensions, empty for a scalar
+ * @param offset byte position of the tensor data, relative to the start of the data section
+ * @param byteSize size of the tensor data in bytes
+ */
+public record TensorInfo(String name, DataType dtype, long[] shape, long offset, long byteSize) {
+
+    public TensorInfo {
+        shape = shape.clone();
+    }
+
+    /**
+     * @return a copy of the dimensions
+     */
+    @Override
+    public long[] shape() {
+        return shape.clone();
+    }
+
+    /**
+     * @return number of elements, the product of the dimensions
+     */
+    public long elementCount() {
+        long count = 1;
+
+        for (long dimension : shape) {
+            count = Math.multiplyExact(count, dimension);
+        }
+
+        return count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof TensorInfo other
+            && name.equals(other.name)
+            && dtype == other.dtype
+            && Arrays.equals(shape, other.shape)
+            && offset == other.offset
+            && byteSize == other.byteSize;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * name.hashCode() + Arrays.hashCode(shape);
+    }
+
+    @Override
+    public String toString() {
+        return "TensorInfo[name=" + name + ", dtype=" + dtype + ", shape=" + Arrays.toString(shape)
+            + ", offset=" + offset + ", byteSize=" + byteSize + "]";
+    }
+}
@@ -0,0 +1,171 @@
+package org.silicon.api.io;
+
+import org.silicon.api.SiliconException;
+import org.silicon.api.device.ComputeBuffer;
+import org.silicon.api.device.ComputeContext;
+import org.silicon.api.memory.Freeable;
+import org.silicon.api.memory.MemoryState;
+import org.silicon.api.memory.StagedCopy;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Named device buffers loaded from a {@link SafeTensors} file.
+ * <p>
+ * Buffers are either uploaded up front or on first access. Lazy uploads read from the file
+ * mapping, so the file must stay alive until every needed tensor has been fetched. Concurrent
+ * requests for the same tensor share a single upload. Freeing the map frees every buffer,
+ * including those of uploads that complete afterwards.
+ */
+public final class TensorMap implements Freeable {
+
+    private final SafeTensors file;
+    private final ComputeContext context;
+    private final Map<String, CompletableFuture<ComputeBuffer>> buffers = new ConcurrentHashMap<>();
+    private volatile MemoryState state = MemoryState.ALIVE;
+
+    TensorMap(SafeTensors file, ComputeContext context) {
+        this.file = file;
+        this.context = context;
+    }
+
+    /**
+     * @return names of all tensors in the file, in header order
+     */
+    public Set<String> names() {
+        return file.tensors().keySet();
+    }
+
+    /**
+     * Gets the metadata of a tensor.
+     * @param name tensor name
+     * @return dtype, shape and location of the tensor
+     * @throws IllegalArgumentException if the file has no such tensor
+     */
+    public TensorInfo info(String name) {
+        TensorInfo info = file.tensors().get(name);
+        if (info == null) throw new IllegalArgumentException("Unknown tensor " + name);
+
+        return info;
+    }
+
+    /**
+     * Gets the buffer of a tensor, uploading it first if needed.
+     * @param name tensor name
+     * @return device buffer holding the tensor data
+     * @throws IllegalArgumentException if the file has no such tensor
+     */
+    public ComputeBuffer get(String name) {
+        ensureAlive();
+        TensorInfo info = info(name);
+
+        CompletableFuture<ComputeBuffer> future = buffers.get(name);
+
+        if (future == null) {
+            CompletableFuture<ComputeBuffer> created = new CompletableFuture<>();
+            future = buffers.putIfAbsent(name, created);
+
+            if (future == null) {
+                future = created;
+                upload(info, created);
+            }
+        }
+
+        return join(future);
+    }
+
+    /**
+     * @param name tensor name
+     * @return true if the tensor has already been uploaded
+     */
+    public boolean isLoaded(String name) {
+        CompletableFuture<ComputeBuffer> future = buffers.get(name);
+        return future != null && future.isDone() && !future.isCompletedExceptionally();
+    }
+
+    /**
+     * Uploads any missing tensor and returns all buffers.
+     * @return unmodifiable map from tensor name to buffer, in header order
+     */
+    public Map<String, ComputeBuffer> buffers() {
+        Map<String, ComputeBuffer> result = new LinkedHashMap<>();
+
+        for (String name : names()) {
+            result.put(name, get(name));
+        }
+
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * @return the file the tensors are read from
+     */
+    public SafeTensors file() {
+        return file;
+    }
+
+    @Override
+    public MemoryState state() {
+        return state;
+    }
+
+    @Override
+    public synchronized void free() {
+        if (!isAlive()) return;
+        state = MemoryState.FREE;
+
+        // uploads still running free their buffer once they complete
+        for (CompletableFuture<ComputeBuffer> future : buffers.values()) {
+            future.whenComplete((buffer, error) -> {
+                if (buffer != null && buffer.isAlive()) buffer.free();
+            });
+        }
+
+        buffers.clear();
+    }
+
+    void put(String name, ComputeBuffer buffer) {
+        buffers.put(name, CompletableFuture.completedFuture(buffer));
+    }
+
+    private void upload(TensorInfo info, CompletableFuture<ComputeBuffer> future) {
+        ComputeBuffer buffer = null;
+
+        try {
+            ensureOther(file);
+            context.syncThread();
+
+            buffer = context.allocateBytes(info.byteSize());
+            if (info.byteSize() > 0) StagedCopy.stream(file.data(info), buffer, 0);
+
+            // free() may have missed a future added while it ran, it would never free this buffer
+            if (!isAlive()) throw new IllegalStateException("Tensor map was freed while uploading " + info.name());
+
+            future.complete(buffer);
+        } catch (Throwable t) {
+            if (buffer != null) buffer.free();
+
+            // allow a later call to retry
+            buffers.remove(info.name(), future);
+            future.completeExceptionally(t);
+        }
+    }
+
+    private static ComputeBuffer join(CompletableFuture<ComputeBuffer> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new SiliconException("Tensor upload failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SiliconException("Interrupted while waiting for a tensor upload", e);
+        }
+    }
+}
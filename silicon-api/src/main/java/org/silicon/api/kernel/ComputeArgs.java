@@ -2,39 +2,133 @@ package org.silicon.api.kernel;
 
 import org.silicon.api.device.ComputeBuffer;
 
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
- * Loose-typed container for kernel arguments.
+ * Container for kernel arguments.
  * <p>
- * Supports {@link ComputeBuffer} and boxed primitives. The argument order is
- * preserved and used during {@link ComputeQueue} dispatch. Buffers are validated
- * as alive when added.
+ * Supports {@link ComputeBuffer}, primitives, strings and structs passed by value. The
+ * argument order is preserved and used during {@link ComputeQueue} dispatch. Buffers
+ * are validated as alive when added.
+ * <p>
+ * Arguments are stored as a kind per position and a packed block of raw values, so adding
+ * primitives through the typed methods never boxes. Backends read the raw value of a
+ * primitive with {@link #rawValue(int)} and copy its {@link Kind#byteSize()} low bytes, and
+ * fetch references with {@link #buffer(int)}, {@link #string(int)} and {@link #struct(int)}.
+ * A container can be {@link #clear() cleared} and refilled to avoid an allocation per launch.
  */
 public class ComputeArgs {
 
-    private final List<Object> args;
+    private static final int INITIAL_CAPACITY = 8;
+    private static final long INITIAL_STRUCT_CAPACITY = 256;
+
+    /**
+     * Kind of an argument.
+     */
+    public enum Kind {
+        BYTE(Byte.BYTES),
+        SHORT(Short.BYTES),
+        INT(Integer.BYTES),
+        LONG(Long.BYTES),
+        FLOAT(Float.BYTES),
+        DOUBLE(Double.BYTES),
+        BUFFER(0),
+        STRING(0),
+        STRUCT(0);
+
+        private final int byteSize;
+
+        Kind(int byteSize) {
+            this.byteSize = byteSize;
+        }
+
+        /**
+         * @return size in bytes of a primitive value, 0 for references
+         */
+        public int byteSize() {
+            return byteSize;
+        }
+
+        /**
+         * @return whether values of this kind are stored in the raw value block
+         */
+        public boolean isPrimitive() {
+            return byteSize > 0;
+        }
+    }
+
+    /**
+     * Struct argument, its bytes are passed to the kernel by value.
+     * @param layout layout of the struct
+     * @param data native segment of {@code layout.byteSize()} bytes holding the struct
+     */
+    public record Struct(MemoryLayout layout, MemorySegment data) {
+
+        /**
+         * @throws IllegalArgumentException if the data is not native or its size differs from the layout
+         */
+        public Struct {
+            Objects.requireNonNull(layout, "layout");
+            Objects.requireNonNull(data, "data");
+
+            // backends hand the address to the driver, heap segments have none
+            if (!data.isNative()) throw new IllegalArgumentException("Struct data must be a native segment");
+            if (data.byteSize() != layout.byteSize()) {
+                throw new IllegalArgumentException("Struct data is %s bytes, its layout is %s".formatted(data.byteSize(), layout.byteSize()));
+            }
+        }
+    }
+
+    private Kind[] kinds;
+    private long[] values;
+    private Object[] refs;
+    private int size;
+    private MemorySegment structData;
+    private long structUsed;
 
     private ComputeArgs(Object[] args) {
-        this.args = new ArrayList<>(List.of(args));
-        
+        int capacity = Math.max(INITIAL_CAPACITY, args.length);
+
+        this.kinds = new Kind[capacity];
+        this.values = new long[capacity];
+        this.refs = new Object[capacity];
+
         for (int i = 0; i < args.length; i++) {
-            Object arg = args[i];
-            
-            if (!(arg instanceof ComputeBuffer buffer)) continue;
-            
-            if (!buffer.isAlive()) {
-                throw new IllegalArgumentException("Buffer at %s is not alive".formatted(i));
+            switch (args[i]) {
+                case Byte value -> byteVal(value);
+                case Short value -> shortVal(value);
+                case Integer value -> intVal(value);
+                case Long value -> longVal(value);
+                case Float value -> floatVal(value);
+                case Double value -> doubleVal(value);
+                case String value -> stringVal(value);
+                case Struct value -> add(Kind.STRUCT, 0, value);
+                case ComputeBuffer buffer -> {
+                    if (!buffer.isAlive()) {
+                        throw new IllegalArgumentException("Buffer at %s is not alive".formatted(i));
+                    }
+                    add(Kind.BUFFER, 0, buffer);
+                }
+                case null, default -> throw new IllegalArgumentException("Unsupported argument at %s: %s".formatted(i, args[i]));
             }
         }
     }
 
     /**
      * Creates an argument list with immediate validation.
-     * @param args initial arguments (buffers or boxed primitives)
+     * <p>
+     * Boxed primitives are unboxed once here, use the typed methods to avoid boxing.
+     * @param args initial arguments (buffers, boxed primitives, strings or structs)
      * @return a new argument container
+     * @throws IllegalArgumentException if an argument is of an unsupported type or a buffer is not alive
      */
     public static ComputeArgs of(Object... args) {
         return new ComputeArgs(args);
@@ -44,14 +138,95 @@ public class ComputeArgs {
      * @return current argument count
      */
     public int size() {
-        return args.size();
+        return size;
     }
-    
+
     /**
-     * @return the underlying argument list (in order)
+     * Removes every argument, keeping the allocated storage for reuse.
+     * <p>
+     * Struct storage is reused too, structs read from this container before the call
+     * are overwritten by the structs added after it.
+     * @return this, for chaining
+     */
+    public ComputeArgs clear() {
+        Arrays.fill(refs, 0, size, null);
+        size = 0;
+        structUsed = 0;
+        return this;
+    }
+
+    /**
+     * Gets the kind of an argument.
+     * @param index argument position
+     * @return kind of the argument
+     */
+    public Kind kind(int index) {
+        return kinds[Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * Gets the raw value of a primitive argument.
+     * <p>
+     * Integers are stored sign extended, floats and doubles as their raw IEEE 754 bits, so the
+     * {@link Kind#byteSize()} low bytes of the result are the value as the kernel expects it.
+     * @param index argument position
+     * @return raw value, 0 for references
+     */
+    public long rawValue(int index) {
+        return values[Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * @param index argument position
+     * @return the buffer at this position
+     * @throws IllegalStateException if the argument is not a buffer
+     */
+    public ComputeBuffer buffer(int index) {
+        return (ComputeBuffer) ref(index, Kind.BUFFER);
+    }
+
+    /**
+     * @param index argument position
+     * @return the string at this position
+     * @throws IllegalStateException if the argument is not a string
+     */
+    public String string(int index) {
+        return (String) ref(index, Kind.STRING);
+    }
+
+    /**
+     * @param index argument position
+     * @return the struct at this position
+     * @throws IllegalStateException if the argument is not a struct
+     */
+    public Struct struct(int index) {
+        return (Struct) ref(index, Kind.STRUCT);
+    }
+
+    /**
+     * Builds a boxed view of the arguments.
+     * <p>
+     * Boxes every primitive, backends read the arguments through {@link #kind(int)} instead.
+     * @return the arguments in order
      */
     public List<Object> args() {
-        return Collections.unmodifiableList(args);
+        List<Object> list = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            long value = values[i];
+
+            list.add(switch (kinds[i]) {
+                case BYTE -> (byte) value;
+                case SHORT -> (short) value;
+                case INT -> (int) value;
+                case LONG -> value;
+                case FLOAT -> Float.intBitsToFloat((int) value);
+                case DOUBLE -> Double.longBitsToDouble(value);
+                case BUFFER, STRING, STRUCT -> refs[i];
+            });
+        }
+
+        return Collections.unmodifiableList(list);
     }
 
     /**
@@ -62,8 +237,7 @@ public class ComputeArgs {
     public ComputeArgs buffer(ComputeBuffer buffer) {
         if (!buffer.isAlive()) throw new IllegalArgumentException("Buffer is not alive");
 
-        args.add(buffer);
-        return this;
+        return add(Kind.BUFFER, 0, buffer);
     }
 
     /**
@@ -72,8 +246,7 @@ public class ComputeArgs {
      * @return this, for chaining
      */
     public ComputeArgs doubleVal(double value) {
-        args.add(value);
-        return this;
+        return add(Kind.DOUBLE, Double.doubleToRawLongBits(value), null);
     }
 
     /**
@@ -82,8 +255,7 @@ public class ComputeArgs {
      * @return this, for chaining
      */
     public ComputeArgs floatVal(float value) {
-        args.add(value);
-        return this;
+        return add(Kind.FLOAT, Float.floatToRawIntBits(value), null);
     }
 
     /**
@@ -92,8 +264,7 @@ public class ComputeArgs {
      * @return this, for chaining
      */
     public ComputeArgs longVal(long value) {
-        args.add(value);
-        return this;
+        return add(Kind.LONG, value, null);
     }
 
     /**
@@ -102,8 +273,7 @@ public class ComputeArgs {
      * @return this, for chaining
      */
     public ComputeArgs intVal(int value) {
-        args.add(value);
-        return this;
+        return add(Kind.INT, value, null);
     }
 
     /**
@@ -112,15 +282,104 @@ public class ComputeArgs {
      * @return this, for chaining
      */
     public ComputeArgs shortVal(short value) {
-        args.add(value);
+        return add(Kind.SHORT, value, null);
+    }
+
+    /**
+     * Adds a byte argument.
+     * @param value value to add
+     * @return this, for chaining
+     */
+    public ComputeArgs byteVal(byte value) {
+        return add(Kind.BYTE, value, null);
+    }
+
+    /**
+     * Adds a string argument.
+     * @param value value to add
+     * @return this, for chaining
+     */
+    public ComputeArgs stringVal(String value) {
+        return add(Kind.STRING, 0, value);
+    }
+
+    /**
+     * Adds a struct argument passed by value.
+     * <p>
+     * The writer fills a zeroed segment laid out as {@code layout} and is called once,
+     * before this method returns. The layout must match the kernel parameter, including
+     * padding, as the bytes are passed unchanged. This avoids allocating and uploading
+     * a buffer for small blocks of scalars.
+     * <p>
+     * Struct bytes live in native storage owned by this container, which only grows when it
+     * runs out of room. Containers that are {@link #clear() cleared} and refilled per launch
+     * therefore add structs without allocating.
+     * @param layout layout of the struct
+     * @param writer fills the struct
+     * @return this, for chaining
+     */
+    public ComputeArgs struct(MemoryLayout layout, Consumer<MemorySegment> writer) {
+        if (layout.byteSize() == 0) throw new IllegalArgumentException("Struct layout must not be empty");
+
+        MemorySegment data = allocateStruct(layout);
+        writer.accept(data);
+
+        return add(Kind.STRUCT, 0, new Struct(layout, data));
+    }
+
+    private MemorySegment allocateStruct(MemoryLayout layout) {
+        long alignment = layout.byteAlignment();
+        long offset = structData == null ? 0 : align(structData.address() + structUsed, alignment) - structData.address();
+
+        if (structData == null || offset + layout.byteSize() > structData.byteSize()) {
+            long previous = structData == null ? 0 : structData.byteSize();
+            long capacity = Math.max(Math.max(INITIAL_STRUCT_CAPACITY, previous * 2), layout.byteSize());
+
+            // structs already added keep the previous storage reachable through their slices
+            structData = Arena.ofAuto().allocate(capacity, Math.max(alignment, Long.BYTES));
+            offset = 0;
+        }
+
+        MemorySegment data = structData.asSlice(offset, layout.byteSize());
+        structUsed = offset + layout.byteSize();
+
+        return data.fill((byte) 0);
+    }
+
+    private static long align(long address, long alignment) {
+        return (address + alignment - 1) & -alignment;
+    }
+
+    private ComputeArgs add(Kind kind, long value, Object ref) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+
+            kinds = Arrays.copyOf(kinds, capacity);
+            values = Arrays.copyOf(values, capacity);
+            refs = Arrays.copyOf(refs, capacity);
+        }
+
+        kinds[size] = kind;
+        values[size] = value;
+        refs[size] = ref;
+        size++;
+
         return this;
     }
 
+    private Object ref(int index, Kind kind) {
+        if (kind(index) != kind) {
+            throw new IllegalStateException("Argument at %s is %s, not %s".formatted(index, kinds[index], kind));
+        }
+
+        return refs[index];
+    }
+
     @Override
     public String toString() {
         return "ComputeArgs{" +
-            "size=" + args.size() +
-            ", args=" + args +
+            "size=" + size +
+            ", args=" + args() +
             '}';
     }
 }
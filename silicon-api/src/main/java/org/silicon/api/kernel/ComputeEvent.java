@@ -8,6 +8,27 @@ import java.util.concurrent.CompletableFuture;
  * Wraps a {@link CompletableFuture} for status checks and synchronization.
  */
 public interface ComputeEvent {
+    /**
+     * Creates an event that has already completed.
+     * <p>
+     * Used by backends that perform an operation synchronously but expose it asynchronously.
+     * @return a completed event
+     */
+    static ComputeEvent completed() {
+        CompletableFuture<Void> future = CompletableFuture.completedFuture(null);
+
+        return new ComputeEvent() {
+            @Override
+            public CompletableFuture<Void> future() {
+                return future;
+            }
+
+            @Override
+            public void await() {
+            }
+        };
+    }
+
     /**
      * @return true if the underlying future is completed
      */
@@ -1,8 +1,14 @@
 package org.silicon.api.kernel;
 
+import org.silicon.api.DataType;
+import org.silicon.api.device.ComputeBuffer;
+import org.silicon.api.device.RegionExtent;
+import org.silicon.api.device.RegionLayout;
 import org.silicon.api.function.ComputeFunction;
 import org.silicon.api.memory.Freeable;
 
+import java.lang.foreign.MemorySegment;
+
 /**
  * Execution queue for dispatching kernels on a device.
  * <p>
@@ -40,6 +46,159 @@ public interface ComputeQueue extends Freeable {
         ComputeArgs args
     );
 
+    /**
+     * Enqueues a host-to-device transfer.
+     * <p>
+     * The transfer is ordered with dispatches on this queue. The source segment must be
+     * native and must stay valid until the returned event completes.
+     * @param dst destination buffer
+     * @param offset byte offset into the destination buffer
+     * @param src source segment, {@link MemorySegment#byteSize()} bytes are written
+     * @return event to synchronize or inspect the transfer
+     */
+    ComputeEvent writeAsync(ComputeBuffer dst, long offset, MemorySegment src);
+
+    /**
+     * Enqueues a device-to-host transfer.
+     * <p>
+     * The transfer is ordered with dispatches on this queue. The destination segment must be
+     * native and must stay valid until the returned event completes.
+     * @param src source buffer
+     * @param offset byte offset into the source buffer
+     * @param dst destination segment, {@link MemorySegment#byteSize()} bytes are read
+     * @return event to synchronize or inspect the transfer
+     */
+    ComputeEvent readAsync(ComputeBuffer src, long offset, MemorySegment dst);
+
+    /**
+     * Enqueues a device-to-device copy between two buffers of the same context.
+     * @param src source buffer
+     * @param srcOffset byte offset into the source buffer
+     * @param dst destination buffer
+     * @param dstOffset byte offset into the destination buffer
+     * @param length number of bytes to copy
+     * @return event to synchronize or inspect the copy
+     */
+    ComputeEvent copyAsync(ComputeBuffer src, long srcOffset, ComputeBuffer dst, long dstOffset, long length);
+
+    /**
+     * Enqueues a device-to-device copy of a whole buffer.
+     * @param src source buffer
+     * @param dst destination buffer, at least as large as the source
+     * @return event to synchronize or inspect the copy
+     */
+    default ComputeEvent copyAsync(ComputeBuffer src, ComputeBuffer dst) {
+        return copyAsync(src, 0, dst, 0, src.size());
+    }
+
+    /**
+     * Enqueues a device-to-device copy of a strided region.
+     * @param src source buffer
+     * @param srcLayout placement of the region in the source buffer
+     * @param dst destination buffer
+     * @param dstLayout placement of the region in the destination buffer
+     * @param extent size of the region
+     * @return event to synchronize or inspect the copy
+     */
+    ComputeEvent copyRegionAsync(ComputeBuffer src, RegionLayout srcLayout, ComputeBuffer dst, RegionLayout dstLayout, RegionExtent extent);
+
+    /**
+     * Enqueues a host-to-device transfer of a strided region.
+     * <p>
+     * The source segment must be native and must stay valid until the returned event completes.
+     * @param dst destination buffer
+     * @param dstLayout placement of the region in the destination buffer
+     * @param src source segment
+     * @param srcLayout placement of the region in the source segment
+     * @param extent size of the region
+     * @return event to synchronize or inspect the transfer
+     */
+    ComputeEvent writeRegionAsync(ComputeBuffer dst, RegionLayout dstLayout, MemorySegment src, RegionLayout srcLayout, RegionExtent extent);
+
+    /**
+     * Enqueues a device-to-host transfer of a strided region.
+     * <p>
+     * The destination segment must be native and must stay valid until the returned event completes.
+     * @param src source buffer
+     * @param srcLayout placement of the region in the source buffer
+     * @param dst destination segment
+     * @param dstLayout placement of the region in the destination segment
+     * @param extent size of the region
+     * @return event to synchronize or inspect the transfer
+     */
+    ComputeEvent readRegionAsync(ComputeBuffer src, RegionLayout srcLayout, MemorySegment dst, RegionLayout dstLayout, RegionExtent extent);
+
+    /**
+     * Enqueues a fill of a byte range with a byte value.
+     * @param dst destination buffer
+     * @param value value written to every byte
+     * @param offset byte offset into the destination buffer
+     * @param length number of bytes to fill
+     * @return event to synchronize or inspect the fill
+     * @see ComputeBuffer#fill(byte, long, long)
+     */
+    ComputeEvent fillAsync(ComputeBuffer dst, byte value, long offset, long length);
+
+    /**
+     * Enqueues a fill of a byte range with a short pattern.
+     * @param dst destination buffer
+     * @param value value written to every 2-byte element
+     * @param offset byte offset into the destination buffer, a multiple of 2
+     * @param length number of bytes to fill, a multiple of 2
+     * @return event to synchronize or inspect the fill
+     */
+    ComputeEvent fillAsync(ComputeBuffer dst, short value, long offset, long length);
+
+    /**
+     * Enqueues a fill of a byte range with an int pattern.
+     * @param dst destination buffer
+     * @param value value written to every 4-byte element
+     * @param offset byte offset into the destination buffer, a multiple of 4
+     * @param length number of bytes to fill, a multiple of 4
+     * @return event to synchronize or inspect the fill
+     */
+    ComputeEvent fillAsync(ComputeBuffer dst, int value, long offset, long length);
+
+    /**
+     * Enqueues a fill of a byte range with a float pattern.
+     * @param dst destination buffer
+     * @param value value written to every 4-byte element
+     * @param offset byte offset into the destination buffer, a multiple of 4
+     * @param length number of bytes to fill, a multiple of 4
+     * @return event to synchronize or inspect the fill
+     */
+    default ComputeEvent fillAsync(ComputeBuffer dst, float value, long offset, long length) {
+        return fillAsync(dst, Float.floatToRawIntBits(value), offset, length);
+    }
+
+    /**
+     * Enqueues a conversion between element types on the device.
+     * <p>
+     * Converts the first {@code count} elements of the source buffer and writes them to the
+     * start of the destination buffer. Supported types are {@link DataType#F32}, {@link DataType#F16},
+     * {@link DataType#BF16} and {@link DataType#I8}, see {@link DeviceConversion} for the rounding rules.
+     * @param src source buffer
+     * @param srcType element type of the source buffer
+     * @param dst destination buffer, must not overlap the source
+     * @param dstType element type of the destination buffer
+     * @param count number of elements to convert
+     * @return event to synchronize or inspect the conversion
+     */
+    ComputeEvent convertAsync(ComputeBuffer src, DataType srcType, ComputeBuffer dst, DataType dstType, long count);
+
+    /**
+     * Converts between element types on the device and waits for the result.
+     * @param src source buffer
+     * @param srcType element type of the source buffer
+     * @param dst destination buffer, must not overlap the source
+     * @param dstType element type of the destination buffer
+     * @param count number of elements to convert
+     * @see #convertAsync(ComputeBuffer, DataType, ComputeBuffer, DataType, long)
+     */
+    default void convert(ComputeBuffer src, DataType srcType, ComputeBuffer dst, DataType dstType, long count) {
+        convertAsync(src, srcType, dst, dstType, count).await();
+    }
+
     /**
      * Waits for all pending operations in the queue to complete.
      */
@@ -0,0 +1,116 @@
+package org.silicon.api.kernel;
+
+import org.silicon.api.DataType;
+import org.silicon.api.device.ComputeBuffer;
+import org.silicon.api.device.ComputeContext;
+import org.silicon.api.function.ComputeFunction;
+import org.silicon.api.function.ComputeModule;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Built-in kernels converting buffers between element types on the device.
+ * <p>
+ * Every backend ships a module with one kernel per ordered pair of supported types, named
+ * {@code convert_<src>_<dst>} with the suffixes {@code f32}, {@code f16}, {@code bf16} and
+ * {@code i8}. Each kernel takes the source buffer, the destination buffer and the element
+ * count as an int, and converts one element per work item. The module is compiled on first
+ * use and kept for the lifetime of the context.
+ * <p>
+ * Conversions to {@link DataType#F16} and {@link DataType#BF16} round to nearest even.
+ * Conversions to {@link DataType#I8} are plain numeric casts: values are rounded to nearest
+ * even and saturated to [-128, 127], NaN becomes 0. Use {@link org.silicon.api.BitUtils#quantizeInt8}
+ * for scaled quantization.
+ */
+public final class DeviceConversion {
+
+    /**
+     * Work-group size of every conversion dispatch.
+     */
+    public static final int GROUP_SIZE = 256;
+
+    /**
+     * Maximum number of elements converted by one call.
+     */
+    public static final long MAX_COUNT = Integer.MAX_VALUE & -GROUP_SIZE;
+
+    private final ComputeContext context;
+    private final String resourcePath;
+    private final Map<String, ComputeFunction> functions = new ConcurrentHashMap<>();
+    private volatile ComputeModule module;
+
+    /**
+     * Creates the conversion kernels of a context.
+     * @param context context to load the module in
+     * @param resourcePath classpath resource holding the module source
+     */
+    public DeviceConversion(ComputeContext context, String resourcePath) {
+        this.context = context;
+        this.resourcePath = resourcePath;
+    }
+
+    /**
+     * Enqueues the conversion of {@code count} elements from the start of a buffer into another.
+     * <p>
+     * Converting a type to itself is a plain copy.
+     * @param queue queue to enqueue on
+     * @param src source buffer
+     * @param srcType element type of the source buffer
+     * @param dst destination buffer, must not overlap the source
+     * @param dstType element type of the destination buffer
+     * @param count number of elements to convert
+     * @return event to synchronize or inspect the conversion
+     * @throws IllegalArgumentException if a type is unsupported, the count is out of range
+     *         or exceeds a buffer
+     */
+    public ComputeEvent enqueue(ComputeQueue queue, ComputeBuffer src, DataType srcType, ComputeBuffer dst, DataType dstType, long count) {
+        String srcSuffix = suffix(srcType);
+        String dstSuffix = suffix(dstType);
+
+        if (count < 0 || count > MAX_COUNT) {
+            throw new IllegalArgumentException("Conversion count must be between 0 and " + MAX_COUNT + ", got " + count);
+        }
+
+        src.ensureAlive();
+        dst.ensureAlive();
+        src.ensureRange(0, srcType.byteSize(count));
+        dst.ensureRange(0, dstType.byteSize(count));
+
+        if (count == 0) return ComputeEvent.completed();
+        if (srcType == dstType) return queue.copyAsync(src, 0, dst, 0, srcType.byteSize(count));
+
+        ComputeFunction function = functions.computeIfAbsent(
+            "convert_" + srcSuffix + "_" + dstSuffix,
+            name -> module().getFunction(name)
+        );
+
+        int global = Math.toIntExact((count + GROUP_SIZE - 1) / GROUP_SIZE * GROUP_SIZE);
+        ComputeArgs args = ComputeArgs.of().buffer(src).buffer(dst).intVal((int) count);
+
+        // kernel arguments are state of the function, concurrent dispatches must not interleave
+        synchronized (function) {
+            return queue.dispatchAsync(function, new ComputeSize(global, 1, 1), new ComputeSize(GROUP_SIZE, 1, 1), args);
+        }
+    }
+
+    private ComputeModule module() {
+        ComputeModule loaded = module;
+        if (loaded != null) return loaded;
+
+        synchronized (this) {
+            if (module == null) module = context.loadModuleFromResources(resourcePath);
+            return module;
+        }
+    }
+
+    private static String suffix(DataType type) {
+        return switch (type) {
+            case F32 -> "f32";
+            case F16 -> "f16";
+            case BF16 -> "bf16";
+            case I8 -> "i8";
+            default -> throw new IllegalArgumentException("Unsupported conversion type " + type);
+        };
+    }
+}
@@ -0,0 +1,143 @@
+package org.silicon.api.memory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Binary buddy allocator over an abstract range of bytes.
+ * <p>
+ * Manages offsets only and never touches memory, so it can carve any backing allocation.
+ * Blocks are powers of two between {@code minBlock} and {@code capacity}, naturally aligned
+ * to their own size, and freed blocks are merged with their buddy whenever possible.
+ * Instances are not thread-safe.
+ */
+public final class BuddyAllocator {
+
+    private final long capacity;
+    private final long minBlock;
+    private final TreeSet<Long>[] free;
+    private final Map<Long, Integer> allocated = new HashMap<>();
+    private long used;
+
+    /**
+     * Creates an allocator that manages a single block of the given capacity.
+     * @param capacity total bytes, a power of two
+     * @param minBlock smallest block handed out, a power of two not greater than the capacity
+     */
+    @SuppressWarnings("unchecked")
+    public BuddyAllocator(long capacity, long minBlock) {
+        if (Long.bitCount(capacity) != 1 || Long.bitCount(minBlock) != 1 || minBlock > capacity) {
+            throw new IllegalArgumentException("Capacity and minimum block must be powers of two with minBlock <= capacity");
+        }
+
+        this.capacity = capacity;
+        this.minBlock = minBlock;
+
+        int orders = Long.numberOfTrailingZeros(capacity / minBlock) + 1;
+        this.free = new TreeSet[orders];
+
+        for (int i = 0; i < orders; i++) {
+            free[i] = new TreeSet<>();
+        }
+
+        free[orders - 1].add(0L);
+    }
+
+    /**
+     * Allocates a block large enough for the given size.
+     * @param size requested bytes
+     * @return offset of the block, or {@code -1} if no block is available
+     */
+    public long allocate(long size) {
+        if (size <= 0 || size > capacity) return -1;
+
+        int order = orderOf(size);
+        int current = order;
+
+        while (current < free.length && free[current].isEmpty()) {
+            current++;
+        }
+
+        if (current == free.length) return -1;
+
+        long offset = free[current].pollFirst();
+
+        while (current > order) {
+            current--;
+            free[current].add(offset + blockSize(current));
+        }
+
+        allocated.put(offset, order);
+        used += blockSize(order);
+
+        return offset;
+    }
+
+    /**
+     * Returns a block to the allocator, merging it with its free buddies.
+     * @param offset offset previously returned by {@link #allocate(long)}
+     * @throws IllegalArgumentException if the offset is not an allocated block
+     */
+    public void free(long offset) {
+        Integer order = allocated.remove(offset);
+
+        if (order == null) {
+            throw new IllegalArgumentException("Offset " + offset + " is not an allocated block");
+        }
+
+        used -= blockSize(order);
+
+        int current = order;
+        long block = offset;
+
+        while (current < free.length - 1) {
+            long buddy = block ^ blockSize(current);
+            if (!free[current].remove(buddy)) break;
+
+            block = Math.min(block, buddy);
+            current++;
+        }
+
+        free[current].add(block);
+    }
+
+    /**
+     * Gets the block size that would be used for a request.
+     * @param size requested bytes
+     * @return rounded block size in bytes
+     */
+    public long blockSizeFor(long size) {
+        return blockSize(orderOf(size));
+    }
+
+    /**
+     * @return total bytes managed by this allocator
+     */
+    public long capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return bytes currently handed out, including rounding
+     */
+    public long usedBytes() {
+        return used;
+    }
+
+    /**
+     * @return true if no block is currently allocated
+     */
+    public boolean isEmpty() {
+        return allocated.isEmpty();
+    }
+
+    private int orderOf(long size) {
+        long blocks = Math.max(1, (size + minBlock - 1) / minBlock);
+        return 64 - Long.numberOfLeadingZeros(blocks - 1);
+    }
+
+    private long blockSize(int order) {
+        return minBlock << order;
+    }
+}
@@ -0,0 +1,149 @@
+package org.silicon.api.memory;
+
+import org.silicon.api.BitUtils;
+import org.silicon.api.DataType;
+import org.silicon.api.device.ComputeBuffer;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Transfers float arrays to and from buffers holding a narrower floating point type.
+ * <p>
+ * Values are converted chunk by chunk into host windows of {@link StagedCopy#WINDOW_SIZE}
+ * bytes instead of a temporary array of the full size. Transfers larger than one window
+ * overlap the conversion of a chunk with the transfer of the previous one, so host memory
+ * is bounded by two windows and throughput approaches the raw transfer speed.
+ * <p>
+ * Supported types are {@link DataType#F16}, {@link DataType#BF16}, {@link DataType#F8_E4M3}
+ * and {@link DataType#F8_E5M2}.
+ */
+public final class ConvertingTransfer {
+
+    private ConvertingTransfer() {
+    }
+
+    /**
+     * Converts floats and writes them to a buffer.
+     * @param dst destination buffer
+     * @param offset byte offset into the destination buffer
+     * @param data values to convert
+     * @param type element type stored in the buffer
+     */
+    public static void write(ComputeBuffer dst, long offset, float[] data, DataType type) {
+        int width = checkType(type);
+        long count = data.length;
+
+        dst.ensureAlive();
+        dst.ensureRange(offset, count * width);
+
+        if (count == 0) return;
+
+        MemorySegment input = MemorySegment.ofArray(data);
+        long chunk = StagedCopy.WINDOW_SIZE / width;
+
+        if (count <= chunk) {
+            try (Arena arena = Arena.ofConfined()) {
+                MemorySegment window = arena.allocate(count * width, width);
+
+                encode(type, input, window, count);
+                dst.write(offset, window);
+            }
+            return;
+        }
+
+        long chunks = (count + chunk - 1) / chunk;
+
+        StagedCopy.pipeline(chunks, chunk * width, "Converting write failed",
+            (index, window) -> {
+                long first = index * chunk;
+                long values = Math.min(chunk, count - first);
+
+                encode(type, input.asSlice(first * Float.BYTES), window, values);
+            },
+            (index, window) -> {
+                if (index == 0) dst.context().syncThread();
+
+                long first = index * chunk;
+                long values = Math.min(chunk, count - first);
+
+                dst.write(offset + first * width, window.asSlice(0, values * width));
+            });
+    }
+
+    /**
+     * Reads values from a buffer and converts them to floats.
+     * @param src source buffer
+     * @param offset byte offset into the source buffer
+     * @param data destination array, its length is the number of values read
+     * @param type element type stored in the buffer
+     * @return the data array
+     */
+    public static float[] read(ComputeBuffer src, long offset, float[] data, DataType type) {
+        int width = checkType(type);
+        long count = data.length;
+
+        src.ensureAlive();
+        src.ensureRange(offset, count * width);
+
+        if (count == 0) return data;
+
+        MemorySegment output = MemorySegment.ofArray(data);
+        long chunk = StagedCopy.WINDOW_SIZE / width;
+
+        if (count <= chunk) {
+            try (Arena arena = Arena.ofConfined()) {
+                MemorySegment window = arena.allocate(count * width, width);
+
+                src.get(offset, window);
+                decode(type, window, output, count);
+            }
+            return data;
+        }
+
+        long chunks = (count + chunk - 1) / chunk;
+
+        StagedCopy.pipeline(chunks, chunk * width, "Converting read failed",
+            (index, window) -> {
+                if (index == 0) src.context().syncThread();
+
+                long first = index * chunk;
+                long values = Math.min(chunk, count - first);
+
+                src.get(offset + first * width, window.asSlice(0, values * width));
+            },
+            (index, window) -> {
+                long first = index * chunk;
+                long values = Math.min(chunk, count - first);
+
+                decode(type, window, output.asSlice(first * Float.BYTES), values);
+            });
+
+        return data;
+    }
+
+    private static int checkType(DataType type) {
+        return switch (type) {
+            case F16, BF16, F8_E4M3, F8_E5M2 -> type.byteSize();
+            default -> throw new IllegalArgumentException("Unsupported conversion type " + type);
+        };
+    }
+
+    private static void encode(DataType type, MemorySegment input, MemorySegment output, long count) {
+        switch (type) {
+            case F16 -> BitUtils.float2Half(input, output, count);
+            case BF16 -> BitUtils.float2BFloat16(input, output, count);
+            case F8_E4M3 -> BitUtils.float2Fp8E4M3(input, output, count);
+            default -> BitUtils.float2Fp8E5M2(input, output, count);
+        }
+    }
+
+    private static void decode(DataType type, MemorySegment input, MemorySegment output, long count) {
+        switch (type) {
+            case F16 -> BitUtils.half2Float(input, output, count);
+            case BF16 -> BitUtils.bFloat16ToFloat(input, output, count);
+            case F8_E4M3 -> BitUtils.fp8E4M3ToFloat(input, output, count);
+            default -> BitUtils.fp8E5M2ToFloat(input, output, count);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.silicon.api.memory;
+
+/**
+ * Kind of memory an allocation was served from, used to break down {@link MemoryStats}.
+ */
+public enum MemorySource {
+    /**
+     * Device local memory.
+     */
+    DEVICE,
+    /**
+     * Host accessible memory that can be mapped into the address space of the process.
+     */
+    MAPPED,
+    /**
+     * Pinned host memory that the device accesses directly.
+     */
+    HOST,
+    /**
+     * Unified memory migrated on demand between host and device.
+     */
+    MANAGED
+}
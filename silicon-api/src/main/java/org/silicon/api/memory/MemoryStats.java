@@ -0,0 +1,167 @@
+package org.silicon.api.memory;
+
+import org.silicon.api.OutOfDeviceMemoryException;
+import org.silicon.api.cache.BufferPool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Live and peak byte counters of a context, with recovery from allocation failures.
+ * <p>
+ * Counters are kept per {@link MemorySource} and only cover allocations that own device
+ * memory, views and sub-allocations are not counted again. When an allocation fails with
+ * {@link OutOfDeviceMemoryException}, {@link #allocate(MemorySource, long, Supplier)} frees the
+ * buffers retained by registered pools, runs pending {@link Reclaimer} actions and retries once.
+ * <p>
+ * Pools are held weakly, so registering a pool does not keep it alive. Instances are thread-safe,
+ * but recovery frees pools from the allocating thread, so pools that are not thread-safe should
+ * only be registered if they are used by that thread.
+ */
+public final class MemoryStats {
+
+    private static final MemorySource[] SOURCES = MemorySource.values();
+
+    private final AtomicLongArray live = new AtomicLongArray(SOURCES.length + 1);
+    private final AtomicLongArray peak = new AtomicLongArray(SOURCES.length + 1);
+    private final Set<BufferPool> pools = Collections.newSetFromMap(new WeakHashMap<>());
+    private long recoveries;
+
+    /**
+     * Runs an allocation, recovering memory and retrying once if the device is out of memory.
+     * @param source kind of memory being allocated
+     * @param bytes size of the allocation in bytes
+     * @param allocation performs the allocation
+     * @return the allocated resource
+     * @param <T> type of the allocated resource
+     * @throws OutOfDeviceMemoryException if the allocation still fails after recovery
+     */
+    public <T> T allocate(MemorySource source, long bytes, Supplier<T> allocation) {
+        T result;
+
+        try {
+            result = allocation.get();
+        } catch (OutOfDeviceMemoryException e) {
+            recover();
+            result = allocation.get();
+        }
+
+        allocated(source, bytes);
+        return result;
+    }
+
+    /**
+     * Records an allocation.
+     * @param source kind of memory allocated
+     * @param bytes size in bytes
+     */
+    public void allocated(MemorySource source, long bytes) {
+        add(source.ordinal(), bytes);
+        add(SOURCES.length, bytes);
+    }
+
+    /**
+     * Records a release.
+     * @param source kind of memory released
+     * @param bytes size in bytes
+     */
+    public void released(MemorySource source, long bytes) {
+        live.addAndGet(source.ordinal(), -bytes);
+        live.addAndGet(SOURCES.length, -bytes);
+    }
+
+    /**
+     * Frees the buffers retained by every registered pool and runs pending reclamations.
+     */
+    public void recover() {
+        List<BufferPool> snapshot;
+
+        synchronized (pools) {
+            snapshot = new ArrayList<>(pools);
+            recoveries++;
+        }
+
+        for (BufferPool pool : snapshot) {
+            pool.free();
+        }
+
+        Reclaimer.drain();
+    }
+
+    /**
+     * Registers a pool to be flushed when an allocation fails.
+     * @param pool pool whose retained buffers belong to this context
+     */
+    public void register(BufferPool pool) {
+        synchronized (pools) {
+            pools.add(pool);
+        }
+    }
+
+    /**
+     * Removes a pool registered with {@link #register(BufferPool)}.
+     * @param pool the pool to remove
+     */
+    public void unregister(BufferPool pool) {
+        synchronized (pools) {
+            pools.remove(pool);
+        }
+    }
+
+    /**
+     * @return bytes currently allocated from all sources
+     */
+    public long liveBytes() {
+        return live.get(SOURCES.length);
+    }
+
+    /**
+     * @return highest value of {@link #liveBytes()} observed
+     */
+    public long peakBytes() {
+        return peak.get(SOURCES.length);
+    }
+
+    /**
+     * @param source kind of memory
+     * @return bytes currently allocated from the source
+     */
+    public long liveBytes(MemorySource source) {
+        return live.get(source.ordinal());
+    }
+
+    /**
+     * @param source kind of memory
+     * @return highest value of {@link #liveBytes(MemorySource)} observed
+     */
+    public long peakBytes(MemorySource source) {
+        return peak.get(source.ordinal());
+    }
+
+    /**
+     * @return number of times recovery was attempted
+     */
+    public long recoveries() {
+        synchronized (pools) {
+            return recoveries;
+        }
+    }
+
+    private void add(int index, long bytes) {
+        long current = live.addAndGet(index, bytes);
+        peak.accumulateAndGet(index, current, Math::max);
+    }
+
+    @Override
+    public String toString() {
+        return "MemoryStats{" +
+            "liveBytes=" + liveBytes() +
+            ", peakBytes=" + peakBytes() +
+            '}';
+    }
+}
@@ -0,0 +1,143 @@
+package org.silicon.api.memory;
+
+import java.lang.ref.Cleaner;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in safety net that releases native resources of unreachable objects.
+ * <p>
+ * Backends {@link #register(Object, Runnable) register} a release action for every resource
+ * they create. Once the owner becomes unreachable without being freed, the action is queued
+ * by a {@link Cleaner} thread and executed in batches, either on that thread when
+ * {@link #BATCH_SIZE} actions are pending, on the next registration, or on {@link #drain()}.
+ * Freeing a resource explicitly {@link Registration#disarm() disarms} its registration.
+ * <p>
+ * Reclamation is disabled by default. Enable it with {@code -Dsilicon.reclaim=true} or
+ * {@link #setEnabled(boolean)}; resources created while it is disabled are never reclaimed.
+ * Release actions must not reference their owner, or it never becomes unreachable.
+ */
+public final class Reclaimer {
+
+    /**
+     * System property that enables reclamation at startup.
+     */
+    public static final String ENABLED_PROPERTY = "silicon.reclaim";
+
+    /**
+     * Number of pending release actions that triggers a batch on the cleaner thread.
+     */
+    public static final int BATCH_SIZE = 32;
+
+    private static final Registration NONE = new Registration(null);
+    private static final ConcurrentLinkedQueue<Runnable> PENDING = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger PENDING_COUNT = new AtomicInteger();
+    private static final AtomicLong RECLAIMED = new AtomicLong();
+    private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    private Reclaimer() {
+    }
+
+    /**
+     * Registers a release action for a resource owner.
+     * @param owner object whose reachability controls the release
+     * @param release action that frees the native resource, must not reference the owner, may be null
+     * @return the registration to disarm when the owner is freed explicitly
+     */
+    public static Registration register(Object owner, Runnable release) {
+        if (!enabled || release == null) return NONE;
+        if (PENDING_COUNT.get() > 0) drain();
+
+        Registration registration = new Registration(release);
+        registration.cleanable = Holder.CLEANER.register(owner, registration::enqueue);
+
+        return registration;
+    }
+
+    /**
+     * Runs every pending release action on the calling thread.
+     * @return number of resources released by this call
+     */
+    public static int drain() {
+        int released = 0;
+        Runnable release;
+
+        while ((release = PENDING.poll()) != null) {
+            PENDING_COUNT.decrementAndGet();
+
+            try {
+                release.run();
+                released++;
+            } catch (RuntimeException ignored) {
+                // the owner is gone, there is nobody left to report the failure to
+            }
+        }
+
+        RECLAIMED.addAndGet(released);
+        return released;
+    }
+
+    /**
+     * @return total number of resources released because their owner became unreachable
+     */
+    public static long reclaimed() {
+        return RECLAIMED.get();
+    }
+
+    /**
+     * @return number of release actions waiting for the next batch
+     */
+    public static int pending() {
+        return PENDING_COUNT.get();
+    }
+
+    /**
+     * @return true if new resources are registered for reclamation
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables reclamation for resources created from now on.
+     * @param enabled whether to register new resources
+     */
+    public static void setEnabled(boolean enabled) {
+        Reclaimer.enabled = enabled;
+    }
+
+    /**
+     * Handle of a registered release action.
+     */
+    public static final class Registration {
+
+        private final Runnable release;
+        private final AtomicBoolean armed;
+        private Cleaner.Cleanable cleanable;
+
+        private Registration(Runnable release) {
+            this.release = release;
+            this.armed = new AtomicBoolean(release != null);
+        }
+
+        /**
+         * Cancels the release action, used once the owner has been freed explicitly.
+         */
+        public void disarm() {
+            if (armed.compareAndSet(true, false)) cleanable.clean();
+        }
+
+        private void enqueue() {
+            if (!armed.compareAndSet(true, false)) return;
+
+            PENDING.add(release);
+            if (PENDING_COUNT.incrementAndGet() >= BATCH_SIZE) drain();
+        }
+    }
+
+    private static final class Holder {
+        private static final Cleaner CLEANER = Cleaner.create();
+    }
+}
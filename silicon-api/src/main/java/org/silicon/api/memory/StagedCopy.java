@@ -0,0 +1,215 @@
+package org.silicon.api.memory;
+
+import org.silicon.api.SiliconException;
+import org.silicon.api.device.ComputeBuffer;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Copies between buffers that cannot reach each other directly, through host memory.
+ * <p>
+ * Transfers are split in chunks that cycle through two host windows. A dedicated thread
+ * downloads the next chunk from the source while the calling thread uploads the previous one
+ * to the destination, so both transfers overlap. Host memory is bounded by two windows
+ * regardless of the copy size.
+ * <p>
+ * Each thread calls {@link org.silicon.api.device.ComputeContext#syncThread()} on the context
+ * it transfers with, so on CUDA the calling thread ends with the destination context current.
+ */
+public final class StagedCopy {
+
+    /**
+     * Size of each of the two host windows.
+     */
+    public static final long WINDOW_SIZE = 8L << 20;
+
+    private StagedCopy() {
+    }
+
+    /**
+     * Copies a byte range from one buffer to another.
+     * @param src source buffer
+     * @param srcOffset byte offset into the source buffer
+     * @param dst destination buffer
+     * @param dstOffset byte offset into the destination buffer
+     * @param length number of bytes to copy
+     */
+    public static void copy(ComputeBuffer src, long srcOffset, ComputeBuffer dst, long dstOffset, long length) {
+        src.ensureAlive();
+        dst.ensureAlive();
+        src.ensureRange(srcOffset, length);
+        dst.ensureRange(dstOffset, length);
+
+        if (length == 0) return;
+
+        if (length <= WINDOW_SIZE) {
+            try (Arena arena = Arena.ofConfined()) {
+                MemorySegment window = arena.allocate(length);
+
+                src.context().syncThread();
+                src.get(srcOffset, window);
+                dst.context().syncThread();
+                dst.write(dstOffset, window);
+            }
+            return;
+        }
+
+        pipelined(src, srcOffset, dst, dstOffset, length);
+    }
+
+    /**
+     * Uploads a host segment, typically a file mapping, in chunks.
+     * <p>
+     * While one chunk is uploaded straight from the segment, a virtual thread loads the pages
+     * of the next one, so reading from disk overlaps with the transfer to the device and no
+     * extra host copy is made. Resident memory grows by at most two chunks ahead of the upload.
+     * Segments confined to the calling thread cannot be read ahead and are uploaded directly.
+     * @param src source segment
+     * @param dst destination buffer
+     * @param dstOffset byte offset into the destination buffer
+     */
+    public static void stream(MemorySegment src, ComputeBuffer dst, long dstOffset) {
+        long length = src.byteSize();
+
+        dst.ensureAlive();
+        dst.ensureRange(dstOffset, length);
+
+        Thread prefetch = Thread.ofVirtual().unstarted(() -> src.asSlice(0, WINDOW_SIZE).load());
+
+        if (length <= WINDOW_SIZE || !src.isMapped() || !src.isAccessibleBy(prefetch)) {
+            dst.write(dstOffset, src);
+            return;
+        }
+
+        prefetch.start();
+
+        try {
+            for (long position = 0; position < length; position += WINDOW_SIZE) {
+                long bytes = Math.min(WINDOW_SIZE, length - position);
+                long next = position + WINDOW_SIZE;
+
+                joinUninterruptibly(prefetch);
+
+                if (next < length) {
+                    MemorySegment ahead = src.asSlice(next, Math.min(WINDOW_SIZE, length - next));
+                    prefetch = Thread.startVirtualThread(ahead::load);
+                }
+
+                dst.write(dstOffset + position, src.asSlice(position, bytes));
+            }
+        } finally {
+            // the mapping may be unmapped once this returns, never leave a load running on it
+            joinUninterruptibly(prefetch);
+        }
+    }
+
+    private static void pipelined(ComputeBuffer src, long srcOffset, ComputeBuffer dst, long dstOffset, long length) {
+        long chunks = (length + WINDOW_SIZE - 1) / WINDOW_SIZE;
+
+        pipeline(chunks, WINDOW_SIZE, "Staged copy failed",
+            (chunk, window) -> {
+                if (chunk == 0) src.context().syncThread();
+
+                long position = chunk * WINDOW_SIZE;
+                src.get(srcOffset + position, window.asSlice(0, Math.min(WINDOW_SIZE, length - position)));
+            },
+            (chunk, window) -> {
+                if (chunk == 0) dst.context().syncThread();
+
+                long position = chunk * WINDOW_SIZE;
+                dst.write(dstOffset + position, window.asSlice(0, Math.min(WINDOW_SIZE, length - position)));
+            });
+    }
+
+    /**
+     * One side of a {@link #pipeline}, handling a single chunk.
+     */
+    @FunctionalInterface
+    interface Stage {
+        /**
+         * @param chunk index of the chunk
+         * @param window host window holding the chunk, of the pipeline window size
+         */
+        void run(long chunk, MemorySegment window);
+    }
+
+    /**
+     * Runs two stages over a sequence of chunks, cycling through two host windows.
+     * <p>
+     * The producer fills a window on a dedicated platform thread, while the calling thread
+     * runs the consumer over the window filled before, so both stages overlap. If either
+     * stage fails, the other one stops at its next chunk.
+     * @param chunks number of chunks
+     * @param windowSize bytes of each window
+     * @param message message of the exception thrown on failure
+     * @param producer fills a window with a chunk
+     * @param consumer drains a window holding a chunk
+     */
+    static void pipeline(long chunks, long windowSize, String message, Stage producer, Stage consumer) {
+        MemorySegment[] windows = new MemorySegment[2];
+        Semaphore[] filled = { new Semaphore(0), new Semaphore(0) };
+        Semaphore[] empty = { new Semaphore(1), new Semaphore(1) };
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        try (Arena arena = Arena.ofShared()) {
+            windows[0] = arena.allocate(windowSize, Long.BYTES);
+            windows[1] = arena.allocate(windowSize, Long.BYTES);
+
+            // a platform thread, the CUDA context is bound to the carrier thread
+            Thread reader = Thread.ofPlatform().daemon().name("silicon-staged-copy").start(() -> {
+                try {
+                    for (long chunk = 0; chunk < chunks; chunk++) {
+                        int index = (int) (chunk & 1);
+                        empty[index].acquireUninterruptibly();
+                        if (failure.get() != null) return;
+
+                        producer.run(chunk, windows[index]);
+                        filled[index].release();
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                    filled[0].release();
+                    filled[1].release();
+                }
+            });
+
+            try {
+                for (long chunk = 0; chunk < chunks; chunk++) {
+                    int index = (int) (chunk & 1);
+                    filled[index].acquireUninterruptibly();
+                    if (failure.get() != null) break;
+
+                    consumer.run(chunk, windows[index]);
+                    empty[index].release();
+                }
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+                empty[0].release();
+                empty[1].release();
+            }
+
+            joinUninterruptibly(reader);
+        }
+
+        Throwable cause = failure.get();
+        if (cause != null) throw new SiliconException(message, cause);
+    }
+
+    private static void joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+}
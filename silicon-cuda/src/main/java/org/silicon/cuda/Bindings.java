@@ -3,6 +3,7 @@ package org.silicon.cuda;
 import java.lang.foreign.AddressLayout;
 import java.lang.foreign.FunctionDescriptor;
 import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.StructLayout;
 import java.lang.foreign.ValueLayout;
 import java.lang.invoke.MethodHandle;
 import java.util.ArrayList;
@@ -25,6 +26,48 @@ public class Bindings {
     public static final AddressLayout CU_MODULE = ValueLayout.ADDRESS;
     public static final AddressLayout CU_FUNCTION = ValueLayout.ADDRESS;
 
+    public static final int CU_MEMORYTYPE_HOST = 1;
+    public static final int CU_MEMORYTYPE_DEVICE = 2;
+
+    public static final int CU_DEVICE_ATTRIBUTE_COMPUTE_CAPABILITY_MAJOR = 75;
+    public static final int CU_DEVICE_ATTRIBUTE_COMPUTE_CAPABILITY_MINOR = 76;
+
+    public static final int CU_MEM_ATTACH_GLOBAL = 0x1;
+    public static final int CU_MEMHOSTALLOC_PORTABLE = 0x1;
+    public static final int CU_MEMHOSTALLOC_DEVICEMAP = 0x2;
+    public static final int CU_MEMHOSTALLOC_WRITECOMBINED = 0x4;
+    public static final int CU_MEM_ADVISE_SET_READ_MOSTLY = 1;
+
+    public static final StructLayout CUDA_MEMCPY3D = MemoryLayout.structLayout(
+        JAVA_LONG.withName("srcXInBytes"),
+        JAVA_LONG.withName("srcY"),
+        JAVA_LONG.withName("srcZ"),
+        JAVA_LONG.withName("srcLOD"),
+        JAVA_INT.withName("srcMemoryType"),
+        MemoryLayout.paddingLayout(4),
+        ADDRESS.withName("srcHost"),
+        CU_DEVICE_PTR.withName("srcDevice"),
+        ADDRESS.withName("srcArray"),
+        ADDRESS.withName("reserved0"),
+        JAVA_LONG.withName("srcPitch"),
+        JAVA_LONG.withName("srcHeight"),
+        JAVA_LONG.withName("dstXInBytes"),
+        JAVA_LONG.withName("dstY"),
+        JAVA_LONG.withName("dstZ"),
+        JAVA_LONG.withName("dstLOD"),
+        JAVA_INT.withName("dstMemoryType"),
+        MemoryLayout.paddingLayout(4),
+        ADDRESS.withName("dstHost"),
+        CU_DEVICE_PTR.withName("dstDevice"),
+        ADDRESS.withName("dstArray"),
+        ADDRESS.withName("reserved1"),
+        JAVA_LONG.withName("dstPitch"),
+        JAVA_LONG.withName("dstHeight"),
+        JAVA_LONG.withName("WidthInBytes"),
+        JAVA_LONG.withName("Height"),
+        JAVA_LONG.withName("Depth")
+    );
+
     public static final Map<String, MemoryLayout> TYPES;
 
     static {
@@ -51,6 +94,7 @@ public class Bindings {
         map.put("CUdeviceptr", CU_DEVICE_PTR);
         map.put("CUdevice_attribute", JAVA_INT);
         map.put("CUfunction_attribute", JAVA_INT);
+        map.put("CUmem_advise", JAVA_INT);
 
         map.put("CUcontext", CU_CONTEXT);
         map.put("CUstream", CU_STREAM);
@@ -93,6 +137,15 @@ public class Bindings {
     public static final MethodHandle CU_CTX_SET_CURRENT =
         fromHeader("CUresult cuCtxSetCurrent(CUcontext ctx)");
 
+    public static final MethodHandle CU_CTX_PUSH_CURRENT =
+        fromHeader("CUresult cuCtxPushCurrent_v2(CUcontext ctx)");
+
+    public static final MethodHandle CU_CTX_POP_CURRENT =
+        fromHeader("CUresult cuCtxPopCurrent_v2(CUcontext* pctx)");
+
+    public static final MethodHandle CU_CTX_ENABLE_PEER_ACCESS =
+        fromHeader("CUresult cuCtxEnablePeerAccess(CUcontext peerContext, unsigned int Flags)");
+
     public static final MethodHandle CU_STREAM_CREATE =
         fromHeader("CUresult cuStreamCreate(CUstream* phStream, unsigned int flags)");
 
@@ -108,6 +161,18 @@ public class Bindings {
     public static final MethodHandle CU_MEM_FREE =
         fromHeader("CUresult cuMemFree_v2(CUdeviceptr dptr)");
 
+    public static final MethodHandle CU_MEM_ALLOC_MANAGED =
+        fromHeader("CUresult cuMemAllocManaged(CUdeviceptr* dptr, size_t bytesize, unsigned int flags)");
+
+    public static final MethodHandle CU_MEM_HOST_ALLOC =
+        fromHeader("CUresult cuMemHostAlloc(void** pp, size_t bytesize, unsigned int Flags)");
+
+    public static final MethodHandle CU_MEM_FREE_HOST =
+        fromHeader("CUresult cuMemFreeHost(void* p)");
+
+    public static final MethodHandle CU_MEM_ADVISE =
+        fromHeader("CUresult cuMemAdvise(CUdeviceptr devPtr, size_t count, CUmem_advise advice, CUdevice device)");
+
     public static final MethodHandle CU_MEMCPY_HTOD =
         fromHeader("CUresult cuMemcpyHtoD_v2(CUdeviceptr dstDevice, const void* srcHost, size_t ByteCount)");
 
@@ -126,6 +191,33 @@ public class Bindings {
     public static final MethodHandle CU_MEMCPY_DTOD_ASYNC =
         fromHeader("CUresult cuMemcpyDtoDAsync_v2(CUdeviceptr dstDevice, CUdeviceptr srcDevice, size_t ByteCount, CUstream hStream)");
 
+    public static final MethodHandle CU_MEMCPY_PEER =
+        fromHeader("CUresult cuMemcpyPeer(CUdeviceptr dstDevice, CUcontext dstContext, CUdeviceptr srcDevice, CUcontext srcContext, size_t ByteCount)");
+
+    public static final MethodHandle CU_MEMCPY_3D =
+        fromHeader("CUresult cuMemcpy3D_v2(const CUDA_MEMCPY3D* pCopy)");
+
+    public static final MethodHandle CU_MEMCPY_3D_ASYNC =
+        fromHeader("CUresult cuMemcpy3DAsync_v2(const CUDA_MEMCPY3D* pCopy, CUstream hStream)");
+
+    public static final MethodHandle CU_MEMSET_D8 =
+        fromHeader("CUresult cuMemsetD8_v2(CUdeviceptr dstDevice, unsigned char uc, size_t N)");
+
+    public static final MethodHandle CU_MEMSET_D16 =
+        fromHeader("CUresult cuMemsetD16_v2(CUdeviceptr dstDevice, unsigned short us, size_t N)");
+
+    public static final MethodHandle CU_MEMSET_D32 =
+        fromHeader("CUresult cuMemsetD32_v2(CUdeviceptr dstDevice, unsigned int ui, size_t N)");
+
+    public static final MethodHandle CU_MEMSET_D8_ASYNC =
+        fromHeader("CUresult cuMemsetD8Async(CUdeviceptr dstDevice, unsigned char uc, size_t N, CUstream hStream)");
+
+    public static final MethodHandle CU_MEMSET_D16_ASYNC =
+        fromHeader("CUresult cuMemsetD16Async(CUdeviceptr dstDevice, unsigned short us, size_t N, CUstream hStream)");
+
+    public static final MethodHandle CU_MEMSET_D32_ASYNC =
+        fromHeader("CUresult cuMemsetD32Async(CUdeviceptr dstDevice, unsigned int ui, size_t N, CUstream hStream)");
+
     public static final MethodHandle CU_MODULE_LOAD =
         fromHeader("CUresult cuModuleLoad(CUmodule* module, const char* fname)");
 
@@ -2,14 +2,18 @@ package org.silicon.cuda.device;
 
 import org.silicon.api.SiliconException;
 import org.silicon.api.device.ComputeBuffer;
+import org.silicon.api.device.RegionExtent;
+import org.silicon.api.device.RegionLayout;
 import org.silicon.api.memory.Freeable;
+import org.silicon.api.memory.MemorySource;
 import org.silicon.api.memory.MemoryState;
+import org.silicon.api.memory.MemoryStats;
+import org.silicon.api.memory.Reclaimer;
 import org.silicon.cuda.CUResult;
 import org.silicon.cuda.CudaObject;
 
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
-import java.lang.foreign.ValueLayout;
 
 import static org.silicon.cuda.Bindings.*;
 
@@ -18,13 +22,34 @@ public class CudaBuffer implements CudaObject, ComputeBuffer, Freeable {
     private final CudaContext context;
     private final long devicePtr;
     private final long size;
+    private final CudaBuffer parent;
+    private final Runnable release;
+    private final MemorySource source;
+    private final Reclaimer.Registration registration;
     private MemoryState state;
 
+    /**
+     * Wraps an existing device pointer. Wrapped pointers are not counted in the {@link MemoryStats} of the context.
+     */
     public CudaBuffer(CudaContext context, long devicePtr, long size) {
+        this(context, devicePtr, size, (MemorySource) null);
+    }
+
+    CudaBuffer(CudaContext context, long devicePtr, long size, MemorySource source) {
+        this(context, devicePtr, size, null, null, source);
+    }
+
+    private CudaBuffer(CudaContext context, long devicePtr, long size, CudaBuffer parent, Runnable release, MemorySource source) {
         this.context = context;
         this.devicePtr = devicePtr;
         this.size = size;
+        this.parent = parent;
+        this.release = release;
+        this.source = source;
         this.state = MemoryState.ALIVE;
+        this.registration = Reclaimer.register(this, parent == null
+            ? reclaim(context.handle(), devicePtr, context.memoryStats(), source, size)
+            : release);
     }
 
     @Override
@@ -41,6 +66,9 @@ public class CudaBuffer implements CudaObject, ComputeBuffer, Freeable {
         if (!(other instanceof CudaBuffer buffer))
             throw new IllegalArgumentException("Other buffer is not a CUDA buffer");
 
+        buffer.ensureRange(0, size);
+        if (size == 0) return buffer;
+
         try {
             int res = (int) CU_MEMCPY_DTOD.invokeExact(buffer.devicePtr, devicePtr, size);
             if (res != 0) {
@@ -54,268 +82,253 @@ public class CudaBuffer implements CudaObject, ComputeBuffer, Freeable {
     }
 
     @Override
-    public long size() {
-        return size;
-    }
-
-    @Override
-    public MemoryState state() {
-        return state;
-    }
-
-    @Override
-    public void free() {
-        if (!isAlive()) return;
+    public void fill(byte value, long offset, long length) {
+        ensureAlive();
+        ensureFillRange(offset, length, Byte.BYTES);
 
         try {
-            int res = (int) CU_MEM_FREE.invokeExact(devicePtr);
+            int res = (int) CU_MEMSET_D8.invokeExact(devicePtr + offset, value, length);
             if (res != 0) {
-                throw new SiliconException("cuMemFree failed: " + CUResult.fromCode(res));
+                throw new SiliconException("cuMemsetD8 failed: " + CUResult.fromCode(res));
             }
-
-            state = MemoryState.FREE;
         } catch (Throwable e) {
-            throw new SiliconException("free() failed", e);
+            throw new SiliconException("fill(byte, long, long) failed", e);
         }
     }
 
     @Override
-    public byte[] get(byte[] data) {
+    public void fill(short value, long offset, long length) {
         ensureAlive();
+        ensureFillRange(offset, length, Short.BYTES);
 
-        long transferSize = bytesOf(data);
-        ensureCapacity(transferSize);
-        try (Arena arena = Arena.ofConfined()) {
-            MemorySegment host = arena.allocate(transferSize);
-
-            int res = (int) CU_MEMCPY_DTOH.invokeExact(host, devicePtr, transferSize);
+        try {
+            int res = (int) CU_MEMSET_D16.invokeExact(devicePtr + offset, value, length / Short.BYTES);
             if (res != 0) {
-                throw new SiliconException("cuMemcpyDtoH failed: " + CUResult.fromCode(res));
+                throw new SiliconException("cuMemsetD16 failed: " + CUResult.fromCode(res));
             }
-
-            MemorySegment.copy(host, 0, MemorySegment.ofArray(data), 0, transferSize);
         } catch (Throwable e) {
-            throw new SiliconException("get(byte[]) failed", e);
+            throw new SiliconException("fill(short, long, long) failed", e);
         }
-        return data;
     }
 
     @Override
-    public double[] get(double[] data) {
+    public void fill(int value, long offset, long length) {
         ensureAlive();
+        ensureFillRange(offset, length, Integer.BYTES);
 
-        long transferSize = bytesOf(data);
-        ensureCapacity(transferSize);
-        try (Arena arena = Arena.ofConfined()) {
-            MemorySegment host = arena.allocate(transferSize);
-
-            int res = (int) CU_MEMCPY_DTOH.invokeExact(host, devicePtr, transferSize);
+        try {
+            int res = (int) CU_MEMSET_D32.invokeExact(devicePtr + offset, value, length / Integer.BYTES);
             if (res != 0) {
-                throw new SiliconException("cuMemcpyDtoH failed: " + CUResult.fromCode(res));
+                throw new SiliconException("cuMemsetD32 failed: " + CUResult.fromCode(res));
             }
-
-            MemorySegment.copy(host, 0, MemorySegment.ofArray(data), 0, transferSize);
         } catch (Throwable e) {
-            throw new SiliconException("get(double[]) failed", e);
+            throw new SiliconException("fill(int, long, long) failed", e);
         }
-        return data;
     }
 
+    /**
+     * Buffers of another CUDA context are copied with {@code cuMemcpyPeer}, which goes
+     * directly over the peer link when peer access is enabled between the two contexts.
+     */
     @Override
-    public float[] get(float[] data) {
+    public ComputeBuffer copyTo(ComputeBuffer other) {
         ensureAlive();
+        ensureOther(other);
+        other.ensureRange(0, size);
 
-        long transferSize = bytesOf(data);
-        ensureCapacity(transferSize);
-        try (Arena arena = Arena.ofConfined()) {
-            MemorySegment host = arena.allocate(transferSize);
+        if (!(other instanceof CudaBuffer buffer) || buffer.context == context) {
+            return ComputeBuffer.super.copyTo(other);
+        }
 
-            int res = (int) CU_MEMCPY_DTOH.invokeExact(host, devicePtr, transferSize);
+        try {
+            int res = (int) CU_MEMCPY_PEER.invokeExact(
+                buffer.devicePtr, buffer.context.handle(),
+                devicePtr, context.handle(),
+                size
+            );
             if (res != 0) {
-                throw new SiliconException("cuMemcpyDtoH failed: " + CUResult.fromCode(res));
+                throw new SiliconException("cuMemcpyPeer failed: " + CUResult.fromCode(res));
             }
 
-            MemorySegment.copy(host, 0, MemorySegment.ofArray(data), 0, transferSize);
+            return buffer;
         } catch (Throwable e) {
-            throw new SiliconException("get(float[]) failed", e);
+            throw new SiliconException("copyTo(ComputeBuffer) failed", e);
         }
-        return data;
     }
 
     @Override
-    public long[] get(long[] data) {
+    public CudaBuffer slice(long offset, long length, Runnable release) {
         ensureAlive();
+        ensureRange(offset, length);
 
-        long transferSize = bytesOf(data);
-        ensureCapacity(transferSize);
-        try (Arena arena = Arena.ofConfined()) {
-            MemorySegment host = arena.allocate(transferSize);
+        if (length == 0) throw new IllegalArgumentException("Slice length must be positive");
 
-            int res = (int) CU_MEMCPY_DTOH.invokeExact(host, devicePtr, transferSize);
-            if (res != 0) {
-                throw new SiliconException("cuMemcpyDtoH failed: " + CUResult.fromCode(res));
-            }
+        CudaBuffer root = parent != null ? parent : this;
+        return new CudaBuffer(context, devicePtr + offset, length, root, release, null);
+    }
 
-            MemorySegment.copy(host, 0, MemorySegment.ofArray(data), 0, transferSize);
-        } catch (Throwable e) {
-            throw new SiliconException("get(long[]) failed", e);
-        }
-        return data;
+    @Override
+    public long size() {
+        return size;
     }
 
     @Override
-    public int[] get(int[] data) {
-        ensureAlive();
+    public MemoryState state() {
+        if (parent != null && !parent.isAlive()) return MemoryState.FREE;
+        return state;
+    }
 
-        long transferSize = bytesOf(data);
-        ensureCapacity(transferSize);
-        try (Arena arena = Arena.ofConfined()) {
-            MemorySegment host = arena.allocate(transferSize);
+    @Override
+    public void free() {
+        if (!isAlive()) return;
+        registration.disarm();
 
-            int res = (int) CU_MEMCPY_DTOH.invokeExact(host, devicePtr, transferSize);
-            if (res != 0) {
-                throw new SiliconException("cuMemcpyDtoH failed: " + CUResult.fromCode(res));
-            }
+        if (parent != null) {
+            state = MemoryState.FREE;
+            if (release != null) release.run();
+            return;
+        }
+
+        try {
+            release(devicePtr, source);
 
-            MemorySegment.copy(host, 0, MemorySegment.ofArray(data), 0, transferSize);
+            state = MemoryState.FREE;
+            if (source != null) context.memoryStats().released(source, size);
         } catch (Throwable e) {
-            throw new SiliconException("get(int[]) failed", e);
+            throw new SiliconException("free() failed", e);
         }
-        return data;
     }
 
     @Override
-    public short[] get(short[] data) {
+    public MemorySegment get(long offset, MemorySegment data) {
         ensureAlive();
 
-        long transferSize = bytesOf(data);
-        ensureCapacity(transferSize);
-        try (Arena arena = Arena.ofConfined()) {
-            MemorySegment host = arena.allocate(transferSize);
+        long transferSize = data.byteSize();
+        ensureRange(offset, transferSize);
 
-            int res = (int) CU_MEMCPY_DTOH.invokeExact(host, devicePtr, transferSize);
-            if (res != 0) {
-                throw new SiliconException("cuMemcpyDtoH failed: " + CUResult.fromCode(res));
-            }
+        if (data.isNative()) {
+            copyToHost(offset, data, transferSize);
+            return data;
+        }
 
-            MemorySegment.copy(host, 0, MemorySegment.ofArray(data), 0, transferSize);
-        } catch (Throwable e) {
-            throw new SiliconException("get(short[]) failed", e);
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment host = arena.allocate(transferSize);
+            copyToHost(offset, host, transferSize);
+            MemorySegment.copy(host, 0, data, 0, transferSize);
         }
         return data;
     }
 
     @Override
-    public void write(byte[] data) {
+    public void write(long offset, MemorySegment data) {
         ensureAlive();
 
-        long transferSize = bytesOf(data);
-        ensureCapacity(transferSize);
-        try (Arena arena = Arena.ofConfined()) {
-            MemorySegment host = arena.allocate(transferSize);
-            host.copyFrom(MemorySegment.ofArray(data));
+        long transferSize = data.byteSize();
+        ensureRange(offset, transferSize);
 
-            int res = (int) CU_MEMCPY_HTOD.invokeExact(devicePtr, host, transferSize);
-            if (res != 0) {
-                throw new SiliconException("cuMemcpyHtoD failed: " + CUResult.fromCode(res));
-            }
-        } catch (Throwable e) {
-            throw new SiliconException("write(byte[]) failed", e);
+        if (data.isNative()) {
+            copyFromHost(offset, data, transferSize);
+            return;
         }
-    }
-
-    @Override
-    public void write(double[] data) {
-        ensureAlive();
 
-        long transferSize = bytesOf(data);
-        ensureCapacity(transferSize);
         try (Arena arena = Arena.ofConfined()) {
             MemorySegment host = arena.allocate(transferSize);
-            host.copyFrom(MemorySegment.ofArray(data));
-
-            int res = (int) CU_MEMCPY_HTOD.invokeExact(devicePtr, host, transferSize);
-            if (res != 0) {
-                throw new SiliconException("cuMemcpyHtoD failed: " + CUResult.fromCode(res));
-            }
-        } catch (Throwable e) {
-            throw new SiliconException("write(double[]) failed", e);
+            host.copyFrom(data);
+            copyFromHost(offset, host, transferSize);
         }
     }
 
     @Override
-    public void write(float[] data) {
+    public void copyRegionInto(ComputeBuffer dst, RegionLayout srcLayout, RegionLayout dstLayout, RegionExtent extent) {
         ensureAlive();
+        ensureOther(dst);
 
-        long transferSize = bytesOf(data);
-        ensureCapacity(transferSize);
-        try (Arena arena = Arena.ofConfined()) {
-            MemorySegment host = arena.allocate(transferSize);
-            host.copyFrom(MemorySegment.ofArray(data));
+        if (!(dst instanceof CudaBuffer buffer))
+            throw new IllegalArgumentException("Other buffer is not a CUDA buffer");
 
-            int res = (int) CU_MEMCPY_HTOD.invokeExact(devicePtr, host, transferSize);
-            if (res != 0) {
-                throw new SiliconException("cuMemcpyHtoD failed: " + CUResult.fromCode(res));
-            }
-        } catch (Throwable e) {
-            throw new SiliconException("write(float[]) failed", e);
+        ensureRegion(srcLayout, extent);
+        buffer.ensureRegion(dstLayout, extent);
+        if (extent.isEmpty()) return;
+
+        try (Arena arena = Arena.ofConfined()) {
+            memcpy3D(CudaRegion.describe(
+                arena,
+                CU_MEMORYTYPE_DEVICE, devicePtr, srcLayout,
+                CU_MEMORYTYPE_DEVICE, buffer.devicePtr, dstLayout,
+                extent
+            ));
         }
     }
 
     @Override
-    public void write(long[] data) {
+    public void writeRegion(MemorySegment src, RegionLayout srcLayout, RegionLayout dstLayout, RegionExtent extent) {
         ensureAlive();
+        ensureRegion(dstLayout, extent);
+        srcLayout.ensureWithin(src.byteSize(), extent);
+        if (extent.isEmpty()) return;
 
-        long transferSize = bytesOf(data);
-        ensureCapacity(transferSize);
         try (Arena arena = Arena.ofConfined()) {
-            MemorySegment host = arena.allocate(transferSize);
-            host.copyFrom(MemorySegment.ofArray(data));
-
-            int res = (int) CU_MEMCPY_HTOD.invokeExact(devicePtr, host, transferSize);
-            if (res != 0) {
-                throw new SiliconException("cuMemcpyHtoD failed: " + CUResult.fromCode(res));
+            MemorySegment host = src;
+            RegionLayout hostLayout = srcLayout;
+
+            if (!src.isNative()) {
+                long span = srcLayout.span(extent);
+                host = arena.allocate(span);
+                hostLayout = new RegionLayout(0, srcLayout.rowPitch(), srcLayout.slicePitch());
+                MemorySegment.copy(src, srcLayout.offset(), host, 0, span);
             }
-        } catch (Throwable e) {
-            throw new SiliconException("write(long[]) failed", e);
+
+            memcpy3D(CudaRegion.describe(
+                arena,
+                CU_MEMORYTYPE_HOST, host.address(), hostLayout,
+                CU_MEMORYTYPE_DEVICE, devicePtr, dstLayout,
+                extent
+            ));
         }
     }
 
     @Override
-    public void write(int[] data) {
+    public void readRegion(MemorySegment dst, RegionLayout srcLayout, RegionLayout dstLayout, RegionExtent extent) {
         ensureAlive();
+        ensureRegion(srcLayout, extent);
+        dstLayout.ensureWithin(dst.byteSize(), extent);
+        if (extent.isEmpty()) return;
 
-        long transferSize = bytesOf(data);
-        ensureCapacity(transferSize);
         try (Arena arena = Arena.ofConfined()) {
-            MemorySegment host = arena.allocate(transferSize);
-            host.copyFrom(MemorySegment.ofArray(data));
-
-            int res = (int) CU_MEMCPY_HTOD.invokeExact(devicePtr, host, transferSize);
-            if (res != 0) {
-                throw new SiliconException("cuMemcpyHtoD failed: " + CUResult.fromCode(res));
+            if (dst.isNative()) {
+                memcpy3D(CudaRegion.describe(
+                    arena,
+                    CU_MEMORYTYPE_DEVICE, devicePtr, srcLayout,
+                    CU_MEMORYTYPE_HOST, dst.address(), dstLayout,
+                    extent
+                ));
+                return;
             }
-        } catch (Throwable e) {
-            throw new SiliconException("write(int[]) failed", e);
-        }
-    }
 
-    @Override
-    public void write(short[] data) {
-        ensureAlive();
+            // the staged span is copied back whole, so it starts from the current contents to keep the gaps intact
+            long span = dstLayout.span(extent);
+            MemorySegment host = arena.allocate(span);
+            MemorySegment.copy(dst, dstLayout.offset(), host, 0, span);
 
-        long transferSize = bytesOf(data);
-        ensureCapacity(transferSize);
-        try (Arena arena = Arena.ofConfined()) {
-            MemorySegment host = arena.allocate(transferSize);
-            host.copyFrom(MemorySegment.ofArray(data));
+            memcpy3D(CudaRegion.describe(
+                arena,
+                CU_MEMORYTYPE_DEVICE, devicePtr, srcLayout,
+                CU_MEMORYTYPE_HOST, host.address(), new RegionLayout(0, dstLayout.rowPitch(), dstLayout.slicePitch()),
+                extent
+            ));
 
-            int res = (int) CU_MEMCPY_HTOD.invokeExact(devicePtr, host, transferSize);
+            MemorySegment.copy(host, 0, dst, dstLayout.offset(), span);
+        }
+    }
+
+    private static void memcpy3D(MemorySegment copy) {
+        try {
+            int res = (int) CU_MEMCPY_3D.invokeExact(copy);
             if (res != 0) {
-                throw new SiliconException("cuMemcpyHtoD failed: " + CUResult.fromCode(res));
+                throw new SiliconException("cuMemcpy3D failed: " + CUResult.fromCode(res));
             }
         } catch (Throwable e) {
-            throw new SiliconException("write(short[]) failed", e);
+            throw new SiliconException("memcpy3D(MemorySegment) failed", e);
         }
     }
 
@@ -323,13 +336,78 @@ public class CudaBuffer implements CudaObject, ComputeBuffer, Freeable {
         return devicePtr;
     }
 
+    @Override
     public CudaContext context() {
         return context;
     }
 
-    private void ensureCapacity(long transferSize) {
-        if (transferSize > size) {
-            throw new IllegalArgumentException("Requested transfer of " + transferSize + " bytes, but buffer size is " + size);
+    public boolean isView() {
+        return parent != null;
+    }
+
+    private static Runnable reclaim(MemorySegment context, long devicePtr, MemoryStats stats, MemorySource source, long size) {
+        // runs on whatever thread drains the reclaimer, so the context is pushed instead of set
+        return () -> {
+            try (Arena arena = Arena.ofConfined()) {
+                int res = (int) CU_CTX_PUSH_CURRENT.invokeExact(context);
+
+                if (isDestroyed(res)) {
+                    // the allocation went away with its context, only the counters are left
+                    if (source != null) stats.released(source, size);
+                    return;
+                }
+
+                if (res != 0) throw new SiliconException("cuCtxPushCurrent failed: " + CUResult.fromCode(res));
+
+                try {
+                    release(devicePtr, source);
+                    if (source != null) stats.released(source, size);
+                } finally {
+                    int popped = (int) CU_CTX_POP_CURRENT.invokeExact(arena.allocate(CU_CONTEXT));
+                    if (popped != 0) throw new SiliconException("cuCtxPopCurrent failed: " + CUResult.fromCode(popped));
+                }
+            } catch (Throwable e) {
+                throw new SiliconException("reclaim() failed", e);
+            }
+        };
+    }
+
+    private static boolean isDestroyed(int res) {
+        return res == CUResult.CUDA_ERROR_CONTEXT_IS_DESTROYED.value()
+            || res == CUResult.CUDA_ERROR_INVALID_CONTEXT.value()
+            || res == CUResult.CUDA_ERROR_DEINITIALIZED.value();
+    }
+
+    private static void release(long devicePtr, MemorySource source) throws Throwable {
+        if (source == MemorySource.HOST) {
+            int res = (int) CU_MEM_FREE_HOST.invokeExact(MemorySegment.ofAddress(devicePtr));
+            if (res != 0) throw new SiliconException("cuMemFreeHost failed: " + CUResult.fromCode(res));
+            return;
+        }
+
+        int res = (int) CU_MEM_FREE.invokeExact(devicePtr);
+        if (res != 0) throw new SiliconException("cuMemFree failed: " + CUResult.fromCode(res));
+    }
+
+    private void copyToHost(long offset, MemorySegment host, long transferSize) {
+        try {
+            int res = (int) CU_MEMCPY_DTOH.invokeExact(host, devicePtr + offset, transferSize);
+            if (res != 0) {
+                throw new SiliconException("cuMemcpyDtoH failed: " + CUResult.fromCode(res));
+            }
+        } catch (Throwable e) {
+            throw new SiliconException("get(long, MemorySegment) failed", e);
+        }
+    }
+
+    private void copyFromHost(long offset, MemorySegment host, long transferSize) {
+        try {
+            int res = (int) CU_MEMCPY_HTOD.invokeExact(devicePtr + offset, host, transferSize);
+            if (res != 0) {
+                throw new SiliconException("cuMemcpyHtoD failed: " + CUResult.fromCode(res));
+            }
+        } catch (Throwable e) {
+            throw new SiliconException("write(long, MemorySegment) failed", e);
         }
     }
 
@@ -1,9 +1,14 @@
 package org.silicon.cuda.device;
 
+import org.silicon.api.OutOfDeviceMemoryException;
 import org.silicon.api.SiliconException;
 import org.silicon.api.backend.BackendType;
+import org.silicon.api.device.AllocationOptions;
 import org.silicon.api.device.ComputeArena;
 import org.silicon.api.device.ComputeContext;
+import org.silicon.api.kernel.DeviceConversion;
+import org.silicon.api.memory.MemorySource;
+import org.silicon.api.memory.MemoryStats;
 import org.silicon.cuda.Bindings;
 import org.silicon.cuda.CUResult;
 import org.silicon.cuda.CudaObject;
@@ -20,8 +25,37 @@ import java.nio.file.Path;
 import static org.silicon.cuda.Bindings.*;
 
 
-public record CudaContext(MemorySegment handle, CudaDevice device) implements CudaObject, ComputeContext {
+public final class CudaContext implements CudaObject, ComputeContext {
 
+    private final MemorySegment handle;
+    private final CudaDevice device;
+    private final MemoryStats memoryStats = new MemoryStats();
+    private final DeviceConversion conversion = new DeviceConversion(this, "/org/silicon/cuda/convert.ptx");
+
+    public CudaContext(MemorySegment handle, CudaDevice device) {
+        this.handle = handle;
+        this.device = device;
+    }
+
+    public MemorySegment handle() {
+        return handle;
+    }
+
+    public CudaDevice device() {
+        return device;
+    }
+
+    /**
+     * @return the built-in conversion kernels of this context
+     */
+    public DeviceConversion conversion() {
+        return conversion;
+    }
+
+    @Override
+    public MemoryStats memoryStats() {
+        return memoryStats;
+    }
 
     public CudaContext setCurrent() {
         try {
@@ -51,6 +85,29 @@ public record CudaContext(MemorySegment handle, CudaDevice device) implements Cu
         }
     }
 
+    /**
+     * Lets this context access the memory of another context directly, so copies
+     * between their buffers go over the peer link instead of through the host.
+     * Makes this context current on the calling thread.
+     * @param peer context whose memory becomes accessible
+     * @return this context
+     */
+    public CudaContext enablePeerAccess(CudaContext peer) {
+        setCurrent();
+
+        try {
+            int res = (int) CU_CTX_ENABLE_PEER_ACCESS.invokeExact(peer.handle, 0);
+
+            if (res != 0 && res != CUResult.CUDA_ERROR_PEER_ACCESS_ALREADY_ENABLED.value()) {
+                throw new SiliconException("cuCtxEnablePeerAccess failed: " + CUResult.fromCode(res));
+            }
+
+            return this;
+        } catch (Throwable e) {
+            throw new SiliconException("enablePeerAccess(CudaContext) failed", e);
+        }
+    }
+
     @Override
     public void syncThread() {
         setCurrent();
@@ -112,7 +169,8 @@ public record CudaContext(MemorySegment handle, CudaDevice device) implements Cu
     @Override
     public CudaModule loadModule(byte[] rawSrc) {
         try (Arena arena = Arena.ofConfined()) {
-            MemorySegment data = arena.allocate(rawSrc.length);
+            // zero terminated, PTX images are read as C strings
+            MemorySegment data = arena.allocate(rawSrc.length + 1L);
             data.copyFrom(MemorySegment.ofArray(rawSrc));
 
             MemorySegment modulePtr = arena.allocate(Bindings.CU_MODULE);
@@ -136,21 +194,107 @@ public record CudaContext(MemorySegment handle, CudaDevice device) implements Cu
 
     @Override
     public CudaBuffer allocateBytes(long size) {
+        return memoryStats.allocate(MemorySource.DEVICE, size, () -> allocate(size));
+    }
+
+    /**
+     * Allocates device memory with {@code cuMemAlloc}, pinned host memory with {@code cuMemHostAlloc}
+     * or unified memory with {@code cuMemAllocManaged} according to the placement.
+     * <p>
+     * Read-only host memory is allocated write-combined, which speeds up host writes and device
+     * reads but makes host reads slow. Read-only managed memory is advised as read-mostly, so
+     * devices keep local copies instead of migrating pages. Host allocations rely on unified
+     * addressing, their host pointer is used as device pointer.
+     */
+    @Override
+    public CudaBuffer allocateBytes(long size, AllocationOptions options) {
+        return switch (options.placement()) {
+            case DEVICE -> allocateBytes(size);
+            case HOST -> memoryStats.allocate(MemorySource.HOST, size, () -> allocateHost(size, options.access()));
+            case MANAGED -> memoryStats.allocate(MemorySource.MANAGED, size, () -> allocateManaged(size, options.access()));
+        };
+    }
+
+    private CudaBuffer allocate(long size) {
         try (Arena arena = Arena.ofConfined()) {
             MemorySegment dptrOut = arena.allocate(ValueLayout.JAVA_LONG);
             int res = (int) CU_MEM_ALLOC.invokeExact(dptrOut, size);
 
+            if (res == CUResult.CUDA_ERROR_OUT_OF_MEMORY.value()) {
+                throw new OutOfDeviceMemoryException("cuMemAlloc_v2 failed: " + CUResult.fromCode(res));
+            }
             if (res != 0) {
                 throw new SiliconException("cuMemAlloc_v2 failed: " + CUResult.fromCode(res));
             }
 
             long devicePtr = dptrOut.get(ValueLayout.JAVA_LONG, 0);
-            return new CudaBuffer(this, devicePtr, size);
+            return new CudaBuffer(this, devicePtr, size, MemorySource.DEVICE);
+        } catch (OutOfDeviceMemoryException e) {
+            throw e;
         } catch (Throwable e) {
             throw new SiliconException("allocateBytes(long) failed", e);
         }
     }
 
+    private CudaBuffer allocateHost(long size, AllocationOptions.Access access) {
+        try (Arena arena = Arena.ofConfined()) {
+            int flags = CU_MEMHOSTALLOC_PORTABLE | CU_MEMHOSTALLOC_DEVICEMAP;
+            if (access == AllocationOptions.Access.READ_ONLY) flags |= CU_MEMHOSTALLOC_WRITECOMBINED;
+
+            MemorySegment ptrOut = arena.allocate(ValueLayout.ADDRESS);
+            int res = (int) CU_MEM_HOST_ALLOC.invokeExact(ptrOut, size, flags);
+
+            if (res == CUResult.CUDA_ERROR_OUT_OF_MEMORY.value()) {
+                throw new OutOfDeviceMemoryException("cuMemHostAlloc failed: " + CUResult.fromCode(res));
+            }
+            if (res != 0) {
+                throw new SiliconException("cuMemHostAlloc failed: " + CUResult.fromCode(res));
+            }
+
+            long hostPtr = ptrOut.get(ValueLayout.ADDRESS, 0).address();
+            return new CudaBuffer(this, hostPtr, size, MemorySource.HOST);
+        } catch (OutOfDeviceMemoryException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new SiliconException("allocateBytes(long, AllocationOptions) failed", e);
+        }
+    }
+
+    private CudaBuffer allocateManaged(long size, AllocationOptions.Access access) {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment dptrOut = arena.allocate(ValueLayout.JAVA_LONG);
+            int res = (int) CU_MEM_ALLOC_MANAGED.invokeExact(dptrOut, size, CU_MEM_ATTACH_GLOBAL);
+
+            if (res == CUResult.CUDA_ERROR_OUT_OF_MEMORY.value()) {
+                throw new OutOfDeviceMemoryException("cuMemAllocManaged failed: " + CUResult.fromCode(res));
+            }
+            if (res != 0) {
+                throw new SiliconException("cuMemAllocManaged failed: " + CUResult.fromCode(res));
+            }
+
+            long devicePtr = dptrOut.get(ValueLayout.JAVA_LONG, 0);
+            CudaBuffer buffer = new CudaBuffer(this, devicePtr, size, MemorySource.MANAGED);
+
+            if (access == AllocationOptions.Access.READ_ONLY) {
+                // only a hint, devices without concurrent managed access reject it
+                int advised = (int) CU_MEM_ADVISE.invokeExact(devicePtr, size, CU_MEM_ADVISE_SET_READ_MOSTLY, device.handle());
+
+                if (advised != 0
+                    && advised != CUResult.CUDA_ERROR_INVALID_DEVICE.value()
+                    && advised != CUResult.CUDA_ERROR_NOT_SUPPORTED.value()) {
+                    buffer.free();
+                    throw new SiliconException("cuMemAdvise failed: " + CUResult.fromCode(advised));
+                }
+            }
+
+            return buffer;
+        } catch (OutOfDeviceMemoryException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new SiliconException("allocateBytes(long, AllocationOptions) failed", e);
+        }
+    }
+
     @Override
     public CudaBuffer allocateArray(byte[] data) {
         CudaBuffer buffer = allocateBytes(data.length);
@@ -192,4 +336,12 @@ public record CudaContext(MemorySegment handle, CudaDevice device) implements Cu
         buffer.write(data);
         return buffer;
     }
+
+    @Override
+    public String toString() {
+        return "CudaContext{" +
+            "handle=" + handle +
+            ", device=" + device +
+            '}';
+    }
 }
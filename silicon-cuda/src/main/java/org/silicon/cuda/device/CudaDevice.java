@@ -72,14 +72,39 @@ public record CudaDevice(int handle, int index) implements CudaObject, NativeVal
         }
     }
     
+    /**
+     * Derives feature support from the compute capability: FP16 arithmetic needs 5.3,
+     * INT8 dot products ({@code dp4a}) 6.1, BF16 8.0 and FP8 8.9.
+     */
     @Override
     public boolean supports(DeviceFeature feature) {
-        return true; // TODO: implement
-//        try {
-//            return (boolean) CUDA_DEVICE_SUPPORTS.invokeExact(handle, feature.ordinal());
-//        } catch (Throwable e) {
-//            throw new SiliconException("supports(" + feature + ") failed", e);
-//        }
+        int capability = attribute(CU_DEVICE_ATTRIBUTE_COMPUTE_CAPABILITY_MAJOR) * 10
+            + attribute(CU_DEVICE_ATTRIBUTE_COMPUTE_CAPABILITY_MINOR);
+
+        return switch (feature) {
+            case FP16 -> capability >= 53;
+            case FP64 -> true;
+            case INT8 -> capability >= 61;
+            case BF16 -> capability >= 80;
+            case FP8 -> capability >= 89;
+        };
+    }
+
+    private int attribute(int attribute) {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment value = arena.allocate(ValueLayout.JAVA_INT);
+
+            int res = (int) CU_DEVICE_GET_ATTRIBUTE.invokeExact(value, attribute, handle);
+            if (res != 0) {
+                throw new SiliconException("cuDeviceGetAttribute(" + attribute + ") failed: " + CUResult.fromCode(res));
+            }
+
+            return value.get(ValueLayout.JAVA_INT, 0);
+        } catch (SiliconException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new SiliconException("attribute(int) failed", e);
+        }
     }
 
     public String computeCapability() {
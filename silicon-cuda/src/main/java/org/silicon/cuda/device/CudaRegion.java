@@ -0,0 +1,74 @@
+package org.silicon.cuda.device;
+
+import org.silicon.api.device.RegionExtent;
+import org.silicon.api.device.RegionLayout;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout.PathElement;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+import static org.silicon.cuda.Bindings.*;
+
+/**
+ * Builds {@code CUDA_MEMCPY3D} descriptors for strided region copies.
+ * <p>
+ * Region offsets are folded into the base addresses, so every copy starts at
+ * {@code (0, 0, 0)} and two-dimensional regions are copies with a depth of one.
+ */
+public final class CudaRegion {
+
+    private CudaRegion() {
+    }
+
+    /**
+     * Describes a copy between device memory or host memory.
+     * @param arena arena owning the descriptor
+     * @param srcType {@code CU_MEMORYTYPE_HOST} or {@code CU_MEMORYTYPE_DEVICE}
+     * @param srcAddress base address of the source memory
+     * @param srcLayout placement of the region in the source memory
+     * @param dstType {@code CU_MEMORYTYPE_HOST} or {@code CU_MEMORYTYPE_DEVICE}
+     * @param dstAddress base address of the destination memory
+     * @param dstLayout placement of the region in the destination memory
+     * @param extent size of the region, must not be empty
+     * @return the descriptor
+     */
+    public static MemorySegment describe(
+        Arena arena,
+        int srcType, long srcAddress, RegionLayout srcLayout,
+        int dstType, long dstAddress, RegionLayout dstLayout,
+        RegionExtent extent
+    ) {
+        MemorySegment copy = arena.allocate(CUDA_MEMCPY3D);
+
+        side(copy, "src", srcType, srcAddress + srcLayout.offset(), srcLayout);
+        side(copy, "dst", dstType, dstAddress + dstLayout.offset(), dstLayout);
+
+        set(copy, "WidthInBytes", extent.rowBytes());
+        set(copy, "Height", extent.rows());
+        set(copy, "Depth", extent.slices());
+
+        return copy;
+    }
+
+    private static void side(MemorySegment copy, String prefix, int type, long address, RegionLayout layout) {
+        copy.set(ValueLayout.JAVA_INT, offset(prefix + "MemoryType"), type);
+
+        if (type == CU_MEMORYTYPE_HOST) {
+            copy.set(ValueLayout.ADDRESS, offset(prefix + "Host"), MemorySegment.ofAddress(address));
+        } else {
+            set(copy, prefix + "Device", address);
+        }
+
+        set(copy, prefix + "Pitch", layout.rowPitch());
+        set(copy, prefix + "Height", layout.slicePitch() / layout.rowPitch());
+    }
+
+    private static void set(MemorySegment copy, String field, long value) {
+        copy.set(ValueLayout.JAVA_LONG, offset(field), value);
+    }
+
+    private static long offset(String field) {
+        return CUDA_MEMCPY3D.byteOffset(PathElement.groupElement(field));
+    }
+}
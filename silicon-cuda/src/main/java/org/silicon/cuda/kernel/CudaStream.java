@@ -1,7 +1,10 @@
 package org.silicon.cuda.kernel;
 
+import org.silicon.api.DataType;
 import org.silicon.api.SiliconException;
 import org.silicon.api.device.ComputeBuffer;
+import org.silicon.api.device.RegionExtent;
+import org.silicon.api.device.RegionLayout;
 import org.silicon.api.function.ComputeFunction;
 import org.silicon.api.kernel.ComputeArgs;
 import org.silicon.api.kernel.ComputeEvent;
@@ -12,11 +15,12 @@ import org.silicon.api.memory.MemoryState;
 import org.silicon.cuda.CUResult;
 import org.silicon.cuda.CudaObject;
 import org.silicon.cuda.device.CudaBuffer;
-import org.silicon.cuda.device.CudaPointer;
+import org.silicon.cuda.device.CudaRegion;
 import org.silicon.cuda.function.CudaFunction;
 
+import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
-import java.util.List;
+import java.lang.foreign.ValueLayout;
 import java.util.Objects;
 
 import static org.silicon.cuda.Bindings.*;
@@ -54,10 +58,10 @@ public final class CudaStream implements CudaObject, ComputeQueue, Freeable {
         int gridY = globalSize.y() / localY;
         int gridZ = globalSize.z() / localZ;
 
-        CudaPointer parameters = getParameters(args);
-        MemorySegment kernelParams = args.size() == 0 ? MemorySegment.NULL : parameters.segment();
+        // the driver copies the parameters when the launch is enqueued
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment kernelParams = getParameters(args, arena);
 
-        try {
             int res = (int) CU_LAUNCH_KERNEL.invokeExact(
                 funcHandle,
                 gridX, gridY, gridZ,
@@ -103,10 +107,10 @@ public final class CudaStream implements CudaObject, ComputeQueue, Freeable {
         int gridY = globalSize.y() / localY;
         int gridZ = globalSize.z() / localZ;
 
-        CudaPointer parameters = getParameters(args);
-        MemorySegment kernelParams = args.size() == 0 ? MemorySegment.NULL : parameters.segment();
+        // the driver copies the parameters when the launch is enqueued
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment kernelParams = getParameters(args, arena);
 
-        try {
             int res = (int) CU_LAUNCH_KERNEL.invokeExact(
                 funcHandle,
                 gridX, gridY, gridZ,
@@ -126,26 +130,250 @@ public final class CudaStream implements CudaObject, ComputeQueue, Freeable {
         }
     }
 
-    private CudaPointer getParameters(ComputeArgs args) {
-        List<Object> computeArgs = args.args();
-        CudaPointer[] pointers = new CudaPointer[computeArgs.size()];
+    @Override
+    public ComputeEvent writeAsync(ComputeBuffer dst, long offset, MemorySegment src) {
+        ensureAlive();
+
+        CudaBuffer buffer = checkBuffer(dst);
+        buffer.ensureRange(offset, src.byteSize());
+        checkNative(src);
+
+        try {
+            int res = (int) CU_MEMCPY_HTOD_ASYNC.invokeExact(buffer.nativePointer() + offset, src, src.byteSize(), handle);
+            if (res != 0) {
+                throw new SiliconException("cuMemcpyHtoDAsync failed: " + CUResult.fromCode(res));
+            }
+
+            return new CudaEvent(this);
+        } catch (Throwable e) {
+            throw new SiliconException("writeAsync(ComputeBuffer, long, MemorySegment) failed", e);
+        }
+    }
+
+    @Override
+    public ComputeEvent readAsync(ComputeBuffer src, long offset, MemorySegment dst) {
+        ensureAlive();
+
+        CudaBuffer buffer = checkBuffer(src);
+        buffer.ensureRange(offset, dst.byteSize());
+        checkNative(dst);
+
+        try {
+            int res = (int) CU_MEMCPY_DTOH_ASYNC.invokeExact(dst, buffer.nativePointer() + offset, dst.byteSize(), handle);
+            if (res != 0) {
+                throw new SiliconException("cuMemcpyDtoHAsync failed: " + CUResult.fromCode(res));
+            }
+
+            return new CudaEvent(this);
+        } catch (Throwable e) {
+            throw new SiliconException("readAsync(ComputeBuffer, long, MemorySegment) failed", e);
+        }
+    }
+
+    @Override
+    public ComputeEvent copyAsync(ComputeBuffer src, long srcOffset, ComputeBuffer dst, long dstOffset, long length) {
+        ensureAlive();
+
+        CudaBuffer source = checkBuffer(src);
+        CudaBuffer destination = checkBuffer(dst);
+        source.ensureRange(srcOffset, length);
+        destination.ensureRange(dstOffset, length);
 
-        for (int i = 0; i < args.size(); i++) {
-            Object arg = computeArgs.get(i);
-            switch (arg) {
-                case Byte val -> pointers[i] = CudaPointer.fromByte(val);
-                case Double val -> pointers[i] = CudaPointer.fromDouble(val);
-                case Float val -> pointers[i] = CudaPointer.fromFloat(val);
-                case Integer val -> pointers[i] = CudaPointer.fromInt(val);
-                case Long val -> pointers[i] = CudaPointer.fromLong(val);
-                case Short val -> pointers[i] = CudaPointer.fromShort(val);
-                case String val -> pointers[i] = CudaPointer.fromString(val);
-                case ComputeBuffer val -> pointers[i] = CudaPointer.fromBuffer((CudaBuffer) val);
-                default -> throw new IllegalStateException("Unexpected value: " + arg);
+        try {
+            int res = (int) CU_MEMCPY_DTOD_ASYNC.invokeExact(
+                destination.nativePointer() + dstOffset,
+                source.nativePointer() + srcOffset,
+                length, handle
+            );
+            if (res != 0) {
+                throw new SiliconException("cuMemcpyDtoDAsync failed: " + CUResult.fromCode(res));
             }
+
+            return new CudaEvent(this);
+        } catch (Throwable e) {
+            throw new SiliconException("copyAsync(ComputeBuffer, long, ComputeBuffer, long, long) failed", e);
+        }
+    }
+
+    @Override
+    public ComputeEvent copyRegionAsync(ComputeBuffer src, RegionLayout srcLayout, ComputeBuffer dst, RegionLayout dstLayout, RegionExtent extent) {
+        ensureAlive();
+
+        CudaBuffer source = checkBuffer(src);
+        CudaBuffer destination = checkBuffer(dst);
+        source.ensureRegion(srcLayout, extent);
+        destination.ensureRegion(dstLayout, extent);
+
+        return memcpy3DAsync(
+            CU_MEMORYTYPE_DEVICE, source.nativePointer(), srcLayout,
+            CU_MEMORYTYPE_DEVICE, destination.nativePointer(), dstLayout,
+            extent
+        );
+    }
+
+    @Override
+    public ComputeEvent writeRegionAsync(ComputeBuffer dst, RegionLayout dstLayout, MemorySegment src, RegionLayout srcLayout, RegionExtent extent) {
+        ensureAlive();
+
+        CudaBuffer buffer = checkBuffer(dst);
+        buffer.ensureRegion(dstLayout, extent);
+        srcLayout.ensureWithin(src.byteSize(), extent);
+        checkNative(src);
+
+        return memcpy3DAsync(
+            CU_MEMORYTYPE_HOST, src.address(), srcLayout,
+            CU_MEMORYTYPE_DEVICE, buffer.nativePointer(), dstLayout,
+            extent
+        );
+    }
+
+    @Override
+    public ComputeEvent readRegionAsync(ComputeBuffer src, RegionLayout srcLayout, MemorySegment dst, RegionLayout dstLayout, RegionExtent extent) {
+        ensureAlive();
+
+        CudaBuffer buffer = checkBuffer(src);
+        buffer.ensureRegion(srcLayout, extent);
+        dstLayout.ensureWithin(dst.byteSize(), extent);
+        checkNative(dst);
+
+        return memcpy3DAsync(
+            CU_MEMORYTYPE_DEVICE, buffer.nativePointer(), srcLayout,
+            CU_MEMORYTYPE_HOST, dst.address(), dstLayout,
+            extent
+        );
+    }
+
+    private ComputeEvent memcpy3DAsync(
+        int srcType, long srcAddress, RegionLayout srcLayout,
+        int dstType, long dstAddress, RegionLayout dstLayout,
+        RegionExtent extent
+    ) {
+        if (extent.isEmpty()) return new CudaEvent(this);
+
+        // the driver copies the descriptor when the call is enqueued
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment copy = CudaRegion.describe(arena, srcType, srcAddress, srcLayout, dstType, dstAddress, dstLayout, extent);
+
+            int res = (int) CU_MEMCPY_3D_ASYNC.invokeExact(copy, handle);
+            if (res != 0) {
+                throw new SiliconException("cuMemcpy3DAsync failed: " + CUResult.fromCode(res));
+            }
+
+            return new CudaEvent(this);
+        } catch (Throwable e) {
+            throw new SiliconException("memcpy3DAsync failed", e);
+        }
+    }
+
+    @Override
+    public ComputeEvent fillAsync(ComputeBuffer dst, byte value, long offset, long length) {
+        ensureAlive();
+
+        CudaBuffer buffer = checkBuffer(dst);
+        buffer.ensureFillRange(offset, length, Byte.BYTES);
+
+        try {
+            int res = (int) CU_MEMSET_D8_ASYNC.invokeExact(buffer.nativePointer() + offset, value, length, handle);
+            if (res != 0) {
+                throw new SiliconException("cuMemsetD8Async failed: " + CUResult.fromCode(res));
+            }
+
+            return new CudaEvent(this);
+        } catch (Throwable e) {
+            throw new SiliconException("fillAsync(ComputeBuffer, byte, long, long) failed", e);
+        }
+    }
+
+    @Override
+    public ComputeEvent fillAsync(ComputeBuffer dst, short value, long offset, long length) {
+        ensureAlive();
+
+        CudaBuffer buffer = checkBuffer(dst);
+        buffer.ensureFillRange(offset, length, Short.BYTES);
+
+        try {
+            int res = (int) CU_MEMSET_D16_ASYNC.invokeExact(buffer.nativePointer() + offset, value, length / Short.BYTES, handle);
+            if (res != 0) {
+                throw new SiliconException("cuMemsetD16Async failed: " + CUResult.fromCode(res));
+            }
+
+            return new CudaEvent(this);
+        } catch (Throwable e) {
+            throw new SiliconException("fillAsync(ComputeBuffer, short, long, long) failed", e);
+        }
+    }
+
+    @Override
+    public ComputeEvent fillAsync(ComputeBuffer dst, int value, long offset, long length) {
+        ensureAlive();
+
+        CudaBuffer buffer = checkBuffer(dst);
+        buffer.ensureFillRange(offset, length, Integer.BYTES);
+
+        try {
+            int res = (int) CU_MEMSET_D32_ASYNC.invokeExact(buffer.nativePointer() + offset, value, length / Integer.BYTES, handle);
+            if (res != 0) {
+                throw new SiliconException("cuMemsetD32Async failed: " + CUResult.fromCode(res));
+            }
+
+            return new CudaEvent(this);
+        } catch (Throwable e) {
+            throw new SiliconException("fillAsync(ComputeBuffer, int, long, long) failed", e);
+        }
+    }
+
+    @Override
+    public ComputeEvent convertAsync(ComputeBuffer src, DataType srcType, ComputeBuffer dst, DataType dstType, long count) {
+        ensureAlive();
+
+        CudaBuffer source = checkBuffer(src);
+        checkBuffer(dst);
+
+        return source.context().conversion().enqueue(this, src, srcType, dst, dstType, count);
+    }
+
+    private static CudaBuffer checkBuffer(ComputeBuffer buffer) {
+        if (!(buffer instanceof CudaBuffer cudaBuffer)) {
+            throw new IllegalArgumentException("Buffer is not a CUDA buffer");
+        }
+
+        cudaBuffer.ensureAlive();
+        return cudaBuffer;
+    }
+
+    private static void checkNative(MemorySegment segment) {
+        if (!segment.isNative()) {
+            throw new IllegalArgumentException("Asynchronous transfers require a native memory segment");
+        }
+    }
+
+    private static MemorySegment getParameters(ComputeArgs args, Arena arena) {
+        int count = args.size();
+        if (count == 0) return MemorySegment.NULL;
+
+        MemorySegment pointers = arena.allocateArray(ValueLayout.ADDRESS, count);
+        MemorySegment values = arena.allocateArray(ValueLayout.JAVA_LONG, count);
+
+        for (int i = 0; i < count; i++) {
+            // primitives are passed as the low bytes of their raw value
+            MemorySegment value = values.asSlice((long) i * Long.BYTES, Long.BYTES);
+
+            switch (args.kind(i)) {
+                case BUFFER -> {
+                    if (!(args.buffer(i) instanceof CudaBuffer buffer)) {
+                        throw new IllegalArgumentException("Argument " + i + " is not a CUDA buffer");
+                    }
+                    value.set(ValueLayout.JAVA_LONG, 0, buffer.nativePointer());
+                }
+                case STRING -> value = arena.allocateUtf8String(args.string(i));
+                case STRUCT -> value = args.struct(i).data();
+                default -> value.set(ValueLayout.JAVA_LONG, 0, args.rawValue(i));
+            }
+
+            pointers.setAtIndex(ValueLayout.ADDRESS, i, value);
         }
 
-        return CudaPointer.from(pointers);
+        return pointers;
     }
 
     @Override
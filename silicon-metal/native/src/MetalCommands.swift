@@ -31,6 +31,18 @@ public func metal_encoder_set_buffer(
     encoder.setBuffer(buffer, offset: 0, index: index)
 }
 
+@_cdecl("metal_encoder_set_buffer_offset")
+public func metal_encoder_set_buffer_offset(
+    encPtr: UnsafeMutableRawPointer,
+    bufPtr: UnsafeMutableRawPointer,
+    offset: Int,
+    index: Int
+) {
+    let encoder: MTLComputeCommandEncoder = pointerToObject(encPtr)
+    let buffer: MTLBuffer = pointerToObject(bufPtr)
+    encoder.setBuffer(buffer, offset: offset, index: index)
+}
+
 @_cdecl("metal_encoder_set_bytes")
 public func metal_encoder_set_bytes(
     encPtr: UnsafeMutableRawPointer,
@@ -2,8 +2,14 @@ package org.silicon.metal.device;
 
 import org.silicon.api.SiliconException;
 import org.silicon.api.device.ComputeBuffer;
+import org.silicon.api.device.RegionExtent;
+import org.silicon.api.device.RegionLayout;
+import org.silicon.api.memory.MemorySource;
 import org.silicon.api.memory.MemoryState;
+import org.silicon.api.memory.MemoryStats;
+import org.silicon.api.memory.Reclaimer;
 import org.silicon.metal.MetalObject;
+import org.silicon.metal.kernel.MetalEncoder;
 
 import java.lang.foreign.FunctionDescriptor;
 import java.lang.foreign.MemorySegment;
@@ -22,13 +28,36 @@ public class MetalBuffer implements MetalObject, ComputeBuffer {
     private final MemorySegment handle;
     private final MetalContext context;
     private final long size;
+    private final MetalBuffer parent;
+    private final long offset;
+    private final Runnable release;
+    private final MemorySource source;
+    private final Reclaimer.Registration registration;
     private MemoryState state;
 
+    /**
+     * Wraps an existing buffer. Wrapped buffers are not counted in the {@link MemoryStats} of the context.
+     */
     public MetalBuffer(MemorySegment handle, MetalContext context, long size) {
+        this(handle, context, size, (MemorySource) null);
+    }
+
+    MetalBuffer(MemorySegment handle, MetalContext context, long size, MemorySource source) {
+        this(handle, context, size, null, 0, null, source);
+    }
+
+    private MetalBuffer(MemorySegment handle, MetalContext context, long size, MetalBuffer parent, long offset, Runnable release, MemorySource source) {
         this.handle = handle;
         this.context = context;
         this.size = size;
+        this.parent = parent;
+        this.offset = offset;
+        this.release = release;
+        this.source = source;
         this.state = MemoryState.ALIVE;
+        this.registration = Reclaimer.register(this, parent == null
+            ? reclaim(handle, context.memoryStats(), source, size)
+            : release);
     }
 
     @Override
@@ -42,14 +71,16 @@ public class MetalBuffer implements MetalObject, ComputeBuffer {
 
     @Override
     public MetalBuffer copyInto(ComputeBuffer other) {
-        if (state != MemoryState.ALIVE) {
-            throw new IllegalStateException("Buffer is not ALIVE! Current buffer state: " + state);
-        }
+        ensureAlive();
+        ensureOther(other);
 
         if (!(other instanceof MetalBuffer dst)) {
             throw new IllegalArgumentException("Both buffers must be Metal buffers");
         }
 
+        dst.ensureRange(0, size);
+        if (size == 0) return dst;
+
         MemorySegment srcSeg = getContents().reinterpret(size);
         MemorySegment dstSeg = dst.getContents().reinterpret(size);
 
@@ -59,139 +90,159 @@ public class MetalBuffer implements MetalObject, ComputeBuffer {
     }
     
     @Override
-    public long size() {
-        return size;
+    public void fill(byte value, long offset, long length) {
+        ensureAlive();
+        ensureFillRange(offset, length, Byte.BYTES);
+
+        getContents().reinterpret(size).asSlice(offset, length).fill(value);
     }
-    
+
     @Override
-    public MemoryState state() {
-        return state;
+    public void fill(short value, long offset, long length) {
+        ensureAlive();
+        ensureFillRange(offset, length, Short.BYTES);
+
+        MemorySegment region = getContents().reinterpret(size).asSlice(offset, length);
+
+        for (long i = 0; i < length; i += Short.BYTES) {
+            region.set(ValueLayout.JAVA_SHORT_UNALIGNED, i, value);
+        }
     }
 
     @Override
-    public void free() {
-        if (!isAlive()) return;
+    public void fill(int value, long offset, long length) {
+        ensureAlive();
+        ensureFillRange(offset, length, Integer.BYTES);
 
-        try {
-            METAL_RELEASE_OBJECT.invokeExact(handle);
-            state = MemoryState.FREE;
-        } catch (Throwable t) {
-            throw new SiliconException("free() failed", t);
+        MemorySegment region = getContents().reinterpret(size).asSlice(offset, length);
+
+        for (long i = 0; i < length; i += Integer.BYTES) {
+            region.set(ValueLayout.JAVA_INT_UNALIGNED, i, value);
         }
     }
 
     @Override
-    public byte[] get(byte[] data) {
-        long bytes = data.length;
-        checkData(bytes);
-        get(MemorySegment.ofArray(data), bytes);
-        return data;
+    public void copyRegionInto(ComputeBuffer dst, RegionLayout srcLayout, RegionLayout dstLayout, RegionExtent extent) {
+        ensureAlive();
+        ensureOther(dst);
+
+        if (!(dst instanceof MetalBuffer buffer)) {
+            throw new IllegalArgumentException("Both buffers must be Metal buffers");
+        }
+
+        RegionLayout.copy(
+            getContents().reinterpret(size), srcLayout,
+            buffer.getContents().reinterpret(buffer.size), dstLayout,
+            extent
+        );
     }
 
     @Override
-    public double[] get(double[] data) {
-        long bytes = data.length * 8L;
-        checkData(bytes);
-        get(MemorySegment.ofArray(data), bytes);
-        return data;
+    public void writeRegion(MemorySegment src, RegionLayout srcLayout, RegionLayout dstLayout, RegionExtent extent) {
+        ensureAlive();
+        RegionLayout.copy(src, srcLayout, getContents().reinterpret(size), dstLayout, extent);
     }
 
     @Override
-    public float[] get(float[] data) {
-        long bytes = data.length * 4L;
-        checkData(bytes);
-        get(MemorySegment.ofArray(data), bytes);
-        return data;
+    public void readRegion(MemorySegment dst, RegionLayout srcLayout, RegionLayout dstLayout, RegionExtent extent) {
+        ensureAlive();
+        RegionLayout.copy(getContents().reinterpret(size), srcLayout, dst, dstLayout, extent);
     }
 
+    /**
+     * Metal buffers use shared storage, so buffers of any Metal context are copied in place.
+     */
     @Override
-    public long[] get(long[] data) {
-        long bytes = data.length * 8L;
-        checkData(bytes);
-        get(MemorySegment.ofArray(data), bytes);
-        return data;
+    public ComputeBuffer copyTo(ComputeBuffer other) {
+        ensureAlive();
+        ensureOther(other);
+        other.ensureRange(0, size);
+
+        if (other instanceof MetalBuffer) return copyInto(other);
+        return ComputeBuffer.super.copyTo(other);
     }
 
     @Override
-    public int[] get(int[] data) {
-        long bytes = data.length * 4L;
-        checkData(bytes);
-        get(MemorySegment.ofArray(data), bytes);
-        return data;
+    public MetalBuffer slice(long offset, long length, Runnable release) {
+        ensureAlive();
+        ensureRange(offset, length);
+
+        if (length == 0) throw new IllegalArgumentException("Slice length must be positive");
+        if (this.offset + offset != 0 && !MetalEncoder.supportsBufferOffsets()) {
+            throw new UnsupportedOperationException(
+                "Metal views at a non-zero offset need natives exporting metal_encoder_set_buffer_offset, rebuild them with silicon-metal/native/build.sh"
+            );
+        }
+
+        MetalBuffer root = parent != null ? parent : this;
+        return new MetalBuffer(handle, context, length, root, this.offset + offset, release, null);
     }
 
     @Override
-    public short[] get(short[] data) {
-        long bytes = data.length * 2L;
-        checkData(bytes);
-        get(MemorySegment.ofArray(data), bytes);
-        return data;
+    public long size() {
+        return size;
     }
     
     @Override
-    public void write(byte[] data) {
-        long bytes = data.length;
-        checkData(bytes);
-        set(MemorySegment.ofArray(data), bytes);
+    public MemoryState state() {
+        if (parent != null && !parent.isAlive()) return MemoryState.FREE;
+        return state;
     }
 
     @Override
-    public void write(double[] data) {
-        long bytes = data.length * 8L;
-        checkData(bytes);
-        set(MemorySegment.ofArray(data), bytes);
-    }
+    public void free() {
+        if (!isAlive()) return;
+        registration.disarm();
 
-    @Override
-    public void write(float[] data) {
-        long bytes = data.length * 4L;
-        checkData(bytes);
-        set(MemorySegment.ofArray(data), bytes);
-    }
+        if (parent != null) {
+            state = MemoryState.FREE;
+            if (release != null) release.run();
+            return;
+        }
 
-    @Override
-    public void write(long[] data) {
-        long bytes = data.length * 8L;
-        checkData(bytes);
-        set(MemorySegment.ofArray(data), bytes);
+        try {
+            METAL_RELEASE_OBJECT.invokeExact(handle);
+            state = MemoryState.FREE;
+            if (source != null) context.memoryStats().released(source, size);
+        } catch (Throwable t) {
+            throw new SiliconException("free() failed", t);
+        }
     }
 
-    @Override
-    public void write(int[] data) {
-        long bytes = data.length * 4L;
-        checkData(bytes);
-        set(MemorySegment.ofArray(data), bytes);
+    private static Runnable reclaim(MemorySegment handle, MemoryStats stats, MemorySource source, long size) {
+        return () -> {
+            try {
+                METAL_RELEASE_OBJECT.invokeExact(handle);
+                if (source != null) stats.released(source, size);
+            } catch (Throwable t) {
+                throw new SiliconException("reclaim() failed", t);
+            }
+        };
     }
 
     @Override
-    public void write(short[] data) {
-        long bytes = data.length * 2L;
-        checkData(bytes);
-        set(MemorySegment.ofArray(data), bytes);
-    }
-
-    private void checkData(long bytes) {
+    public MemorySegment get(long offset, MemorySegment data) {
+        long bytes = data.byteSize();
         ensureAlive();
+        ensureRange(offset, bytes);
 
-        if (bytes > size) {
-            throw new IllegalArgumentException("Destination array too large");
-        }
-    }
-
-    private void get(MemorySegment dst, long bytes) {
         MemorySegment src = getContents().reinterpret(size);
-        MemorySegment.copy(src, 0, dst, 0, bytes);
+        MemorySegment.copy(src, offset, data, 0, bytes);
+        return data;
     }
-    
-    private void set(MemorySegment src, long bytes) {
+
+    @Override
+    public void write(long offset, MemorySegment data) {
+        long bytes = data.byteSize();
+        ensureAlive();
+        ensureRange(offset, bytes);
+
         MemorySegment dst = getContents().reinterpret(size);
-        MemorySegment.copy(src, 0, dst, 0, bytes);
+        MemorySegment.copy(data, 0, dst, offset, bytes);
     }
 
     public ByteBuffer asByteBuffer() {
-        if (state != MemoryState.ALIVE) {
-            throw new IllegalStateException("Buffer is not ALIVE! Current buffer state: " + state);
-        }
+        ensureAlive();
 
         return getContents()
             .reinterpret(size)
@@ -204,13 +255,26 @@ public class MetalBuffer implements MetalObject, ComputeBuffer {
         return handle;
     }
 
+    @Override
     public MetalContext context() {
         return context;
     }
     
+    /**
+     * @return byte offset of this buffer into the underlying Metal buffer, non-zero for views
+     */
+    public long offset() {
+        return offset;
+    }
+
+    public boolean isView() {
+        return parent != null;
+    }
+    
     public MemorySegment getContents() {
         try {
-            return (MemorySegment) METAL_BUFFER_CONTENTS.invokeExact(handle());
+            MemorySegment contents = (MemorySegment) METAL_BUFFER_CONTENTS.invokeExact(handle());
+            return offset == 0 ? contents : MemorySegment.ofAddress(contents.address() + offset);
         } catch (Throwable e) {
             throw new SiliconException("getContents() failed", e);
         }
@@ -1,10 +1,14 @@
 package org.silicon.metal.device;
 
+import org.silicon.api.OutOfDeviceMemoryException;
 import org.silicon.api.SiliconException;
 import org.silicon.api.backend.BackendType;
 import org.silicon.api.device.ComputeArena;
 import org.silicon.api.device.ComputeBuffer;
 import org.silicon.api.device.ComputeContext;
+import org.silicon.api.kernel.DeviceConversion;
+import org.silicon.api.memory.MemorySource;
+import org.silicon.api.memory.MemoryStats;
 import org.silicon.metal.MetalObject;
 import org.silicon.metal.function.MetalLibrary;
 import org.silicon.metal.kernel.MetalCommandQueue;
@@ -18,7 +22,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
-public record MetalContext(MetalDevice device) implements MetalObject, ComputeContext {
+public final class MetalContext implements MetalObject, ComputeContext {
 
     public static final MethodHandle METAL_NEW_BUFFER = MetalObject.find(
         "metal_new_buffer",
@@ -37,6 +41,30 @@ public record MetalContext(MetalDevice device) implements MetalObject, ComputeCo
             ValueLayout.ADDRESS,                    // device (MTLDevice*)
             ValueLayout.ADDRESS)                    // kernel source (char*)
     );
+
+    private final MetalDevice device;
+    private final MemoryStats memoryStats = new MemoryStats();
+    private final DeviceConversion conversion = new DeviceConversion(this, "/org/silicon/metal/convert.metal");
+
+    public MetalContext(MetalDevice device) {
+        this.device = device;
+    }
+
+    public MetalDevice device() {
+        return device;
+    }
+
+    /**
+     * @return the built-in conversion kernels of this context
+     */
+    public DeviceConversion conversion() {
+        return conversion;
+    }
+
+    @Override
+    public MemoryStats memoryStats() {
+        return memoryStats;
+    }
     
     @Override
     public BackendType backendType() {
@@ -97,14 +125,21 @@ public record MetalContext(MetalDevice device) implements MetalObject, ComputeCo
 
     @Override
     public MetalBuffer allocateBytes(long size) {
+        return memoryStats.allocate(MemorySource.DEVICE, size, () -> allocate(size));
+    }
+
+    private MetalBuffer allocate(long size) {
         try {
             MemorySegment ptr = (MemorySegment) METAL_NEW_BUFFER.invokeExact(device.handle(), size);
             
+            // newBufferWithLength returns nil when the device cannot back the allocation
             if (ptr == null || ptr.address() == 0) {
-                throw new SiliconException("metalMakeBuffer failed");
+                throw new OutOfDeviceMemoryException("metalMakeBuffer failed");
             }
             
-            return new MetalBuffer(ptr, this, size);
+            return new MetalBuffer(ptr, this, size, MemorySource.DEVICE);
+        } catch (OutOfDeviceMemoryException e) {
+            throw e;
         } catch (Throwable e) {
             throw new SiliconException("allocateBytes(long) failed", e);
         }
@@ -165,4 +200,11 @@ public record MetalContext(MetalDevice device) implements MetalObject, ComputeCo
 
         return buffer;
     }
+
+    @Override
+    public String toString() {
+        return "MetalContext{" +
+            "device=" + device +
+            '}';
+    }
 }
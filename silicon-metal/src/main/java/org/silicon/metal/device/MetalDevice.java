@@ -70,7 +70,8 @@ public record MetalDevice(MemorySegment handle) implements MetalObject, ComputeD
     public boolean supports(DeviceFeature feature) {
         return switch (feature) {
             case FP16 -> true;
-            case FP64 -> false;
+            // not queryable through the native library, reported conservatively
+            case FP64, BF16, FP8, INT8 -> false;
         };
     }
 }
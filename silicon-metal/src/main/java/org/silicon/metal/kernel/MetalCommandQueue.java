@@ -1,7 +1,11 @@
 package org.silicon.metal.kernel;
 
+import org.silicon.api.DataType;
 import org.silicon.api.SiliconException;
 import org.silicon.api.device.ComputeArena;
+import org.silicon.api.device.ComputeBuffer;
+import org.silicon.api.device.RegionExtent;
+import org.silicon.api.device.RegionLayout;
 import org.silicon.api.function.ComputeFunction;
 import org.silicon.api.kernel.ComputeArgs;
 import org.silicon.api.kernel.ComputeEvent;
@@ -85,6 +89,137 @@ public final class MetalCommandQueue implements MetalObject, ComputeQueue, Freea
         return commandBuffer;
     }
 
+    /**
+     * Metal buffers live in shared storage, so host transfers are plain memory copies.
+     * They are kept in queue order by draining the pending command buffers first.
+     */
+    @Override
+    public ComputeEvent writeAsync(ComputeBuffer dst, long offset, MemorySegment src) {
+        MetalBuffer buffer = checkBuffer(dst);
+        checkNative(src);
+
+        await();
+        buffer.write(offset, src);
+
+        return ComputeEvent.completed();
+    }
+
+    @Override
+    public ComputeEvent readAsync(ComputeBuffer src, long offset, MemorySegment dst) {
+        MetalBuffer buffer = checkBuffer(src);
+        checkNative(dst);
+
+        await();
+        buffer.get(offset, dst);
+
+        return ComputeEvent.completed();
+    }
+
+    @Override
+    public ComputeEvent copyAsync(ComputeBuffer src, long srcOffset, ComputeBuffer dst, long dstOffset, long length) {
+        MetalBuffer source = checkBuffer(src);
+        MetalBuffer destination = checkBuffer(dst);
+        source.ensureRange(srcOffset, length);
+        destination.ensureRange(dstOffset, length);
+
+        await();
+        MemorySegment.copy(
+            source.getContents().reinterpret(source.size()), srcOffset,
+            destination.getContents().reinterpret(destination.size()), dstOffset,
+            length
+        );
+
+        return ComputeEvent.completed();
+    }
+
+    @Override
+    public ComputeEvent copyRegionAsync(ComputeBuffer src, RegionLayout srcLayout, ComputeBuffer dst, RegionLayout dstLayout, RegionExtent extent) {
+        MetalBuffer source = checkBuffer(src);
+        MetalBuffer destination = checkBuffer(dst);
+
+        await();
+        source.copyRegionInto(destination, srcLayout, dstLayout, extent);
+
+        return ComputeEvent.completed();
+    }
+
+    @Override
+    public ComputeEvent writeRegionAsync(ComputeBuffer dst, RegionLayout dstLayout, MemorySegment src, RegionLayout srcLayout, RegionExtent extent) {
+        MetalBuffer buffer = checkBuffer(dst);
+        checkNative(src);
+
+        await();
+        buffer.writeRegion(src, srcLayout, dstLayout, extent);
+
+        return ComputeEvent.completed();
+    }
+
+    @Override
+    public ComputeEvent readRegionAsync(ComputeBuffer src, RegionLayout srcLayout, MemorySegment dst, RegionLayout dstLayout, RegionExtent extent) {
+        MetalBuffer buffer = checkBuffer(src);
+        checkNative(dst);
+
+        await();
+        buffer.readRegion(dst, srcLayout, dstLayout, extent);
+
+        return ComputeEvent.completed();
+    }
+
+    @Override
+    public ComputeEvent fillAsync(ComputeBuffer dst, byte value, long offset, long length) {
+        MetalBuffer buffer = checkBuffer(dst);
+
+        await();
+        buffer.fill(value, offset, length);
+
+        return ComputeEvent.completed();
+    }
+
+    @Override
+    public ComputeEvent fillAsync(ComputeBuffer dst, short value, long offset, long length) {
+        MetalBuffer buffer = checkBuffer(dst);
+
+        await();
+        buffer.fill(value, offset, length);
+
+        return ComputeEvent.completed();
+    }
+
+    @Override
+    public ComputeEvent fillAsync(ComputeBuffer dst, int value, long offset, long length) {
+        MetalBuffer buffer = checkBuffer(dst);
+
+        await();
+        buffer.fill(value, offset, length);
+
+        return ComputeEvent.completed();
+    }
+
+    @Override
+    public ComputeEvent convertAsync(ComputeBuffer src, DataType srcType, ComputeBuffer dst, DataType dstType, long count) {
+        ensureAlive();
+
+        MetalBuffer source = checkBuffer(src);
+        checkBuffer(dst);
+
+        return source.context().conversion().enqueue(this, src, srcType, dst, dstType, count);
+    }
+
+    private static MetalBuffer checkBuffer(ComputeBuffer buffer) {
+        if (!(buffer instanceof MetalBuffer metalBuffer)) {
+            throw new IllegalArgumentException("Buffer is not a Metal buffer");
+        }
+
+        metalBuffer.ensureAlive();
+        return metalBuffer;
+    }
+
+    private static void checkNative(MemorySegment segment) {
+        if (!segment.isNative()) {
+            throw new IllegalArgumentException("Asynchronous transfers require a native memory segment");
+        }
+    }
+
     @Override
     public void await() {
         if (state != MemoryState.ALIVE) {
@@ -103,17 +238,22 @@ public final class MetalCommandQueue implements MetalObject, ComputeQueue, Freea
     }
 
     private static void setArgs(ComputeArgs args, MetalEncoder encoder) {
-        List<Object> argList = args.args();
-
         for (int i = 0; i < args.size(); i++) {
-            switch (argList.get(i)) {
-                case Double x -> encoder.setDouble(x, i);
-                case Float x -> encoder.setFloat(x, i);
-                case Long x -> encoder.setLong(x, i);
-                case Integer x -> encoder.setInt(x, i);
-                case Short x -> encoder.setShort(x, i);
-                case MetalBuffer x -> encoder.setBuffer(x, i);
-                default -> throw new IllegalStateException("Unexpected value: " + argList.get(i));
+            ComputeArgs.Kind kind = args.kind(i);
+
+            switch (kind) {
+                case BUFFER -> {
+                    if (!(args.buffer(i) instanceof MetalBuffer buffer)) {
+                        throw new IllegalArgumentException("Argument " + i + " is not a Metal buffer");
+                    }
+                    encoder.setBuffer(buffer, i);
+                }
+                case STRUCT -> {
+                    MemorySegment data = args.struct(i).data();
+                    encoder.setBytesRaw(data, data.byteSize(), i);
+                }
+                case STRING -> throw new IllegalStateException("String arguments are not supported by Metal");
+                default -> encoder.setValue(args.rawValue(i), kind.byteSize(), i);
             }
         }
     }
@@ -1,6 +1,7 @@
 package org.silicon.metal.kernel;
 
 import org.silicon.api.SiliconException;
+import org.silicon.metal.Metal;
 import org.silicon.metal.MetalObject;
 import org.silicon.metal.device.MetalBuffer;
 
@@ -41,13 +42,46 @@ public final class MetalEncoder implements MetalObject, AutoCloseable {
 
     private final MemorySegment handle;
     private final Arena arena = Arena.ofConfined();
+    private MemorySegment scratch;
+
+    /**
+     * Resolved on first use, so natives built before buffer views existed still load.
+     */
+    private static final class Views {
+        static final boolean SUPPORTED = Metal.LOOKUP.find("metal_encoder_set_buffer_offset").isPresent();
+        static final MethodHandle METAL_ENCODER_SET_BUFFER_OFFSET = SUPPORTED ? MetalObject.find(
+            "metal_encoder_set_buffer_offset",
+            FunctionDescriptor.ofVoid(
+                ValueLayout.ADDRESS, // encoder
+                ValueLayout.ADDRESS, // buffer pointer
+                ValueLayout.JAVA_LONG, // offset
+                ValueLayout.JAVA_LONG // index
+            )
+        ) : null;
+    }
 
     public MetalEncoder(MemorySegment handle) {
         this.handle = handle;
     }
 
+    /**
+     * Checks whether the loaded natives can bind a buffer at an offset.
+     * <p>
+     * Natives built before buffer views existed lack {@code metal_encoder_set_buffer_offset},
+     * views starting past the beginning of their buffer cannot be dispatched with them.
+     * @return whether views at a non-zero offset can be bound
+     */
+    public static boolean supportsBufferOffsets() {
+        return Views.SUPPORTED;
+    }
+
     public void setBuffer(MetalBuffer buf, int index) {
         try {
+            if (buf.offset() != 0) {
+                Views.METAL_ENCODER_SET_BUFFER_OFFSET.invokeExact(handle, buf.handle(), buf.offset(), (long) index);
+                return;
+            }
+
             METAL_ENCODER_SET_BUFFER.invokeExact(handle, buf.handle(), index);
         } catch (Throwable e) {
             throw new SiliconException("setBuffer(MetalBuffer, int) failed", e);
@@ -114,6 +148,18 @@ public final class MetalEncoder implements MetalObject, AutoCloseable {
         setBytesRaw(seg, ValueLayout.JAVA_SHORT.byteSize(), index);
     }
 
+    /**
+     * Sets a primitive argument from the low bytes of its raw value.
+     * <p>
+     * Metal copies the bytes when they are set, so every value goes through the same scratch slot.
+     */
+    public void setValue(long rawValue, int byteSize, int index) {
+        if (scratch == null) scratch = arena.allocate(ValueLayout.JAVA_LONG);
+
+        scratch.set(ValueLayout.JAVA_LONG, 0, rawValue);
+        setBytesRaw(scratch, byteSize, index);
+    }
+
     public void setStruct(MemoryLayout layout, Consumer<MemorySegment> writer, int index) {
         MemorySegment seg = arena.allocate(layout);
         writer.accept(seg);
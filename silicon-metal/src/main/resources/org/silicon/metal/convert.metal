@@ -0,0 +1,62 @@
+// Built-in element type conversions, see org.silicon.api.kernel.DeviceConversion.
+
+#include <metal_stdlib>
+using namespace metal;
+
+inline float load_f32(device const uchar *src, uint i) {
+    return ((device const float *) src)[i];
+}
+
+inline float load_f16(device const uchar *src, uint i) {
+    return float(((device const half *) src)[i]);
+}
+
+inline float load_bf16(device const uchar *src, uint i) {
+    return as_type<float>(uint(((device const ushort *) src)[i]) << 16);
+}
+
+inline float load_i8(device const uchar *src, uint i) {
+    return float(((device const char *) src)[i]);
+}
+
+inline void store_f32(device uchar *dst, uint i, float value) {
+    ((device float *) dst)[i] = value;
+}
+
+inline void store_f16(device uchar *dst, uint i, float value) {
+    ((device half *) dst)[i] = half(value);
+}
+
+inline void store_bf16(device uchar *dst, uint i, float value) {
+    uint bits = as_type<uint>(value);
+    // round to nearest even, NaN keeps its sign and stays quiet
+    uint rounded = isnan(value) ? (bits >> 16) | 0x40 : (bits + 0x7FFF + ((bits >> 16) & 1)) >> 16;
+
+    ((device ushort *) dst)[i] = ushort(rounded);
+}
+
+inline void store_i8(device uchar *dst, uint i, float value) {
+    ((device char *) dst)[i] = isnan(value) ? 0 : char(clamp(rint(value), -128.0f, 127.0f));
+}
+
+#define CONVERT(S, D) \
+kernel void convert_##S##_##D( \
+    device const uchar *src [[buffer(0)]], \
+    device uchar *dst [[buffer(1)]], \
+    constant int &count [[buffer(2)]], \
+    uint i [[thread_position_in_grid]]) { \
+    if (int(i) < count) store_##D(dst, i, load_##S(src, i)); \
+}
+
+CONVERT(f32, f16)
+CONVERT(f32, bf16)
+CONVERT(f32, i8)
+CONVERT(f16, f32)
+CONVERT(f16, bf16)
+CONVERT(f16, i8)
+CONVERT(bf16, f32)
+CONVERT(bf16, f16)
+CONVERT(bf16, i8)
+CONVERT(i8, f32)
+CONVERT(i8, f16)
+CONVERT(i8, bf16)
@@ -2,8 +2,16 @@ package org.silicon.opencl.computing;
 
 import org.lwjgl.PointerBuffer;
 import org.lwjgl.opencl.CL10;
+import org.lwjgl.opencl.CL11;
+import org.lwjgl.opencl.CL12;
 import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+import org.lwjgl.system.Pointer;
+import org.silicon.api.DataType;
 import org.silicon.api.SiliconException;
+import org.silicon.api.device.ComputeBuffer;
+import org.silicon.api.device.RegionExtent;
+import org.silicon.api.device.RegionLayout;
 import org.silicon.api.function.ComputeFunction;
 import org.silicon.api.kernel.ComputeArgs;
 import org.silicon.api.kernel.ComputeEvent;
@@ -13,7 +21,7 @@ import org.silicon.api.memory.MemoryState;
 import org.silicon.opencl.device.CLBuffer;
 import org.silicon.opencl.kernel.CLKernel;
 
-import java.util.List;
+import java.lang.foreign.MemorySegment;
 import java.util.Objects;
 
 public final class CLCommandQueue implements ComputeQueue {
@@ -121,6 +129,215 @@ public final class CLCommandQueue implements ComputeQueue {
         }
     }
 
+    @Override
+    public ComputeEvent writeAsync(ComputeBuffer dst, long offset, MemorySegment src) {
+        ensureAlive();
+
+        CLBuffer buffer = checkBuffer(dst);
+        buffer.ensureRange(offset, src.byteSize());
+        checkNative(src);
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            PointerBuffer eventPtr = stack.mallocPointer(1);
+            if (src.byteSize() == 0) return marker(eventPtr);
+
+            int err = CL10.nclEnqueueWriteBuffer(
+                handle, buffer.getHandle(), CL10.CL_FALSE, offset, src.byteSize(),
+                src.address(), 0, 0L, eventPtr.address()
+            );
+            if (err != CL10.CL_SUCCESS) throw new SiliconException("clEnqueueWriteBuffer failed: " + err);
+
+            return new CLEvent(eventPtr.get(0));
+        }
+    }
+
+    @Override
+    public ComputeEvent readAsync(ComputeBuffer src, long offset, MemorySegment dst) {
+        ensureAlive();
+
+        CLBuffer buffer = checkBuffer(src);
+        buffer.ensureRange(offset, dst.byteSize());
+        checkNative(dst);
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            PointerBuffer eventPtr = stack.mallocPointer(1);
+            if (dst.byteSize() == 0) return marker(eventPtr);
+
+            int err = CL10.nclEnqueueReadBuffer(
+                handle, buffer.getHandle(), CL10.CL_FALSE, offset, dst.byteSize(),
+                dst.address(), 0, 0L, eventPtr.address()
+            );
+            if (err != CL10.CL_SUCCESS) throw new SiliconException("clEnqueueReadBuffer failed: " + err);
+
+            return new CLEvent(eventPtr.get(0));
+        }
+    }
+
+    @Override
+    public ComputeEvent copyAsync(ComputeBuffer src, long srcOffset, ComputeBuffer dst, long dstOffset, long length) {
+        ensureAlive();
+
+        CLBuffer source = checkBuffer(src);
+        CLBuffer destination = checkBuffer(dst);
+        source.ensureRange(srcOffset, length);
+        destination.ensureRange(dstOffset, length);
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            PointerBuffer eventPtr = stack.mallocPointer(1);
+            if (length == 0) return marker(eventPtr);
+
+            int err = CL10.nclEnqueueCopyBuffer(
+                handle, source.getHandle(), destination.getHandle(),
+                srcOffset, dstOffset, length, 0, 0L, eventPtr.address()
+            );
+            if (err != CL10.CL_SUCCESS) throw new SiliconException("clEnqueueCopyBuffer failed: " + err);
+
+            return new CLEvent(eventPtr.get(0));
+        }
+    }
+
+    @Override
+    public ComputeEvent copyRegionAsync(ComputeBuffer src, RegionLayout srcLayout, ComputeBuffer dst, RegionLayout dstLayout, RegionExtent extent) {
+        ensureAlive();
+
+        CLBuffer source = checkBuffer(src);
+        CLBuffer destination = checkBuffer(dst);
+        source.ensureRegion(srcLayout, extent);
+        destination.ensureRegion(dstLayout, extent);
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            PointerBuffer eventPtr = stack.mallocPointer(1);
+            if (extent.isEmpty()) return marker(eventPtr);
+
+            int err = CL11.nclEnqueueCopyBufferRect(
+                handle, source.getHandle(), destination.getHandle(),
+                CLBuffer.origin(stack, srcLayout), CLBuffer.origin(stack, dstLayout), CLBuffer.region(stack, extent),
+                srcLayout.rowPitch(), srcLayout.slicePitch(), dstLayout.rowPitch(), dstLayout.slicePitch(),
+                0, 0L, eventPtr.address()
+            );
+            if (err != CL10.CL_SUCCESS) throw new SiliconException("clEnqueueCopyBufferRect failed: " + err);
+
+            return new CLEvent(eventPtr.get(0));
+        }
+    }
+
+    @Override
+    public ComputeEvent writeRegionAsync(ComputeBuffer dst, RegionLayout dstLayout, MemorySegment src, RegionLayout srcLayout, RegionExtent extent) {
+        ensureAlive();
+
+        CLBuffer buffer = checkBuffer(dst);
+        buffer.ensureRegion(dstLayout, extent);
+        srcLayout.ensureWithin(src.byteSize(), extent);
+        checkNative(src);
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            PointerBuffer eventPtr = stack.mallocPointer(1);
+            if (extent.isEmpty()) return marker(eventPtr);
+
+            int err = CL11.nclEnqueueWriteBufferRect(
+                handle, buffer.getHandle(), CL10.CL_FALSE,
+                CLBuffer.origin(stack, dstLayout), CLBuffer.origin(stack, srcLayout), CLBuffer.region(stack, extent),
+                dstLayout.rowPitch(), dstLayout.slicePitch(), srcLayout.rowPitch(), srcLayout.slicePitch(),
+                src.address(), 0, 0L, eventPtr.address()
+            );
+            if (err != CL10.CL_SUCCESS) throw new SiliconException("clEnqueueWriteBufferRect failed: " + err);
+
+            return new CLEvent(eventPtr.get(0));
+        }
+    }
+
+    @Override
+    public ComputeEvent readRegionAsync(ComputeBuffer src, RegionLayout srcLayout, MemorySegment dst, RegionLayout dstLayout, RegionExtent extent) {
+        ensureAlive();
+
+        CLBuffer buffer = checkBuffer(src);
+        buffer.ensureRegion(srcLayout, extent);
+        dstLayout.ensureWithin(dst.byteSize(), extent);
+        checkNative(dst);
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            PointerBuffer eventPtr = stack.mallocPointer(1);
+            if (extent.isEmpty()) return marker(eventPtr);
+
+            int err = CL11.nclEnqueueReadBufferRect(
+                handle, buffer.getHandle(), CL10.CL_FALSE,
+                CLBuffer.origin(stack, srcLayout), CLBuffer.origin(stack, dstLayout), CLBuffer.region(stack, extent),
+                srcLayout.rowPitch(), srcLayout.slicePitch(), dstLayout.rowPitch(), dstLayout.slicePitch(),
+                dst.address(), 0, 0L, eventPtr.address()
+            );
+            if (err != CL10.CL_SUCCESS) throw new SiliconException("clEnqueueReadBufferRect failed: " + err);
+
+            return new CLEvent(eventPtr.get(0));
+        }
+    }
+
+    @Override
+    public ComputeEvent fillAsync(ComputeBuffer dst, byte value, long offset, long length) {
+        return fillAsync(dst, value, Byte.BYTES, offset, length);
+    }
+
+    @Override
+    public ComputeEvent fillAsync(ComputeBuffer dst, short value, long offset, long length) {
+        return fillAsync(dst, value, Short.BYTES, offset, length);
+    }
+
+    @Override
+    public ComputeEvent fillAsync(ComputeBuffer dst, int value, long offset, long length) {
+        return fillAsync(dst, value, Integer.BYTES, offset, length);
+    }
+
+    private ComputeEvent fillAsync(ComputeBuffer dst, int pattern, int width, long offset, long length) {
+        ensureAlive();
+
+        CLBuffer buffer = checkBuffer(dst);
+        buffer.ensureFillRange(offset, length, width);
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            PointerBuffer eventPtr = stack.mallocPointer(1);
+            if (length == 0) return marker(eventPtr);
+
+            int err = CL12.nclEnqueueFillBuffer(
+                handle, buffer.getHandle(), CLBuffer.pattern(stack, pattern, width), width,
+                offset, length, 0, 0L, eventPtr.address()
+            );
+            if (err != CL10.CL_SUCCESS) throw new SiliconException("clEnqueueFillBuffer failed: " + err);
+
+            return new CLEvent(eventPtr.get(0));
+        }
+    }
+
+    @Override
+    public ComputeEvent convertAsync(ComputeBuffer src, DataType srcType, ComputeBuffer dst, DataType dstType, long count) {
+        ensureAlive();
+
+        CLBuffer source = checkBuffer(src);
+        checkBuffer(dst);
+
+        return source.context().conversion().enqueue(this, src, srcType, dst, dstType, count);
+    }
+
+    private CLEvent marker(PointerBuffer eventPtr) {
+        int err = CL10.clEnqueueMarker(handle, eventPtr);
+        if (err != CL10.CL_SUCCESS) throw new SiliconException("clEnqueueMarker failed: " + err);
+
+        return new CLEvent(eventPtr.get(0));
+    }
+
+    private static CLBuffer checkBuffer(ComputeBuffer buffer) {
+        if (!(buffer instanceof CLBuffer clBuffer)) {
+            throw new IllegalArgumentException("Buffer is not an OpenCL buffer");
+        }
+
+        clBuffer.ensureAlive();
+        return clBuffer;
+    }
+
+    private static void checkNative(MemorySegment segment) {
+        if (!segment.isNative()) {
+            throw new IllegalArgumentException("Asynchronous transfers require a native memory segment");
+        }
+    }
+
     @Override
     public void await() {
         ensureAlive();
@@ -144,20 +361,34 @@ public final class CLCommandQueue implements ComputeQueue {
     }
 
     private static void setArgs(ComputeArgs args, long kernelHandle, MemoryStack stack) {
-        List<Object> computeArgs = args.args();
+        // one slot per argument, primitives are passed as the low bytes of their raw value
+        long slots = stack.nmalloc(Long.BYTES, args.size() * Long.BYTES);
+
         for (int i = 0; i < args.size(); i++) {
-            Object arg = computeArgs.get(i);
-            switch (arg) {
-                case Byte val -> CL10.clSetKernelArg(kernelHandle, i, stack.bytes(val));
-                case Double val -> CL10.clSetKernelArg(kernelHandle, i, stack.doubles(val));
-                case Float val -> CL10.clSetKernelArg(kernelHandle, i, stack.floats(val));
-                case Integer val -> CL10.clSetKernelArg(kernelHandle, i, stack.ints(val));
-                case Long val -> CL10.clSetKernelArg(kernelHandle, i, stack.longs(val));
-                case Short val -> CL10.clSetKernelArg(kernelHandle, i, stack.shorts(val));
-                case String val -> CL10.clSetKernelArg(kernelHandle, i, stack.ASCII(val));
-                case CLBuffer val -> CL10.clSetKernelArg(kernelHandle, i, stack.pointers(val.getHandle()));
-                default -> throw new IllegalStateException("Unexpected value: " + arg);
+            ComputeArgs.Kind kind = args.kind(i);
+            long slot = slots + (long) i * Long.BYTES;
+            int err;
+
+            switch (kind) {
+                case BUFFER -> {
+                    if (!(args.buffer(i) instanceof CLBuffer buffer)) {
+                        throw new IllegalArgumentException("Argument " + i + " is not an OpenCL buffer");
+                    }
+                    MemoryUtil.memPutAddress(slot, buffer.getHandle());
+                    err = CL10.nclSetKernelArg(kernelHandle, i, Pointer.POINTER_SIZE, slot);
+                }
+                case STRING -> err = CL10.clSetKernelArg(kernelHandle, i, stack.ASCII(args.string(i)));
+                case STRUCT -> {
+                    MemorySegment data = args.struct(i).data();
+                    err = CL10.nclSetKernelArg(kernelHandle, i, data.byteSize(), data.address());
+                }
+                default -> {
+                    MemoryUtil.memPutLong(slot, args.rawValue(i));
+                    err = CL10.nclSetKernelArg(kernelHandle, i, kind.byteSize(), slot);
+                }
             }
+
+            if (err != CL10.CL_SUCCESS) throw new SiliconException("clSetKernelArg failed for argument " + i + ": " + err);
         }
     }
     
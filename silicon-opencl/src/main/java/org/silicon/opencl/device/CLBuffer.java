@@ -1,26 +1,61 @@
 package org.silicon.opencl.device;
 
+import org.lwjgl.PointerBuffer;
 import org.lwjgl.opencl.CL10;
+import org.lwjgl.opencl.CL11;
+import org.lwjgl.opencl.CL12;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
 import org.silicon.api.SiliconException;
 import org.silicon.api.device.ComputeBuffer;
+import org.silicon.api.device.RegionExtent;
+import org.silicon.api.device.RegionLayout;
+import org.silicon.api.memory.MemorySource;
 import org.silicon.api.memory.MemoryState;
+import org.silicon.api.memory.MemoryStats;
+import org.silicon.api.memory.Reclaimer;
 import org.silicon.opencl.computing.CLCommandQueue;
 
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 
 public class CLBuffer implements ComputeBuffer {
 
     private final CLContext context;
     private final long handle;
     private final long size;
+    private final CLBuffer parent;
+    private final long offset;
+    private final Runnable release;
+    private final MemorySource source;
+    private final Reclaimer.Registration registration;
     private MemoryState state;
+    private MemorySegment mapped;
 
+    /**
+     * Wraps an existing memory object. Wrapped objects are not counted in the {@link MemoryStats} of the context.
+     */
     public CLBuffer(long handle, CLContext context, long size) {
+        this(handle, context, size, null);
+    }
+
+    CLBuffer(long handle, CLContext context, long size, MemorySource source) {
+        this(handle, context, size, null, 0, null, source);
+    }
+
+    private CLBuffer(long handle, CLContext context, long size, CLBuffer parent, long offset, Runnable release, MemorySource source) {
         this.handle = handle;
         this.context = context;
         this.size = size;
+        this.parent = parent;
+        this.offset = offset;
+        this.release = release;
+        this.source = source;
         this.state = MemoryState.ALIVE;
+        this.registration = Reclaimer.register(this, reclaim(handle, release, context.memoryStats(), source, size));
     }
 
     @Override
@@ -31,243 +66,405 @@ public class CLBuffer implements ComputeBuffer {
 
     @Override
     public CLBuffer copyInto(ComputeBuffer other) {
+        ensureAlive();
+        ensureOther(other);
+
         if (!(other instanceof CLBuffer buffer)) {
             throw new IllegalArgumentException("Other buffer must be an OpenCL buffer");
         }
-        
-        CLCommandQueue queue = context.createQueue();
+
+        buffer.ensureRange(0, size);
+        if (size == 0) return buffer;
+
+        CLCommandQueue queue = context.transferQueue();
         
         int res = CL10.clEnqueueCopyBuffer(
-            queue.handle(), buffer.getHandle(), handle,
+            queue.handle(), handle, buffer.getHandle(),
             0, 0, size, null, null
         );
         if (res != 0) throw new SiliconException("clEnqueueCopyBuffer failed: " + res);
         
         queue.await();
-        queue.free();
         
         return buffer;
     }
     
     @Override
-    public long size() {
-        return size;
+    public void fill(byte value, long offset, long length) {
+        fill(value, Byte.BYTES, offset, length);
     }
-    
+
     @Override
-    public MemoryState state() {
-        return state;
+    public void fill(short value, long offset, long length) {
+        fill(value, Short.BYTES, offset, length);
     }
 
     @Override
-    public void free() {
-        if (state != MemoryState.ALIVE) return;
+    public void fill(int value, long offset, long length) {
+        fill(value, Integer.BYTES, offset, length);
+    }
 
-        int res = CL10.clReleaseMemObject(handle);
-        if (res != 0) throw new SiliconException("clReleaseMemObject failed: " + res);
+    private void fill(int pattern, int width, long offset, long length) {
+        ensureAlive();
+        ensureFillRange(offset, length, width);
+        if (length == 0) return;
 
-        state = MemoryState.FREE;
-    }
+        if (mapped != null) {
+            fillMapped(pattern, width, offset, length);
+            return;
+        }
 
-    @Override
-    public byte[] get(byte[] data) {
-        Result result = readBuffer(data.length);
-        result.buffer().get(data);
+        CLCommandQueue queue = context.transferQueue();
 
-        result.queue().await();
-        result.queue().free();
-        return data;
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            int res = CL12.nclEnqueueFillBuffer(
+                queue.handle(), handle, pattern(stack, pattern, width), width, offset, length, 0, 0L, 0L
+            );
+            if (res != 0) throw new SiliconException("clEnqueueFillBuffer failed: " + res);
+        }
+
+        queue.await();
     }
 
-    @Override
-    public double[] get(double[] data) {
-        long required = (long) data.length * Double.BYTES;
+    /**
+     * Writes a fill pattern to the stack in native byte order.
+     * @return address of the pattern
+     */
+    public static long pattern(MemoryStack stack, int pattern, int width) {
+        ByteBuffer buffer = stack.malloc(width);
+
+        switch (width) {
+            case Byte.BYTES -> buffer.put(0, (byte) pattern);
+            case Short.BYTES -> buffer.putShort(0, (short) pattern);
+            default -> buffer.putInt(0, pattern);
+        }
 
-        Result result = readBuffer(required);
-        result.buffer().asDoubleBuffer().get(data);
+        return MemoryUtil.memAddress(buffer);
+    }
 
-        result.queue().await();
-        result.queue().free();
-        return data;
+    private void fillMapped(int pattern, int width, long offset, long length) {
+        MemorySegment region = mapped.asSlice(offset, length);
+
+        switch (width) {
+            case Byte.BYTES -> region.fill((byte) pattern);
+            case Short.BYTES -> {
+                for (long i = 0; i < length; i += Short.BYTES) region.set(ValueLayout.JAVA_SHORT_UNALIGNED, i, (short) pattern);
+            }
+            default -> {
+                for (long i = 0; i < length; i += Integer.BYTES) region.set(ValueLayout.JAVA_INT_UNALIGNED, i, pattern);
+            }
+        }
     }
 
     @Override
-    public float[] get(float[] data) {
-        long required = (long) data.length * Float.BYTES;
+    public CLBuffer slice(long offset, long length, Runnable release) {
+        ensureAlive();
+        ensureRange(offset, length);
 
-        Result result = readBuffer(required);
-        result.buffer().asFloatBuffer().get(data);
+        if (length == 0) throw new IllegalArgumentException("Slice length must be positive");
 
-        result.queue().await();
-        result.queue().free();
-        return data;
-    }
+        // OpenCL does not allow sub-buffers of sub-buffers, so views always point at the root
+        CLBuffer root = parent != null ? parent : this;
+        long origin = this.offset + offset;
 
-    @Override
-    public long[] get(long[] data) {
-        long required = (long) data.length * Long.BYTES;
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer err = stack.mallocInt(1);
+            PointerBuffer region = stack.mallocPointer(2);
+            region.put(0, origin).put(1, length);
 
-        Result result = readBuffer(required);
-        result.buffer().asLongBuffer().get(data);
+            long sub = CL11.nclCreateSubBuffer(
+                root.handle, 0, CL11.CL_BUFFER_CREATE_TYPE_REGION,
+                region.address(), MemoryUtil.memAddress(err)
+            );
+            if (err.get(0) != CL10.CL_SUCCESS) throw new SiliconException("clCreateSubBuffer failed: " + err.get(0));
 
-        result.queue().await();
-        result.queue().free();
-        return data;
+            return new CLBuffer(sub, context, length, root, origin, release, null);
+        }
     }
 
     @Override
-    public int[] get(int[] data) {
-        long required = (long) data.length * Integer.BYTES;
+    public long size() {
+        return size;
+    }
+    
+    @Override
+    public MemoryState state() {
+        if (parent != null && !parent.isAlive()) return MemoryState.FREE;
+        return state;
+    }
 
-        Result result = readBuffer(required);
-        result.buffer().asIntBuffer().get(data);
+    @Override
+    public void free() {
+        // views still hold their own sub-buffer handle, even once the parent is gone
+        if (state != MemoryState.ALIVE) return;
+        registration.disarm();
+        if (mapped != null) unmap();
 
-        result.queue().await();
-        result.queue().free();
-        return data;
+        int res = CL10.clReleaseMemObject(handle);
+        if (res != 0) throw new SiliconException("clReleaseMemObject failed: " + res);
+
+        state = MemoryState.FREE;
+        if (source != null) context.memoryStats().released(source, size);
+        if (release != null) release.run();
     }
 
     @Override
-    public short[] get(short[] data) {
-        long required = (long) data.length * Short.BYTES;
+    public MemorySegment get(long offset, MemorySegment data) {
+        long required = data.byteSize();
+        checkTransfer(offset, required);
 
-        Result result = readBuffer(required);
-        result.buffer().asShortBuffer().get(data);
+        if (mapped != null) {
+            MemorySegment.copy(mapped, offset, data, 0, required);
+            return data;
+        }
 
-        result.queue().await();
-        result.queue().free();
+        if (data.isNative()) {
+            readBuffer(offset, data);
+            return data;
+        }
+
+        context.staging().read(this, offset, data);
         return data;
     }
-    
+
     @Override
-    public void write(byte[] data) {
-        Result result = writeBuffer(data.length);
-        result.buffer().put(data).rewind();
+    public void write(long offset, MemorySegment data) {
+        long required = data.byteSize();
+        checkTransfer(offset, required);
 
-        int res = CL10.clEnqueueWriteBuffer(result.queue().handle(), handle, true, 0, result.buffer(), null, null);
-        if (res != 0) throw new SiliconException("clEnqueueWriteBuffer failed: " + res);
+        if (mapped != null) {
+            MemorySegment.copy(data, 0, mapped, offset, required);
+            return;
+        }
+
+        if (data.isNative()) {
+            writeBuffer(offset, data);
+            return;
+        }
 
-        result.queue().await();
-        result.queue().free();
+        context.staging().write(this, offset, data);
     }
 
     @Override
-    public void write(double[] data) {
-        long required = (long) data.length * Double.BYTES;
-        Result result = writeBuffer(required);
-        result.buffer().asDoubleBuffer().put(data);
+    public void copyRegionInto(ComputeBuffer dst, RegionLayout srcLayout, RegionLayout dstLayout, RegionExtent extent) {
+        ensureAlive();
+        ensureOther(dst);
 
-        int res = CL10.clEnqueueWriteBuffer(result.queue().handle(), handle, true, 0, result.buffer(), null, null);
-        if (res != 0) throw new SiliconException("clEnqueueWriteBuffer failed: " + res);
+        if (!(dst instanceof CLBuffer buffer)) {
+            throw new IllegalArgumentException("Other buffer must be an OpenCL buffer");
+        }
 
-        result.queue().await();
-        result.queue().free();
-    }
+        ensureRegion(srcLayout, extent);
+        buffer.ensureRegion(dstLayout, extent);
+        if (extent.isEmpty()) return;
 
-    @Override
-    public void write(float[] data) {
-        long required = (long) data.length * Float.BYTES;
-        Result result = writeBuffer(required);
-        result.buffer().asFloatBuffer().put(data);
+        CLCommandQueue queue = context.transferQueue();
 
-        int res = CL10.clEnqueueWriteBuffer(result.queue().handle(), handle, true, 0, result.buffer(), null, null);
-        if (res != 0) throw new SiliconException("clEnqueueWriteBuffer failed: " + res);
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            int res = CL11.nclEnqueueCopyBufferRect(
+                queue.handle(), handle, buffer.handle,
+                origin(stack, srcLayout), origin(stack, dstLayout), region(stack, extent),
+                srcLayout.rowPitch(), srcLayout.slicePitch(), dstLayout.rowPitch(), dstLayout.slicePitch(),
+                0, 0L, 0L
+            );
+            if (res != 0) throw new SiliconException("clEnqueueCopyBufferRect failed: " + res);
+        }
 
-        result.queue().await();
-        result.queue().free();
+        queue.await();
     }
 
     @Override
-    public void write(long[] data) {
-        long required = (long) data.length * Long.BYTES;
-        Result result = writeBuffer(required);
-        result.buffer().asLongBuffer().put(data);
+    public void writeRegion(MemorySegment src, RegionLayout srcLayout, RegionLayout dstLayout, RegionExtent extent) {
+        ensureAlive();
+        ensureRegion(dstLayout, extent);
+        srcLayout.ensureWithin(src.byteSize(), extent);
+        if (extent.isEmpty()) return;
+
+        if (mapped != null) {
+            RegionLayout.copy(src, srcLayout, mapped, dstLayout, extent);
+            return;
+        }
 
-        int res = CL10.clEnqueueWriteBuffer(result.queue().handle(), handle, true, 0, result.buffer(), null, null);
-        if (res != 0) throw new SiliconException("clEnqueueWriteBuffer failed: " + res);
+        if (src.isNative()) {
+            transferRegion(true, src, srcLayout, dstLayout, extent);
+            return;
+        }
 
-        result.queue().await();
-        result.queue().free();
+        long span = srcLayout.span(extent);
+        RegionLayout staged = new RegionLayout(0, srcLayout.rowPitch(), srcLayout.slicePitch());
+
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment host = arena.allocate(span);
+            MemorySegment.copy(src, srcLayout.offset(), host, 0, span);
+            transferRegion(true, host, staged, dstLayout, extent);
+        }
     }
 
     @Override
-    public void write(int[] data) {
-        long required = (long) data.length * Integer.BYTES;
-        Result result = writeBuffer(required);
-        result.buffer().asIntBuffer().put(data);
+    public void readRegion(MemorySegment dst, RegionLayout srcLayout, RegionLayout dstLayout, RegionExtent extent) {
+        ensureAlive();
+        ensureRegion(srcLayout, extent);
+        dstLayout.ensureWithin(dst.byteSize(), extent);
+        if (extent.isEmpty()) return;
+
+        if (mapped != null) {
+            RegionLayout.copy(mapped, srcLayout, dst, dstLayout, extent);
+            return;
+        }
 
-        int res = CL10.clEnqueueWriteBuffer(result.queue().handle(), handle, true, 0, result.buffer(), null, null);
-        if (res != 0) throw new SiliconException("clEnqueueWriteBuffer failed: " + res);
+        if (dst.isNative()) {
+            transferRegion(false, dst, dstLayout, srcLayout, extent);
+            return;
+        }
+
+        // the staged span is copied back whole, so it starts from the current contents to keep the gaps intact
+        long span = dstLayout.span(extent);
+        RegionLayout staged = new RegionLayout(0, dstLayout.rowPitch(), dstLayout.slicePitch());
 
-        result.queue().await();
-        result.queue().free();
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment host = arena.allocate(span);
+            MemorySegment.copy(dst, dstLayout.offset(), host, 0, span);
+            transferRegion(false, host, staged, srcLayout, extent);
+            MemorySegment.copy(host, 0, dst, dstLayout.offset(), span);
+        }
     }
 
-    @Override
-    public void write(short[] data) {
-        long required = (long) data.length * Short.BYTES;
-        Result result = writeBuffer(required);
-        result.buffer().asShortBuffer().put(data);
+    private void transferRegion(boolean write, MemorySegment host, RegionLayout hostLayout, RegionLayout bufferLayout, RegionExtent extent) {
+        long queue = context.transferQueue().handle();
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            long bufferOrigin = origin(stack, bufferLayout);
+            long hostOrigin = origin(stack, hostLayout);
+            long region = region(stack, extent);
+
+            int res = write
+                ? CL11.nclEnqueueWriteBufferRect(
+                    queue, handle, CL10.CL_TRUE, bufferOrigin, hostOrigin, region,
+                    bufferLayout.rowPitch(), bufferLayout.slicePitch(), hostLayout.rowPitch(), hostLayout.slicePitch(),
+                    host.address(), 0, 0L, 0L)
+                : CL11.nclEnqueueReadBufferRect(
+                    queue, handle, CL10.CL_TRUE, bufferOrigin, hostOrigin, region,
+                    bufferLayout.rowPitch(), bufferLayout.slicePitch(), hostLayout.rowPitch(), hostLayout.slicePitch(),
+                    host.address(), 0, 0L, 0L);
+            if (res != 0) throw new SiliconException((write ? "clEnqueueWriteBufferRect" : "clEnqueueReadBufferRect") + " failed: " + res);
+        }
+    }
 
-        int res = CL10.clEnqueueWriteBuffer(result.queue().handle(), handle, true, 0, result.buffer(), null, null);
-        if (res != 0) throw new SiliconException("clEnqueueWriteBuffer failed: " + res);
+    /**
+     * Writes the origin of a region to the stack, expressed as a byte offset.
+     * @return address of the {@code size_t[3]} origin
+     */
+    public static long origin(MemoryStack stack, RegionLayout layout) {
+        return stack.pointers(layout.offset(), 0, 0).address();
+    }
 
-        result.queue().await();
-        result.queue().free();
+    /**
+     * Writes the size of a region to the stack.
+     * @return address of the {@code size_t[3]} region
+     */
+    public static long region(MemoryStack stack, RegionExtent extent) {
+        return stack.pointers(extent.rowBytes(), extent.rows(), extent.slices()).address();
     }
 
-    private Result readBuffer(long required) {
-        if (state != MemoryState.ALIVE) {
-            throw new IllegalStateException("Buffer is not ALIVE! Current buffer state: " + state);
+    /**
+     * Maps the whole buffer into host memory for reading and writing in place.
+     * <p>
+     * Buffers allocated with {@link CLContext#allocateMapped(long)} are backed by host
+     * accessible memory, so mapping them does not copy on shared-memory devices.
+     * While mapped, {@link #get(long, MemorySegment)} and {@link #write(long, MemorySegment)}
+     * copy through the mapping. The buffer must be {@link #unmap() unmapped} before kernels use it.
+     * @return the mapped contents, valid until {@link #unmap()}
+     */
+    public MemorySegment map() {
+        ensureAlive();
+
+        if (mapped != null) return mapped;
+        if (size == 0) return mapped = MemorySegment.NULL;
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer err = stack.mallocInt(1);
+
+            long ptr = CL10.nclEnqueueMapBuffer(
+                context.transferQueue().handle(), handle, CL10.CL_TRUE,
+                CL10.CL_MAP_READ | CL10.CL_MAP_WRITE, 0, size,
+                0, 0L, 0L, MemoryUtil.memAddress(err)
+            );
+            if (err.get(0) != CL10.CL_SUCCESS) throw new SiliconException("clEnqueueMapBuffer failed: " + err.get(0));
+
+            mapped = MemorySegment.ofAddress(ptr).reinterpret(size);
+            return mapped;
         }
+    }
 
-        if (required > size) {
-            throw new IllegalArgumentException("Requested read of " + required + " bytes, but buffer size is " + size);
-        }
-        
-        if (required > Integer.MAX_VALUE) {
-            throw new IllegalArgumentException("Requested read of " + required + " bytes exceeds JVM ByteBuffer max capacity");
-        }
+    /**
+     * Releases the host mapping created by {@link #map()} and waits until
+     * the device observes the host writes. Does nothing if the buffer is not mapped.
+     */
+    public void unmap() {
+        if (mapped == null) return;
 
-        CLCommandQueue queue = context.createQueue();
-        ByteBuffer buffer = ByteBuffer
-            .allocateDirect((int) required)
-            .order(ByteOrder.nativeOrder());
+        MemorySegment segment = mapped;
+        mapped = null;
+        if (segment.byteSize() == 0) return;
 
-        int res = CL10.clEnqueueReadBuffer(queue.handle(), handle, true, 0, buffer, null, null);
-        if (res != 0) throw new SiliconException("clEnqueueReadBuffer failed: " + res);
+        CLCommandQueue queue = context.transferQueue();
+
+        int res = CL10.nclEnqueueUnmapMemObject(queue.handle(), handle, segment.address(), 0, 0L, 0L);
+        if (res != 0) throw new SiliconException("clEnqueueUnmapMemObject failed: " + res);
 
-        return new Result(queue, buffer);
+        queue.await();
     }
-    
-    private Result writeBuffer(long required) {
-        if (state != MemoryState.ALIVE) {
-            throw new IllegalStateException("Buffer is not ALIVE! Current buffer state: " + state);
-        }
 
-        if (required > size) {
-            throw new IllegalArgumentException("Requested write of " + required + " bytes, but buffer size is " + size);
-        }
-        
-        if (required > Integer.MAX_VALUE) {
-            throw new IllegalArgumentException("Requested write of " + required + " bytes exceeds JVM ByteBuffer max capacity");
+    public boolean isMapped() {
+        return mapped != null;
+    }
+
+    private static Runnable reclaim(long handle, Runnable release, MemoryStats stats, MemorySource source, long size) {
+        return () -> {
+            int res = CL10.clReleaseMemObject(handle);
+            if (source != null) stats.released(source, size);
+            if (release != null) release.run();
+            if (res != 0) throw new SiliconException("clReleaseMemObject failed: " + res);
+        };
+    }
+
+    private void checkTransfer(long offset, long required) {
+        if (!isAlive()) {
+            throw new IllegalStateException("Buffer is not ALIVE! Current buffer state: " + state());
         }
 
-        CLCommandQueue queue = context.createQueue();
-        ByteBuffer buffer = ByteBuffer
-            .allocateDirect((int) required)
-            .order(ByteOrder.nativeOrder());
+        ensureRange(offset, required);
+    }
+
+    private void readBuffer(long offset, MemorySegment host) {
+        if (host.byteSize() == 0) return;
 
-        return new Result(queue, buffer);
+        int res = CL10.nclEnqueueReadBuffer(
+            context.transferQueue().handle(), handle, CL10.CL_TRUE, offset, host.byteSize(),
+            host.address(), 0, 0L, 0L
+        );
+        if (res != 0) throw new SiliconException("clEnqueueReadBuffer failed: " + res);
     }
 
-    private record Result(CLCommandQueue queue, ByteBuffer buffer) {
+    private void writeBuffer(long offset, MemorySegment host) {
+        if (host.byteSize() == 0) return;
+
+        int res = CL10.nclEnqueueWriteBuffer(
+            context.transferQueue().handle(), handle, CL10.CL_TRUE, offset, host.byteSize(),
+            host.address(), 0, 0L, 0L
+        );
+        if (res != 0) throw new SiliconException("clEnqueueWriteBuffer failed: " + res);
     }
 
     public long getHandle() {
         return handle;
     }
 
+    @Override
+    public CLContext context() {
+        return context;
+    }
+
     public CLContext getContext() {
         return context;
     }
@@ -275,4 +472,12 @@ public class CLBuffer implements ComputeBuffer {
     public long getSize() {
         return size;
     }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public boolean isView() {
+        return parent != null;
+    }
 }
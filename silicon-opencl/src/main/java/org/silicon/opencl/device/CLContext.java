@@ -2,34 +2,103 @@ package org.silicon.opencl.device;
 
 import org.lwjgl.opencl.CL10;
 import org.lwjgl.system.MemoryStack;
+import org.silicon.api.OutOfDeviceMemoryException;
 import org.silicon.api.SiliconException;
 import org.silicon.api.backend.BackendType;
+import org.silicon.api.device.AllocationOptions;
 import org.silicon.api.device.ComputeArena;
 import org.silicon.api.device.ComputeContext;
 import org.silicon.api.function.ComputeModule;
+import org.silicon.api.kernel.DeviceConversion;
+import org.silicon.api.memory.MemorySource;
+import org.silicon.api.memory.MemoryStats;
 import org.silicon.opencl.computing.CLCommandQueue;
 import org.silicon.opencl.kernel.CLProgram;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.IntBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
-public record CLContext(long handle, long device) implements ComputeContext {
-    
-    private void writeBuffer(CLBuffer buffer, ByteBuffer data) {
-        CLCommandQueue clQueue = createQueue();
-        
-        int err = CL10.clEnqueueWriteBuffer(
-            clQueue.handle(), buffer.getHandle(), true, 0L,
-            data, null, null
-        );
-        
-        if (err != CL10.CL_SUCCESS) throw new IllegalStateException("clEnqueueWriteBuffer failed: " + err);
-        
-        clQueue.await();
-        clQueue.free();
+public final class CLContext implements ComputeContext {
+
+    private final long handle;
+    private final long device;
+    private final MemoryStats memoryStats = new MemoryStats();
+    private volatile CLCommandQueue transferQueue;
+    private volatile CLStaging staging;
+    private final DeviceConversion conversion = new DeviceConversion(this, "/org/silicon/opencl/convert.cl");
+
+    public CLContext(long handle, long device) {
+        this.handle = handle;
+        this.device = device;
+    }
+
+    /**
+     * Returns the queue used for blocking host transfers, creating it on first use.
+     * <p>
+     * The queue is shared by every buffer of the context until {@link #freeTransferResources()}.
+     * Callers that need overlap should enqueue on their own queue instead.
+     * @return the shared transfer queue
+     */
+    public CLCommandQueue transferQueue() {
+        CLCommandQueue queue = transferQueue;
+        if (queue != null) return queue;
+
+        synchronized (this) {
+            if (transferQueue == null) transferQueue = createQueue();
+            return transferQueue;
+        }
+    }
+
+    /**
+     * @return the built-in conversion kernels of this context
+     */
+    public DeviceConversion conversion() {
+        return conversion;
+    }
+
+    CLStaging staging() {
+        CLStaging current = staging;
+        if (current != null) return current;
+
+        synchronized (this) {
+            if (staging == null) staging = new CLStaging(this);
+            return staging;
+        }
+    }
+
+    /**
+     * Releases the shared transfer queue and the staging windows of this context.
+     * <p>
+     * Both are created by the first blocking transfer and are created again by the next one.
+     * No transfer on this context may be running, call this before releasing the context.
+     */
+    public synchronized void freeTransferResources() {
+        try {
+            // unmapping the windows goes through the transfer queue
+            if (staging != null) staging.free();
+        } finally {
+            staging = null;
+
+            if (transferQueue != null) {
+                CLCommandQueue queue = transferQueue;
+                transferQueue = null;
+                queue.free();
+            }
+        }
+    }
+
+    public long handle() {
+        return handle;
+    }
+
+    public long device() {
+        return device;
+    }
+
+    @Override
+    public MemoryStats memoryStats() {
+        return memoryStats;
     }
     
     @Override
@@ -88,102 +157,116 @@ public record CLContext(long handle, long device) implements ComputeContext {
     
     @Override
     public CLBuffer allocateBytes(long size) {
+        return allocate(size, CL10.CL_MEM_READ_WRITE, MemorySource.DEVICE);
+    }
+
+    /**
+     * Allocates a buffer with {@code CL_MEM_READ_ONLY}, {@code CL_MEM_WRITE_ONLY} or
+     * {@code CL_MEM_READ_WRITE} according to the access. Host and managed placements both use
+     * {@code CL_MEM_ALLOC_HOST_PTR}, OpenCL buffer objects have no on-demand migration.
+     */
+    @Override
+    public CLBuffer allocateBytes(long size, AllocationOptions options) {
+        long flags = switch (options.access()) {
+            case READ_ONLY -> CL10.CL_MEM_READ_ONLY;
+            case WRITE_ONLY -> CL10.CL_MEM_WRITE_ONLY;
+            case READ_WRITE -> CL10.CL_MEM_READ_WRITE;
+        };
+
+        if (options.placement() == AllocationOptions.Placement.DEVICE) {
+            return allocate(size, flags, MemorySource.DEVICE);
+        }
+
+        return allocate(size, flags | CL10.CL_MEM_ALLOC_HOST_PTR, MemorySource.MAPPED);
+    }
+
+    /**
+     * Allocates a buffer backed by host accessible memory ({@code CL_MEM_ALLOC_HOST_PTR}).
+     * <p>
+     * Intended to be accessed in place through {@link CLBuffer#map()}. On integrated GPUs
+     * and CPU devices the mapping aliases the device memory and no transfer takes place.
+     * @param size size in bytes
+     * @return a new mappable buffer
+     */
+    public CLBuffer allocateMapped(long size) {
+        return allocate(size, CL10.CL_MEM_READ_WRITE | CL10.CL_MEM_ALLOC_HOST_PTR, MemorySource.MAPPED);
+    }
+
+    /**
+     * Allocates a mappable buffer for internal staging, not counted in {@link #memoryStats()}.
+     */
+    CLBuffer allocateStaging(long size) {
+        return create(size, CL10.CL_MEM_READ_WRITE | CL10.CL_MEM_ALLOC_HOST_PTR, null);
+    }
+
+    private CLBuffer allocate(long size, long flags, MemorySource source) {
         if (size < 0) throw new IllegalArgumentException("Allocation size must be positive");
+        return memoryStats.allocate(source, size, () -> create(size, flags, source));
+    }
+
+    private CLBuffer create(long size, long flags, MemorySource source) {
         try (MemoryStack stack = MemoryStack.stackPush()) {
             IntBuffer err = stack.mallocInt(1);
             
-            long mem = CL10.clCreateBuffer(handle, CL10.CL_MEM_READ_WRITE, size, err);
-            if (err.get(0) != CL10.CL_SUCCESS) throw new IllegalStateException("clCreateBuffer failed: " + err.get(0));
+            long mem = CL10.clCreateBuffer(handle, flags, size, err);
+            int res = err.get(0);
+
+            if (res == CL10.CL_MEM_OBJECT_ALLOCATION_FAILURE || res == CL10.CL_OUT_OF_RESOURCES || res == CL10.CL_OUT_OF_HOST_MEMORY) {
+                throw new OutOfDeviceMemoryException("clCreateBuffer failed: " + res);
+            }
+            if (res != CL10.CL_SUCCESS) throw new IllegalStateException("clCreateBuffer failed: " + res);
             
-            return new CLBuffer(mem, this, size);
+            return new CLBuffer(mem, this, size, source);
         }
     }
     
     @Override
     public CLBuffer allocateArray(byte[] data) {
         CLBuffer buffer = allocateBytes(data.length);
-        ByteBuffer buf = ByteBuffer
-            .allocateDirect(data.length)
-            .order(ByteOrder.nativeOrder());
-        
-        buf.put(data).flip();
-        
-        writeBuffer(buffer, buf);
+        buffer.write(data);
         return buffer;
     }
     
     @Override
     public CLBuffer allocateArray(double[] data) {
-        long required = (long) data.length * Double.BYTES;
-        
-        CLBuffer buffer = allocateBytes(required);
-        ByteBuffer buf = ByteBuffer
-            .allocateDirect(data.length * Double.BYTES)
-            .order(ByteOrder.nativeOrder());
-        
-        buf.asDoubleBuffer().put(data).flip();
-        
-        writeBuffer(buffer, buf);
+        CLBuffer buffer = allocateBytes((long) data.length * Double.BYTES);
+        buffer.write(data);
         return buffer;
     }
     
     @Override
     public CLBuffer allocateArray(float[] data) {
-        long required = (long) data.length * Float.BYTES;
-
-        CLBuffer buffer = allocateBytes(required);
-        ByteBuffer buf = ByteBuffer
-            .allocateDirect(data.length * Float.BYTES)
-            .order(ByteOrder.nativeOrder());
-        
-        buf.asFloatBuffer().put(data);
-        
-        writeBuffer(buffer, buf);
+        CLBuffer buffer = allocateBytes((long) data.length * Float.BYTES);
+        buffer.write(data);
         return buffer;
     }
     
     @Override
     public CLBuffer allocateArray(long[] data) {
-        long required = (long) data.length * Long.BYTES;
-        
-        CLBuffer buffer = allocateBytes(required);
-        ByteBuffer buf = ByteBuffer
-            .allocateDirect((int) required)
-            .order(ByteOrder.nativeOrder());
-        
-        buf.asLongBuffer().put(data).flip();
-        
-        writeBuffer(buffer, buf);
+        CLBuffer buffer = allocateBytes((long) data.length * Long.BYTES);
+        buffer.write(data);
         return buffer;
     }
     
     @Override
     public CLBuffer allocateArray(int[] data) {
-        long required = (long) data.length * Integer.BYTES;
-
-        CLBuffer buffer = allocateBytes(required);
-        ByteBuffer buf = ByteBuffer
-            .allocateDirect((int) required)
-            .order(ByteOrder.nativeOrder());
-        
-        buf.asIntBuffer().put(data).flip();
-        
-        writeBuffer(buffer, buf);
+        CLBuffer buffer = allocateBytes((long) data.length * Integer.BYTES);
+        buffer.write(data);
         return buffer;
     }
     
     @Override
     public CLBuffer allocateArray(short[] data) {
-        long required = (long) data.length * Short.BYTES;
-
-        CLBuffer buffer = allocateBytes(required);
-        ByteBuffer buf = ByteBuffer
-            .allocateDirect((int) required)
-            .order(ByteOrder.nativeOrder());
-        
-        buf.asShortBuffer().put(data).flip();
-        
-        writeBuffer(buffer, buf);
+        CLBuffer buffer = allocateBytes((long) data.length * Short.BYTES);
+        buffer.write(data);
         return buffer;
     }
+    
+    @Override
+    public String toString() {
+        return "CLContext{" +
+            "handle=" + handle +
+            ", device=" + device +
+            '}';
+    }
 }
@@ -70,9 +70,15 @@ public record CLDevice(long handle, long platform) implements ComputeDevice {
     @Override
     public boolean supports(DeviceFeature feature) {
         try (MemoryStack stack = MemoryStack.stackPush()) {
+            String extensions = getString(stack, CL10.CL_DEVICE_EXTENSIONS);
+
             return switch (feature) {
-                case FP16 -> getString(stack, CL10.CL_DEVICE_EXTENSIONS).contains("cl_khr_fp16");
-                case FP64 -> getString(stack, CL10.CL_DEVICE_EXTENSIONS).contains("cl_khr_fp64");
+                case FP16 -> extensions.contains("cl_khr_fp16");
+                case FP64 -> extensions.contains("cl_khr_fp64");
+                // vendor extensions such as cl_intel_bfloat16_conversions
+                case BF16 -> extensions.contains("bfloat16");
+                case FP8 -> false;
+                case INT8 -> extensions.contains("cl_khr_integer_dot_product");
             };
         }
     }
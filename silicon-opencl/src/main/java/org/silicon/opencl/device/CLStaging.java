@@ -0,0 +1,144 @@
+package org.silicon.opencl.device;
+
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.opencl.CL10;
+import org.lwjgl.system.MemoryStack;
+import org.silicon.api.SiliconException;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Double-buffered pinned staging used for transfers from and to heap memory.
+ * <p>
+ * Both windows are {@code CL_MEM_ALLOC_HOST_PTR} buffers that stay mapped until
+ * {@link CLContext#freeTransferResources()}, so drivers can DMA from them directly. Chunks
+ * are enqueued without blocking, which lets the host fill one window while the other is in
+ * flight. Host memory is bounded by two windows regardless of the transfer size. The windows
+ * are internal and not counted in the {@link org.silicon.api.memory.MemoryStats} of the context.
+ */
+final class CLStaging {
+
+    static final long WINDOW_SIZE = 8L << 20;
+
+    private final CLContext context;
+    // the owners must stay reachable, the mappings hold no reference to them
+    private final CLBuffer[] buffers = new CLBuffer[2];
+    private final MemorySegment[] windows = new MemorySegment[2];
+
+    CLStaging(CLContext context) {
+        this.context = context;
+
+        try {
+            for (int i = 0; i < windows.length; i++) {
+                buffers[i] = context.allocateStaging(WINDOW_SIZE);
+                windows[i] = buffers[i].map();
+            }
+        } catch (RuntimeException e) {
+            free();
+            throw e;
+        }
+    }
+
+    /**
+     * Unmaps and releases both windows.
+     */
+    synchronized void free() {
+        RuntimeException failure = null;
+
+        for (int i = 0; i < buffers.length; i++) {
+            if (buffers[i] == null) continue;
+
+            try {
+                buffers[i].free();
+            } catch (RuntimeException e) {
+                if (failure == null) failure = e;
+            }
+
+            buffers[i] = null;
+            windows[i] = null;
+        }
+
+        if (failure != null) throw failure;
+    }
+
+    synchronized void write(CLBuffer dst, long offset, MemorySegment src) {
+        long queue = context.transferQueue().handle();
+        long[] pending = new long[windows.length];
+        long length = src.byteSize();
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            PointerBuffer eventPtr = stack.mallocPointer(1);
+
+            for (long position = 0, chunk = 0; position < length; position += WINDOW_SIZE, chunk++) {
+                int index = (int) (chunk & 1);
+                long bytes = Math.min(WINDOW_SIZE, length - position);
+
+                pending[index] = release(pending[index]);
+                MemorySegment.copy(src, position, windows[index], 0, bytes);
+
+                int err = CL10.nclEnqueueWriteBuffer(
+                    queue, dst.getHandle(), CL10.CL_FALSE, offset + position, bytes,
+                    windows[index].address(), 0, 0L, eventPtr.address()
+                );
+                if (err != CL10.CL_SUCCESS) throw new SiliconException("clEnqueueWriteBuffer failed: " + err);
+
+                pending[index] = eventPtr.get(0);
+            }
+        } finally {
+            for (int i = 0; i < pending.length; i++) {
+                pending[i] = release(pending[i]);
+            }
+        }
+    }
+
+    synchronized void read(CLBuffer src, long offset, MemorySegment dst) {
+        long queue = context.transferQueue().handle();
+        long[] pending = new long[windows.length];
+        long length = dst.byteSize();
+        if (length == 0) return;
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            PointerBuffer eventPtr = stack.mallocPointer(1);
+            pending[0] = enqueueRead(queue, src, offset, 0, length, eventPtr);
+
+            for (long position = 0, chunk = 0; position < length; position += WINDOW_SIZE, chunk++) {
+                int index = (int) (chunk & 1);
+                long next = position + WINDOW_SIZE;
+
+                if (next < length) {
+                    pending[index ^ 1] = enqueueRead(queue, src, offset, next, length, eventPtr);
+                }
+
+                pending[index] = release(pending[index]);
+                MemorySegment.copy(windows[index], 0, dst, position, Math.min(WINDOW_SIZE, length - position));
+            }
+        } finally {
+            for (int i = 0; i < pending.length; i++) {
+                pending[i] = release(pending[i]);
+            }
+        }
+    }
+
+    private long enqueueRead(long queue, CLBuffer src, long offset, long position, long length, PointerBuffer eventPtr) {
+        MemorySegment window = windows[(int) ((position / WINDOW_SIZE) & 1)];
+        long bytes = Math.min(WINDOW_SIZE, length - position);
+
+        int err = CL10.nclEnqueueReadBuffer(
+            queue, src.getHandle(), CL10.CL_FALSE, offset + position, bytes,
+            window.address(), 0, 0L, eventPtr.address()
+        );
+        if (err != CL10.CL_SUCCESS) throw new SiliconException("clEnqueueReadBuffer failed: " + err);
+
+        return eventPtr.get(0);
+    }
+
+    private static long release(long event) {
+        if (event == 0L) return 0L;
+
+        int err = CL10.clWaitForEvents(event);
+        CL10.clReleaseEvent(event);
+
+        if (err != CL10.CL_SUCCESS) throw new SiliconException("clWaitForEvents failed: " + err);
+        return 0L;
+    }
+}
@@ -0,0 +1,58 @@
+// Built-in element type conversions, see org.silicon.api.kernel.DeviceConversion.
+// Half values are accessed through vload_half and vstore_half, which need no fp16 support.
+
+float load_f32(__global const uchar *src, int i) {
+    return ((__global const float *) src)[i];
+}
+
+float load_f16(__global const uchar *src, int i) {
+    return vload_half(i, (__global const half *) src);
+}
+
+float load_bf16(__global const uchar *src, int i) {
+    return as_float((uint) ((__global const ushort *) src)[i] << 16);
+}
+
+float load_i8(__global const uchar *src, int i) {
+    return (float) ((__global const char *) src)[i];
+}
+
+void store_f32(__global uchar *dst, int i, float value) {
+    ((__global float *) dst)[i] = value;
+}
+
+void store_f16(__global uchar *dst, int i, float value) {
+    vstore_half_rte(value, i, (__global half *) dst);
+}
+
+void store_bf16(__global uchar *dst, int i, float value) {
+    uint bits = as_uint(value);
+    // round to nearest even, NaN keeps its sign and stays quiet
+    uint rounded = isnan(value) ? (bits >> 16) | 0x40 : (bits + 0x7FFF + ((bits >> 16) & 1)) >> 16;
+
+    ((__global ushort *) dst)[i] = (ushort) rounded;
+}
+
+void store_i8(__global uchar *dst, int i, float value) {
+    // saturating conversions turn NaN into 0
+    ((__global char *) dst)[i] = convert_char_sat_rte(value);
+}
+
+#define CONVERT(S, D) \
+__kernel void convert_##S##_##D(__global const uchar *src, __global uchar *dst, int count) { \
+    int i = get_global_id(0); \
+    if (i < count) store_##D(dst, i, load_##S(src, i)); \
+}
+
+CONVERT(f32, f16)
+CONVERT(f32, bf16)
+CONVERT(f32, i8)
+CONVERT(f16, f32)
+CONVERT(f16, bf16)
+CONVERT(f16, i8)
+CONVERT(bf16, f32)
+CONVERT(bf16, f16)
+CONVERT(bf16, i8)
+CONVERT(i8, f32)
+CONVERT(i8, f16)
+CONVERT(i8, bf16)
@@ -1,13 +1,36 @@
 package org.silicon;
 
+import org.silicon.api.BitUtils;
+import org.silicon.api.DataType;
 import org.silicon.api.Silicon;
 import org.silicon.api.backend.BackendType;
+import org.silicon.api.device.AllocationOptions;
 import org.silicon.api.device.ComputeArena;
 import org.silicon.api.device.ComputeBuffer;
 import org.silicon.api.device.ComputeContext;
 import org.silicon.api.device.ComputeDevice;
-
+import org.silicon.api.device.RegionExtent;
+import org.silicon.api.device.RegionLayout;
+import org.silicon.api.io.SafeTensors;
+import org.silicon.api.io.Snapshot;
+import org.silicon.api.io.TensorMap;
+import org.silicon.api.kernel.ComputeQueue;
+import org.silicon.api.memory.ConvertingTransfer;
+import org.silicon.api.memory.StagedCopy;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class BufferReadWriteTest {
 
@@ -23,6 +46,7 @@ public class BufferReadWriteTest {
 
                 System.out.println("=== Backend " + backend.formalName() + " (" + device.name() + ") ===");
                 runAllTypeTests(context);
+                testCopyTo(context, device.createContext());
                 System.out.println("OK " + backend.formalName());
             } catch (IllegalStateException e) {
                 skipped++;
@@ -48,6 +72,19 @@ public class BufferReadWriteTest {
         testLong(context);
         testInt(context);
         testShort(context);
+        testHalf(context);
+        testQuantized(context);
+        testConvert(context);
+        testSegment(context);
+        testRange(context);
+        testAsync(context);
+        testSlice(context);
+        testFill(context);
+        testRegion(context);
+        testFile(context);
+        testSafeTensors(context);
+        testSnapshot(context);
+        testAllocationOptions(context);
     }
 
     private static void testByte(ComputeContext context) {
@@ -181,6 +218,418 @@ public class BufferReadWriteTest {
         }
     }
 
+    private static void testHalf(ComputeContext context) {
+        // 1 + 2^-11 is a tie and rounds to even, 1 + 3 * 2^-11 rounds up
+        float[] data = new float[] {0.0f, -2.5f, 65504.0f, 1.0f + 0x1p-11f, 1.0f + 3 * 0x1p-11f, 0x1p-24f};
+        float[] expected = new float[] {0.0f, -2.5f, 65504.0f, 1.0f, 1.0f + 0x1p-9f, 0x1p-24f};
+
+        try (ComputeArena arena = context.createArena()) {
+            ComputeBuffer buffer = arena.allocateArray(BitUtils.float2Half(data));
+            assertArrayEquals(expected, buffer.getHalf(new float[data.length]), "getHalf");
+
+            ComputeBuffer converted = arena.allocateBytes((long) (data.length + 1) * Short.BYTES);
+            converted.writeHalf(Short.BYTES, data);
+            assertArrayEquals(expected, converted.readHalf(Short.BYTES, new float[data.length]), "writeHalf/readHalf");
+
+            // 1 + 2^-8 is a tie and rounds to even, 1 + 3 * 2^-8 rounds up
+            float[] brain = new float[] {-3.0f, 1.0f + 0x1p-8f, 1.0f + 3 * 0x1p-8f, 0x1p100f};
+            float[] brainExpected = new float[] {-3.0f, 1.0f, 1.0f + 0x1p-6f, 0x1p100f};
+
+            ComputeBuffer bf16 = arena.allocateBFloat16(brain);
+            assertArrayEquals(brainExpected, bf16.readBFloat16(new float[brain.length]), "writeBFloat16/readBFloat16");
+        }
+    }
+
+    private static void testQuantized(ComputeContext context) {
+        float[] data = new float[] {0.0f, 1.0f + 0x1p-4f, -448.0f, 1000.0f, 0x1p-9f};
+        float[] e4m3 = new float[] {0.0f, 1.0f, -448.0f, 448.0f, 0x1p-9f};
+        float[] e5m2 = new float[] {0.0f, 1.0f, -448.0f, 1024.0f, 0x1p-9f};
+        float[] values = new float[] {0.5f, -1.0f, 0.25f, 3.0f, 0.0f};
+
+        try (ComputeArena arena = context.createArena()) {
+            ComputeBuffer buffer = arena.allocateBytes(data.length);
+
+            ConvertingTransfer.write(buffer, 0, data, DataType.F8_E4M3);
+            assertArrayEquals(e4m3, ConvertingTransfer.read(buffer, 0, new float[data.length], DataType.F8_E4M3), "FP8 E4M3");
+
+            ConvertingTransfer.write(buffer, 0, data, DataType.F8_E5M2);
+            assertArrayEquals(e5m2, ConvertingTransfer.read(buffer, 0, new float[data.length], DataType.F8_E5M2), "FP8 E5M2");
+
+            byte[] quantized = new byte[values.length];
+            float[] scales = new float[2];
+            BitUtils.quantizeInt8(values, quantized, scales, 4);
+
+            ComputeBuffer int8 = arena.allocateArray(quantized);
+            float[] restored = new float[values.length];
+            BitUtils.dequantizeInt8(int8.get(new byte[values.length]), scales, restored, 4);
+
+            for (int i = 0; i < values.length; i++) {
+                if (Math.abs(restored[i] - values[i]) > scales[i / 4] / 2) {
+                    throw new AssertionError("INT8 | index=" + i + " expected=" + values[i] + " actual=" + restored[i]);
+                }
+            }
+        }
+    }
+
+    private static void testConvert(ComputeContext context) {
+        float[] data = new float[1000];
+
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (i - 500) * 0.37f;
+        }
+
+        data[0] = Float.NaN;
+        data[1] = 1.0f + 0x1p-11f;
+        data[2] = 1.0f + 0x1p-8f;
+        data[3] = 300.0f;
+        data[4] = -2.5f;
+
+        float[] half = new float[data.length];
+        float[] bfloat = new float[data.length];
+        float[] int8 = new float[data.length];
+
+        for (int i = 0; i < data.length; i++) {
+            half[i] = BitUtils.half2Float(BitUtils.float2Half(data[i]));
+            bfloat[i] = BitUtils.bFloat16ToFloat(BitUtils.float2BFloat16(data[i]));
+            int8[i] = Float.isNaN(data[i]) ? 0 : Math.max(-128, Math.min(127, (float) Math.rint(data[i])));
+        }
+
+        ComputeQueue queue = context.createQueue();
+
+        try (ComputeArena arena = context.createArena()) {
+            ComputeBuffer src = arena.allocateArray(data);
+            ComputeBuffer narrow = arena.allocateBytes(data.length * 2L);
+            ComputeBuffer bytes = arena.allocateBytes(data.length);
+            ComputeBuffer wide = arena.allocateBytes(data.length * 4L);
+
+            queue.convert(src, DataType.F32, narrow, DataType.F16, data.length);
+            assertArrayEquals(half, narrow.readHalf(new float[data.length]), "convert F32 to F16");
+            queue.convert(narrow, DataType.F16, wide, DataType.F32, data.length);
+            assertArrayEquals(half, wide.get(new float[data.length]), "convert F16 to F32");
+
+            queue.convert(src, DataType.F32, narrow, DataType.BF16, data.length);
+            assertArrayEquals(bfloat, narrow.readBFloat16(new float[data.length]), "convert F32 to BF16");
+            queue.convert(narrow, DataType.BF16, wide, DataType.F32, data.length);
+            assertArrayEquals(bfloat, wide.get(new float[data.length]), "convert BF16 to F32");
+
+            queue.convert(src, DataType.F32, bytes, DataType.I8, data.length);
+            queue.convert(bytes, DataType.I8, narrow, DataType.F16, data.length);
+            assertArrayEquals(int8, narrow.readHalf(new float[data.length]), "convert F32 to I8 to F16");
+
+            queue.convert(src, DataType.F32, wide, DataType.F32, data.length);
+            assertArrayEquals(data, wide.get(new float[data.length]), "convert F32 to F32");
+
+            expectIllegalArgument(() -> queue.convert(src, DataType.F64, wide, DataType.F32, 1), "convert unsupported type");
+            expectIllegalArgument(() -> queue.convert(src, DataType.F32, bytes, DataType.F16, data.length), "convert out of range");
+        } finally {
+            queue.free();
+        }
+    }
+
+    private static void testSegment(ComputeContext context) {
+        float[] data = new float[] {0.0f, -0.0f, 1.25f, -13.5f, Float.MIN_VALUE, Float.MAX_VALUE};
+        long bytes = (long) data.length * Float.BYTES;
+
+        try (ComputeArena arena = context.createArena(); Arena host = Arena.ofConfined()) {
+            MemorySegment src = host.allocateArray(ValueLayout.JAVA_FLOAT, data);
+            ComputeBuffer exact = arena.allocateBytes(bytes);
+            exact.write(src);
+            MemorySegment out = host.allocate(bytes);
+            exact.get(out);
+            assertArrayEquals(data, out.toArray(ValueLayout.JAVA_FLOAT), "segment roundtrip native");
+
+            float[] heapOut = new float[data.length];
+            exact.get(MemorySegment.ofArray(heapOut));
+            assertArrayEquals(data, heapOut, "segment roundtrip heap");
+
+            expectIllegalArgument(() -> arena.allocateBytes(bytes - 1L).write(src), "segment write overflow");
+            expectIllegalArgument(() -> arena.allocateBytes(bytes - 1L).get(host.allocate(bytes)), "segment read overflow");
+        }
+    }
+
+    private static void testRange(ComputeContext context) {
+        int[] data = new int[] {0, -1, 42, -1337, Integer.MIN_VALUE, Integer.MAX_VALUE};
+        long bytes = (long) data.length * Integer.BYTES;
+
+        try (ComputeArena arena = context.createArena()) {
+            ComputeBuffer buffer = arena.allocateBytes(bytes);
+            buffer.write(new int[data.length]);
+            buffer.write(2L * Integer.BYTES, data, 2, 3);
+
+            int[] out = buffer.get(new int[data.length]);
+            assertArrayEquals(new int[] {0, 0, 42, -1337, Integer.MIN_VALUE, 0}, out, "int range write");
+
+            int[] rangeOut = new int[data.length];
+            buffer.get(3L * Integer.BYTES, rangeOut, 1, 2);
+            assertArrayEquals(new int[] {0, -1337, Integer.MIN_VALUE, 0, 0, 0}, rangeOut, "int range read");
+
+            expectIllegalArgument(() -> buffer.write(4L * Integer.BYTES, data, 0, 3), "int range write overflow");
+            expectIllegalArgument(() -> buffer.get(-1L, new int[1], 0, 1), "int range negative offset");
+        }
+    }
+
+    private static void testAsync(ComputeContext context) {
+        long[] data = new long[] {0L, -1L, 42L, -999_999_999L, Long.MIN_VALUE, Long.MAX_VALUE};
+        long bytes = (long) data.length * Long.BYTES;
+
+        try (ComputeArena arena = context.createArena(); Arena host = Arena.ofConfined()) {
+            ComputeQueue queue = arena.createQueue();
+            ComputeBuffer first = arena.allocateBytes(bytes);
+            ComputeBuffer second = arena.allocateBytes(bytes);
+
+            MemorySegment src = host.allocateArray(ValueLayout.JAVA_LONG, data);
+            MemorySegment out = host.allocate(bytes);
+
+            queue.writeAsync(first, 0, src);
+            queue.copyAsync(first, second);
+            queue.readAsync(second, 0, out).await();
+            queue.await();
+
+            assertArrayEquals(data, out.toArray(ValueLayout.JAVA_LONG), "long roundtrip async");
+            expectIllegalArgument(() -> queue.writeAsync(first, 0, MemorySegment.ofArray(data)), "async heap segment");
+        }
+    }
+
+    private static void testSlice(ComputeContext context) {
+        int[] data = new int[] {7, -7, 42, -1337};
+        long offset = 4096;
+
+        try (ComputeArena arena = context.createArena()) {
+            ComputeBuffer parent = arena.allocateBytes(2 * offset);
+            parent.write(offset, data, 0, data.length);
+
+            ComputeBuffer view;
+            try {
+                view = parent.slice(offset, (long) data.length * Integer.BYTES);
+            } catch (UnsupportedOperationException e) {
+                // natives predating buffer offsets, offset views are rejected up front
+                System.out.println("SKIP slice: " + e.getMessage());
+                return;
+            }
+            assertArrayEquals(data, view.get(new int[data.length]), "slice read");
+
+            view.write(new int[] {1, 2, 3, 4});
+            int[] out = new int[data.length];
+            parent.get(offset, out, 0, out.length);
+            assertArrayEquals(new int[] {1, 2, 3, 4}, out, "slice write through");
+
+            view.free();
+            if (!parent.isAlive()) {
+                throw new AssertionError("freeing a slice must not free its parent");
+            }
+
+            expectIllegalArgument(() -> parent.slice(offset, 2 * offset), "slice overflow");
+        }
+    }
+
+    private static void testFill(ComputeContext context) {
+        try (ComputeArena arena = context.createArena()) {
+            ComputeQueue queue = arena.createQueue();
+            ComputeBuffer buffer = arena.allocateBytes(16 * Integer.BYTES);
+
+            buffer.clear();
+            assertArrayEquals(new int[16], buffer.get(new int[16]), "fill clear");
+
+            buffer.fill(0x7F, 4 * Integer.BYTES, 8 * Integer.BYTES);
+            int[] expected = new int[16];
+            Arrays.fill(expected, 4, 12, 0x7F);
+            assertArrayEquals(expected, buffer.get(new int[16]), "fill int range");
+
+            queue.fillAsync(buffer, (short) -2, 0, 4 * Short.BYTES).await();
+            queue.await();
+            short[] head = new short[4];
+            buffer.get(0, head, 0, head.length);
+            assertArrayEquals(new short[] {-2, -2, -2, -2}, head, "fill short async");
+
+            expectIllegalArgument(() -> buffer.fill(1, 2, 8), "fill misaligned");
+        }
+    }
+
+    private static void testRegion(ComputeContext context) {
+        // 4x4 int matrix, the 2x2 tile at row 1, column 1 is extracted and padded back
+        int[] matrix = new int[16];
+        for (int i = 0; i < matrix.length; i++) matrix[i] = i;
+
+        RegionExtent tile = RegionExtent.of(2 * Integer.BYTES, 2);
+        RegionLayout inMatrix = RegionLayout.of(5 * Integer.BYTES, 4 * Integer.BYTES, 4);
+        RegionLayout packed = RegionLayout.packed(0, tile);
+
+        try (ComputeArena arena = context.createArena()) {
+            ComputeQueue queue = arena.createQueue();
+            ComputeBuffer source = arena.allocateArray(matrix);
+            ComputeBuffer target = arena.allocateBytes(tile.byteSize());
+
+            source.copyRegionInto(target, inMatrix, packed, tile);
+            assertArrayEquals(new int[] {5, 6, 9, 10}, target.get(new int[4]), "region copy");
+
+            ComputeBuffer padded = arena.allocateBytes(16 * Integer.BYTES);
+            padded.clear();
+            padded.writeRegion(MemorySegment.ofArray(new int[] {1, 2, 3, 4}), packed, inMatrix, tile);
+            assertArrayEquals(
+                new int[] {0, 0, 0, 0, 0, 1, 2, 0, 0, 3, 4, 0, 0, 0, 0, 0},
+                padded.get(new int[16]),
+                "region write"
+            );
+
+            int[] out = new int[16];
+            padded.readRegion(MemorySegment.ofArray(out), inMatrix, inMatrix, tile);
+            assertArrayEquals(padded.get(new int[16]), out, "region read");
+
+            queue.copyRegionAsync(padded, inMatrix, target, packed, tile).await();
+            queue.await();
+            assertArrayEquals(new int[] {1, 2, 3, 4}, target.get(new int[4]), "region copy async");
+
+            expectIllegalArgument(() -> source.copyRegionInto(target, inMatrix, packed, RegionExtent.of(16, 4)), "region overflow");
+        }
+    }
+
+    private static void testCopyTo(ComputeContext context, ComputeContext other) {
+        // larger than two staging windows, so the pipelined path wraps around
+        int[] data = new int[(int) (2 * StagedCopy.WINDOW_SIZE / Integer.BYTES) + 1000];
+        for (int i = 0; i < data.length; i++) data[i] = i * 31;
+
+        try (ComputeArena arena = context.createArena(); ComputeArena otherArena = other.createArena()) {
+            ComputeBuffer source = arena.allocateArray(data);
+            ComputeBuffer target = otherArena.allocateBytes(source.size());
+
+            source.copyTo(target);
+            other.syncThread();
+            assertArrayEquals(data, target.get(new int[data.length]), "copyTo other context");
+
+            ComputeBuffer small = otherArena.allocateArray(new int[] {1, 2, 3});
+            ComputeBuffer back = arena.allocateBytes(small.size());
+            small.copyTo(back);
+            context.syncThread();
+            assertArrayEquals(new int[] {1, 2, 3}, back.get(new int[3]), "copyTo small");
+        }
+    }
+
+    private static void testFile(ComputeContext context) {
+        int[] data = new int[] {3, 1, 4, 1, 5, 9, 2, 6};
+        ByteBuffer bytes = ByteBuffer.allocate(16 + data.length * Integer.BYTES).order(ByteOrder.nativeOrder());
+        bytes.position(16);
+        bytes.asIntBuffer().put(data);
+
+        Path file = null;
+
+        try (ComputeArena arena = context.createArena()) {
+            file = Files.createTempFile("silicon-buffer", ".bin");
+            Files.write(file, bytes.array());
+
+            ComputeBuffer buffer = arena.allocateFromFile(file, 16, (long) data.length * Integer.BYTES);
+            assertArrayEquals(data, buffer.get(new int[data.length]), "allocateFromFile region");
+
+            Path source = file;
+            expectIllegalArgument(() -> context.allocateFromFile(source, 16, 1 << 20), "allocateFromFile overflow");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (file != null) file.toFile().delete();
+        }
+    }
+
+    private static void testSafeTensors(ComputeContext context) {
+        float[] weights = new float[] {0.5f, -1.0f, 2.0f, 3.25f};
+        int[] indices = new int[] {7, 8, 9};
+        byte[] header = ("{\"__metadata__\":{\"format\":\"pt\"},"
+            + "\"weights\":{\"dtype\":\"F32\",\"shape\":[2,2],\"data_offsets\":[0,16]},"
+            + "\"indices\":{\"dtype\":\"I32\",\"shape\":[3],\"data_offsets\":[16,28]}}")
+            .getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer bytes = ByteBuffer.allocate(Long.BYTES + header.length + 28).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.putLong(header.length).put(header);
+        for (float value : weights) bytes.putFloat(value);
+        for (int value : indices) bytes.putInt(value);
+
+        Path file = null;
+
+        try {
+            file = Files.createTempFile("silicon-tensors", ".safetensors");
+            Files.write(file, bytes.array());
+
+            SafeTensors tensors = SafeTensors.open(file);
+
+            try {
+                if (!"pt".equals(tensors.metadata().get("format"))) {
+                    throw new AssertionError("safetensors metadata | actual=" + tensors.metadata());
+                }
+
+                TensorMap eager = tensors.load(context, 2);
+                assertArrayEquals(weights, eager.get("weights").get(new float[weights.length]), "safetensors eager F32");
+                assertArrayEquals(indices, eager.get("indices").get(new int[indices.length]), "safetensors eager I32");
+                eager.free();
+
+                TensorMap lazy = tensors.loadLazy(context);
+                if (lazy.isLoaded("indices")) throw new AssertionError("safetensors lazy upload happened early");
+                assertArrayEquals(indices, lazy.get("indices").get(new int[indices.length]), "safetensors lazy I32");
+                if (lazy.isLoaded("weights")) throw new AssertionError("safetensors lazy upload of untouched tensor");
+                expectIllegalArgument(() -> lazy.get("missing"), "safetensors unknown tensor");
+                lazy.free();
+            } finally {
+                tensors.free();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (file != null) file.toFile().delete();
+        }
+    }
+
+    private static void testSnapshot(ComputeContext context) {
+        float[] weights = new float[] {1.5f, -2.0f, 0.25f};
+        long[] steps = new long[] {42L, Long.MIN_VALUE};
+
+        Path file = null;
+
+        try (ComputeArena arena = context.createArena()) {
+            file = Files.createTempFile("silicon-snapshot", ".bin");
+
+            Map<String, ComputeBuffer> buffers = new LinkedHashMap<>();
+            buffers.put("weights", arena.allocateArray(weights));
+            buffers.put("steps", arena.allocateArray(steps));
+
+            for (Snapshot.Entry entry : Snapshot.write(file, buffers)) {
+                if (entry.offset() % Snapshot.ALIGNMENT != 0) throw new AssertionError("snapshot section not aligned: " + entry);
+            }
+
+            Snapshot snapshot = Snapshot.open(file);
+
+            try {
+                Map<String, ComputeBuffer> restored = snapshot.restore(context, 2);
+                restored.values().forEach(arena::retain);
+
+                assertArrayEquals(weights, restored.get("weights").get(new float[weights.length]), "snapshot restore float");
+                assertArrayEquals(steps, restored.get("steps").get(new long[steps.length]), "snapshot restore long");
+
+                ComputeBuffer target = arena.allocateBytes((long) weights.length * Float.BYTES);
+                snapshot.restore("weights", target);
+                assertArrayEquals(weights, target.get(new float[weights.length]), "snapshot restore into buffer");
+            } finally {
+                snapshot.free();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (file != null) file.toFile().delete();
+        }
+    }
+
+    private static void testAllocationOptions(ComputeContext context) {
+        int[] data = new int[] {5, -6, 7, Integer.MIN_VALUE};
+
+        try (ComputeArena arena = context.createArena()) {
+            for (AllocationOptions.Placement placement : AllocationOptions.Placement.values()) {
+                for (AllocationOptions.Access access : AllocationOptions.Access.values()) {
+                    AllocationOptions options = new AllocationOptions(access, placement);
+                    ComputeBuffer buffer = arena.allocateBytes((long) data.length * Integer.BYTES, options);
+
+                    buffer.write(data);
+                    assertArrayEquals(data, buffer.get(new int[data.length]), "allocation options " + options);
+                }
+            }
+        }
+    }
+
     private static void expectIllegalArgument(Runnable action, String message) {
         try {
             action.run();
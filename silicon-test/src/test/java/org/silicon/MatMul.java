@@ -10,6 +10,9 @@ import org.silicon.api.kernel.ComputeQueue;
 import org.silicon.api.kernel.ComputeSize;
 import org.silicon.api.slang.SlangCompiler;
 
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
 import java.util.Arrays;
 
 public class MatMul {
@@ -19,6 +22,12 @@ public class MatMul {
     private static final int N = CONST;
     private static final int K = CONST;
 
+    private static final MemoryLayout SIZES = MemoryLayout.structLayout(
+        ValueLayout.JAVA_INT.withName("M"),
+        ValueLayout.JAVA_INT.withName("N"),
+        ValueLayout.JAVA_INT.withName("K")
+    );
+
     private static final float[] A_HOST = generateA();
     private static final float[] B_HOST = generateB();
 
@@ -78,11 +87,9 @@ public class MatMul {
             ComputeBuffer B = arena.allocateArray(B_HOST);
             ComputeBuffer C = arena.allocateBytes((long) M * N * 4);
 
-            ComputeBuffer sizes = arena.allocateArray(new int[] { M, N, K });
-            
             ComputeSize globalSize = new ComputeSize(N, M, 1);
             ComputeSize groupSize = new ComputeSize(16, 16, 1);
-            ComputeArgs args = ComputeArgs.of(A, B, C, sizes);
+            ComputeArgs args = ComputeArgs.of(A, B, C).struct(SIZES, MatMul::writeSizes);
 
             dispatchMatMul(function, arena, args, globalSize, groupSize);
 
@@ -103,15 +110,13 @@ public class MatMul {
             ComputeBuffer B = arena.allocateHalf(B_HOST);
             ComputeBuffer C = arena.allocateBytes((long) M * N * 2);
 
-            ComputeBuffer sizes = arena.allocateArray(new int[] { M, N, K });
-            
             int TILE = 16;
             int gx = ((N + TILE - 1) / TILE) * TILE;
             int gy = ((M + TILE - 1) / TILE) * TILE;
             
             ComputeSize globalSize = new ComputeSize(gx, gy, 1);
             ComputeSize groupSize  = new ComputeSize(TILE, TILE, 1);
-            ComputeArgs args = ComputeArgs.of(A, B, C, sizes);
+            ComputeArgs args = ComputeArgs.of(A, B, C).struct(SIZES, MatMul::writeSizes);
             
             dispatchMatMul(function, arena, args, globalSize, groupSize);
 
@@ -141,6 +146,12 @@ public class MatMul {
         );
     }
 
+    private static void writeSizes(MemorySegment sizes) {
+        sizes.set(ValueLayout.JAVA_INT, 0, M);
+        sizes.set(ValueLayout.JAVA_INT, 4, N);
+        sizes.set(ValueLayout.JAVA_INT, 8, K);
+    }
+
     private static void printDeviceInfo(ComputeDevice device) {
         System.out.println("========== Device ==========");
         System.out.println("Name:     " + device.name());
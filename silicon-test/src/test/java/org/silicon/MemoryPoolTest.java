@@ -0,0 +1,270 @@
+package org.silicon;
+
+import org.silicon.api.Silicon;
+import org.silicon.api.backend.BackendType;
+import org.silicon.api.cache.ConcurrentMemoryPool;
+import org.silicon.api.cache.Pooled;
+import org.silicon.api.cache.SizeClassPool;
+import org.silicon.api.cache.SizeClasses;
+import org.silicon.api.device.ComputeBuffer;
+import org.silicon.api.device.ComputeContext;
+import org.silicon.api.device.ComputeDevice;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MemoryPoolTest {
+
+    public static void main(String[] args) {
+        int failures = 0;
+        int skipped = 0;
+
+        for (BackendType backend : BackendType.values()) {
+            try {
+                Silicon.chooseBackend(backend);
+                ComputeDevice device = Silicon.createDevice();
+                ComputeContext context = device.createContext();
+
+                System.out.println("=== Backend " + backend.formalName() + " (" + device.name() + ") ===");
+                testSizeClassReuse(context);
+                testSizeClassEviction(context);
+                testConcurrentAcquire(context);
+                testConcurrentClose(context);
+                System.out.println("OK " + backend.formalName());
+            } catch (IllegalStateException e) {
+                skipped++;
+                System.out.println("SKIP " + backend.formalName() + ": " + e.getMessage());
+            } catch (Throwable t) {
+                failures++;
+                System.err.println("FAIL " + backend.formalName() + ": " + t.getMessage());
+                t.printStackTrace(System.err);
+            }
+        }
+
+        if (failures > 0) {
+            throw new AssertionError("MemoryPoolTest failed. failures=" + failures + ", skipped=" + skipped);
+        }
+
+        System.out.println("All memory pool tests passed. skipped=" + skipped);
+    }
+
+    private static void testSizeClassReuse(ComputeContext context) {
+        SizeClassPool pool = context.createPool(SizeClasses.powerOfTwo(256), 1 << 20);
+
+        try {
+            ComputeBuffer first;
+            try (Pooled pooled = pool.acquire(1000)) {
+                first = pooled.value();
+                assertEquals(1024, first.size(), "request rounded to its class");
+            }
+            assertEquals(1024, pool.idleBytes(), "returned buffer is idle");
+
+            try (Pooled pooled = pool.acquire(600)) {
+                assertSame(first, pooled.value(), "same class reuses the idle buffer");
+            }
+
+            try (Pooled pooled = pool.acquire(2048)) {
+                assertEquals(2048, pooled.value().size(), "smaller idle class is not used");
+            }
+
+            ComputeBuffer larger;
+            try (Pooled a = pool.acquire(1024); Pooled b = pool.acquire(1024)) {
+                // the 1024 buffer serves the first request, the second takes the 2048 one
+                assertSame(first, a.value(), "exact class preferred");
+                larger = b.value();
+                assertEquals(2048, larger.size(), "hit on a buffer of the next class");
+            }
+
+            try (Pooled pooled = pool.acquire(256)) {
+                if (pooled.value() == first || pooled.value() == larger) {
+                    throw new AssertionError("buffers more than twice the class must not be reused");
+                }
+                assertEquals(256, pooled.value().size(), "miss allocates the requested class");
+            }
+
+            assertEquals(3, pool.hits(), "hits");
+            assertEquals(3, pool.misses(), "misses");
+            assertEquals(0, pool.evictions(), "nothing evicted within the budget");
+        } finally {
+            pool.free();
+            context.memoryStats().unregister(pool);
+        }
+
+        assertEquals(0, pool.idleBytes(), "free releases every idle buffer");
+    }
+
+    private static void testSizeClassEviction(ComputeContext context) {
+        SizeClassPool pool = context.createPool(SizeClasses.powerOfTwo(256), 4096);
+
+        try {
+            Pooled a = pool.acquire(1024);
+            Pooled b = pool.acquire(1024);
+            Pooled c = pool.acquire(2048);
+            Pooled d = pool.acquire(1024);
+
+            a.close();
+            b.close();
+            c.close();
+            assertEquals(4096, pool.idleBytes(), "idle up to the budget");
+            assertEquals(0, pool.evictions(), "no eviction at the budget");
+
+            d.close();
+            assertEquals(4096, pool.idleBytes(), "idle bytes back within the budget");
+            assertEquals(1, pool.evictions(), "one eviction over the budget");
+            assertTrue(!a.value().isAlive(), "least recently returned buffer is freed");
+            assertTrue(b.value().isAlive() && c.value().isAlive() && d.value().isAlive(), "recent buffers are kept");
+
+            // returning a reused buffer makes it the most recent one
+            try (Pooled reused = pool.acquire(2048)) {
+                assertSame(c.value(), reused.value(), "idle buffer reused");
+            }
+
+            assertEquals(1024, pool.evict(3072), "evict trims to the limit");
+            assertTrue(!b.value().isAlive(), "oldest buffer evicted first");
+            assertTrue(d.value().isAlive() && c.value().isAlive(), "newer buffers kept");
+            assertEquals(2, pool.evictions(), "explicit evictions are counted");
+        } finally {
+            pool.free();
+            context.memoryStats().unregister(pool);
+        }
+    }
+
+    private static void testConcurrentAcquire(ComputeContext context) throws InterruptedException {
+        ConcurrentMemoryPool<TensorKey> pool = context.createConcurrentPool();
+        TensorKey key = new TensorKey(16, 16);
+        Set<ComputeBuffer> allocated = ConcurrentHashMap.newKeySet();
+        Set<ComputeBuffer> borrowed = ConcurrentHashMap.newKeySet();
+        List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+
+        try {
+            List<Thread> threads = new ArrayList<>();
+
+            for (int t = 0; t < 8; t++) {
+                threads.add(Thread.ofPlatform().start(() -> {
+                    try {
+                        for (int i = 0; i < 500; i++) {
+                            try (Pooled pooled = pool.acquire(key, () -> {
+                                ComputeBuffer buffer = context.allocateBytes(key.size());
+                                allocated.add(buffer);
+                                return buffer;
+                            })) {
+                                if (!borrowed.add(pooled.value())) {
+                                    throw new AssertionError("buffer handed out to two borrowers");
+                                }
+                                borrowed.remove(pooled.value());
+                            }
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }));
+            }
+
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            if (!errors.isEmpty()) throw new AssertionError("concurrent acquire failed", errors.getFirst());
+            assertTrue(allocated.size() <= 8, "at most one buffer per thread is allocated");
+
+            // every allocated buffer is idle exactly once
+            Set<ComputeBuffer> idle = Collections.newSetFromMap(new IdentityHashMap<>());
+            List<Pooled> drained = new ArrayList<>();
+
+            for (int i = 0; i < allocated.size(); i++) {
+                Pooled pooled = pool.acquire(key, () -> {
+                    throw new AssertionError("pool lost a returned buffer");
+                });
+                assertTrue(idle.add(pooled.value()), "idle buffer returned twice");
+                drained.add(pooled);
+            }
+
+            assertEquals(allocated.size(), idle.size(), "every buffer returned once");
+            drained.forEach(Pooled::close);
+        } finally {
+            pool.free();
+            context.memoryStats().unregister(pool);
+        }
+
+        for (ComputeBuffer buffer : allocated) {
+            assertTrue(!buffer.isAlive(), "free releases every idle buffer");
+        }
+    }
+
+    private static void testConcurrentClose(ComputeContext context) throws InterruptedException {
+        ConcurrentMemoryPool<TensorKey> pool = context.createConcurrentPool();
+        TensorKey key = new TensorKey(4);
+        AtomicInteger allocations = new AtomicInteger();
+
+        try {
+            for (int i = 0; i < 100; i++) {
+                Pooled pooled = pool.acquire(key, () -> {
+                    allocations.incrementAndGet();
+                    return context.allocateBytes(key.size());
+                });
+                CountDownLatch start = new CountDownLatch(1);
+
+                Thread first = Thread.ofPlatform().start(() -> closeAfter(start, pooled));
+                Thread second = Thread.ofPlatform().start(() -> closeAfter(start, pooled));
+                start.countDown();
+                first.join();
+                second.join();
+
+                // a double return would leave the buffer idle twice and serve both borrowers
+                Pooled a = pool.acquire(key, () -> context.allocateBytes(key.size()));
+                Pooled b = pool.acquire(key, () -> context.allocateBytes(key.size()));
+                assertSame(pooled.value(), a.value(), "closed buffer reused");
+                assertTrue(a.value() != b.value(), "closing twice returns the buffer once");
+
+                // only the shared buffer goes back, the extra one is dropped
+                b.value().free();
+                a.close();
+            }
+
+            assertEquals(1, allocations.get(), "the same buffer is reused across rounds");
+        } finally {
+            pool.free();
+            context.memoryStats().unregister(pool);
+        }
+    }
+
+    private static void closeAfter(CountDownLatch start, Pooled pooled) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        pooled.close();
+    }
+
+    private static void assertTrue(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+
+    private static void assertSame(Object expected, Object actual, String message) {
+        if (expected != actual) {
+            throw new AssertionError(message + " | expected=" + expected + " actual=" + actual);
+        }
+    }
+
+    private static void assertEquals(long expected, long actual, String message) {
+        if (expected != actual) {
+            throw new AssertionError(message + " | expected=" + expected + " actual=" + actual);
+        }
+    }
+
+    record TensorKey(int... shape) {
+        long size() {
+            long prod = 1;
+            for (int x : shape) prod *= x;
+            return prod * Integer.BYTES;
+        }
+    }
+}
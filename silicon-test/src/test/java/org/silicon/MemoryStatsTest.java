@@ -0,0 +1,175 @@
+package org.silicon;
+
+import org.silicon.api.OutOfDeviceMemoryException;
+import org.silicon.api.Silicon;
+import org.silicon.api.backend.BackendType;
+import org.silicon.api.cache.Pooled;
+import org.silicon.api.cache.SizeClassPool;
+import org.silicon.api.cache.SizeClasses;
+import org.silicon.api.device.ComputeBuffer;
+import org.silicon.api.device.ComputeContext;
+import org.silicon.api.device.ComputeDevice;
+import org.silicon.api.memory.MemorySource;
+import org.silicon.api.memory.MemoryStats;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class MemoryStatsTest {
+
+    private static final long SIZE = 1 << 20;
+
+    public static void main(String[] args) {
+        testCounters();
+        testRetry();
+        testRetryFailure();
+        System.out.println("OK MemoryStats");
+
+        int failures = 0;
+        int skipped = 0;
+
+        for (BackendType backend : BackendType.values()) {
+            try {
+                Silicon.chooseBackend(backend);
+                ComputeDevice device = Silicon.createDevice();
+                ComputeContext context = device.createContext();
+
+                System.out.println("=== Backend " + backend.formalName() + " (" + device.name() + ") ===");
+                testContextCounters(context);
+                testRecoverPools(context);
+                System.out.println("OK " + backend.formalName());
+            } catch (IllegalStateException e) {
+                skipped++;
+                System.out.println("SKIP " + backend.formalName() + ": " + e.getMessage());
+            } catch (Throwable t) {
+                failures++;
+                System.err.println("FAIL " + backend.formalName() + ": " + t.getMessage());
+                t.printStackTrace(System.err);
+            }
+        }
+
+        if (failures > 0) {
+            throw new AssertionError("MemoryStatsTest failed. failures=" + failures + ", skipped=" + skipped);
+        }
+
+        System.out.println("All memory stats tests passed. skipped=" + skipped);
+    }
+
+    private static void testCounters() {
+        MemoryStats stats = new MemoryStats();
+
+        stats.allocated(MemorySource.DEVICE, 100);
+        stats.allocated(MemorySource.HOST, 50);
+        stats.released(MemorySource.DEVICE, 100);
+        stats.allocated(MemorySource.DEVICE, 30);
+
+        assertEquals(30, stats.liveBytes(MemorySource.DEVICE), "live device bytes");
+        assertEquals(100, stats.peakBytes(MemorySource.DEVICE), "peak device bytes");
+        assertEquals(50, stats.liveBytes(MemorySource.HOST), "live host bytes");
+        assertEquals(50, stats.peakBytes(MemorySource.HOST), "peak host bytes");
+        assertEquals(0, stats.liveBytes(MemorySource.MAPPED), "untouched source");
+        assertEquals(80, stats.liveBytes(), "live bytes of all sources");
+        assertEquals(150, stats.peakBytes(), "peak bytes of all sources");
+    }
+
+    private static void testRetry() {
+        MemoryStats stats = new MemoryStats();
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = stats.allocate(MemorySource.DEVICE, 64, () -> {
+            if (attempts.incrementAndGet() == 1) throw new OutOfDeviceMemoryException("first attempt");
+            return "allocated";
+        });
+
+        assertEquals(2, attempts.get(), "allocation retried once");
+        assertEquals(1, stats.recoveries(), "recovery ran before the retry");
+        assertEquals(64, stats.liveBytes(MemorySource.DEVICE), "successful retry counted once");
+        if (!result.equals("allocated")) throw new AssertionError("retry result returned");
+
+        stats.allocate(MemorySource.DEVICE, 64, () -> "allocated");
+        assertEquals(1, stats.recoveries(), "no recovery without failure");
+    }
+
+    private static void testRetryFailure() {
+        MemoryStats stats = new MemoryStats();
+        AtomicInteger attempts = new AtomicInteger();
+        Supplier<String> failing = () -> {
+            attempts.incrementAndGet();
+            throw new OutOfDeviceMemoryException("out of memory");
+        };
+
+        try {
+            stats.allocate(MemorySource.DEVICE, 64, failing);
+            throw new AssertionError("Expected OutOfDeviceMemoryException after the retry");
+        } catch (OutOfDeviceMemoryException expected) {
+            // the second failure is reported to the caller
+        }
+
+        assertEquals(2, attempts.get(), "only one retry");
+        assertEquals(1, stats.recoveries(), "one recovery per failed allocation");
+        assertEquals(0, stats.liveBytes(), "failed allocation not counted");
+    }
+
+    private static void testContextCounters(ComputeContext context) {
+        MemoryStats stats = context.memoryStats();
+        long live = stats.liveBytes(MemorySource.DEVICE);
+
+        ComputeBuffer buffer = context.allocateBytes(SIZE);
+        assertEquals(live + SIZE, stats.liveBytes(MemorySource.DEVICE), "allocation counted as device memory");
+        assertTrue(stats.peakBytes(MemorySource.DEVICE) >= live + SIZE, "peak covers the allocation");
+
+        ComputeBuffer view = buffer.slice(0, SIZE / 2);
+        assertEquals(live + SIZE, stats.liveBytes(MemorySource.DEVICE), "views are not counted");
+        view.free();
+
+        buffer.free();
+        buffer.free();
+        assertEquals(live, stats.liveBytes(MemorySource.DEVICE), "release counted once");
+    }
+
+    private static void testRecoverPools(ComputeContext context) {
+        SizeClassPool registered = context.createPool(SizeClasses.powerOfTwo(256), SIZE);
+        SizeClassPool unregistered = context.createPool(SizeClasses.powerOfTwo(256), SIZE);
+        MemoryStats stats = new MemoryStats();
+        stats.register(registered);
+        stats.register(unregistered);
+        stats.unregister(unregistered);
+
+        try {
+            ComputeBuffer idle;
+            try (Pooled pooled = registered.acquire(SIZE)) {
+                idle = pooled.value();
+            }
+            ComputeBuffer kept;
+            try (Pooled pooled = unregistered.acquire(SIZE)) {
+                kept = pooled.value();
+            }
+
+            AtomicInteger attempts = new AtomicInteger();
+            stats.allocate(MemorySource.DEVICE, 0, () -> {
+                if (attempts.incrementAndGet() == 1) throw new OutOfDeviceMemoryException("first attempt");
+                return null;
+            });
+
+            assertTrue(!idle.isAlive(), "recovery frees the idle buffers of registered pools");
+            assertEquals(0, registered.idleBytes(), "registered pool emptied");
+            assertTrue(kept.isAlive(), "unregistered pools are left alone");
+            assertEquals(SIZE, unregistered.idleBytes(), "unregistered pool keeps its buffers");
+        } finally {
+            registered.free();
+            unregistered.free();
+            context.memoryStats().unregister(registered);
+            context.memoryStats().unregister(unregistered);
+        }
+    }
+
+    private static void assertTrue(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+
+    private static void assertEquals(long expected, long actual, String message) {
+        if (expected != actual) {
+            throw new AssertionError(message + " | expected=" + expected + " actual=" + actual);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package org.silicon;
+
+import org.silicon.api.Silicon;
+import org.silicon.api.backend.BackendType;
+import org.silicon.api.device.ComputeBuffer;
+import org.silicon.api.device.ComputeContext;
+import org.silicon.api.device.ComputeDevice;
+import org.silicon.api.memory.MemoryStats;
+import org.silicon.api.memory.Reclaimer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+public class ReclaimerTest {
+
+    private static final long SIZE = 1 << 20;
+
+    public static void main(String[] args) throws InterruptedException {
+        Reclaimer.setEnabled(true);
+
+        testDrain();
+        testDisarm();
+        testDisabled();
+        System.out.println("OK Reclaimer");
+
+        int failures = 0;
+        int skipped = 0;
+
+        for (BackendType backend : BackendType.values()) {
+            try {
+                Silicon.chooseBackend(backend);
+                ComputeDevice device = Silicon.createDevice();
+                ComputeContext context = device.createContext();
+
+                System.out.println("=== Backend " + backend.formalName() + " (" + device.name() + ") ===");
+                testDroppedBuffer(context);
+                testFreedBuffer(context);
+                System.out.println("OK " + backend.formalName());
+            } catch (IllegalStateException e) {
+                skipped++;
+                System.out.println("SKIP " + backend.formalName() + ": " + e.getMessage());
+            } catch (Throwable t) {
+                failures++;
+                System.err.println("FAIL " + backend.formalName() + ": " + t.getMessage());
+                t.printStackTrace(System.err);
+            }
+        }
+
+        if (failures > 0) {
+            throw new AssertionError("ReclaimerTest failed. failures=" + failures + ", skipped=" + skipped);
+        }
+
+        System.out.println("All reclaimer tests passed. skipped=" + skipped);
+    }
+
+    private static void testDrain() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        long before = Reclaimer.reclaimed();
+
+        Reclaimer.register(new Object(), runs::incrementAndGet);
+        collect(() -> Reclaimer.pending() > 0 || runs.get() > 0);
+
+        Reclaimer.drain();
+        assertEquals(1, runs.get(), "release action runs once its owner is unreachable");
+        assertEquals(before + 1, Reclaimer.reclaimed(), "reclaimed counts the released owner");
+        assertEquals(0, Reclaimer.pending(), "nothing pending after drain");
+        assertEquals(0, Reclaimer.drain(), "draining twice releases nothing");
+    }
+
+    private static void testDisarm() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        long before = Reclaimer.reclaimed();
+
+        Reclaimer.register(new Object(), runs::incrementAndGet).disarm();
+        collect(() -> Reclaimer.pending() > 0);
+
+        Reclaimer.drain();
+        assertEquals(0, runs.get(), "disarmed action never runs");
+        assertEquals(before, Reclaimer.reclaimed(), "disarmed owner is not counted");
+    }
+
+    private static void testDisabled() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        Reclaimer.setEnabled(false);
+
+        try {
+            Reclaimer.register(new Object(), runs::incrementAndGet);
+            collect(() -> Reclaimer.pending() > 0);
+
+            Reclaimer.drain();
+            assertEquals(0, runs.get(), "owners registered while disabled are never reclaimed");
+        } finally {
+            Reclaimer.setEnabled(true);
+        }
+    }
+
+    private static void testDroppedBuffer(ComputeContext context) throws InterruptedException {
+        MemoryStats stats = context.memoryStats();
+        long live = stats.liveBytes();
+        long reclaimed = Reclaimer.reclaimed();
+
+        allocateAndDrop(context);
+        assertEquals(live + SIZE, stats.liveBytes(), "dropped buffer still counted");
+
+        collect(() -> Reclaimer.pending() > 0 || Reclaimer.reclaimed() > reclaimed);
+        Reclaimer.drain();
+
+        assertEquals(reclaimed + 1, Reclaimer.reclaimed(), "dropped buffer reclaimed");
+        assertEquals(live, stats.liveBytes(), "reclaim releases the counted bytes");
+    }
+
+    private static void testFreedBuffer(ComputeContext context) throws InterruptedException {
+        MemoryStats stats = context.memoryStats();
+        long live = stats.liveBytes();
+        long reclaimed = Reclaimer.reclaimed();
+
+        context.allocateBytes(SIZE).free();
+        collect(() -> Reclaimer.pending() > 0);
+        Reclaimer.drain();
+
+        assertEquals(reclaimed, Reclaimer.reclaimed(), "free() disarms the reclaim action");
+        assertEquals(live, stats.liveBytes(), "freed buffer released once");
+    }
+
+    private static void allocateAndDrop(ComputeContext context) {
+        ComputeBuffer buffer = context.allocateBytes(SIZE);
+        buffer.clear();
+    }
+
+    // runs the garbage collector until the condition holds or a second has passed
+    private static void collect(BooleanSupplier done) throws InterruptedException {
+        for (int i = 0; i < 100 && !done.getAsBoolean(); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+    }
+
+    private static void assertEquals(long expected, long actual, String message) {
+        if (expected != actual) {
+            throw new AssertionError(message + " | expected=" + expected + " actual=" + actual);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package org.silicon;
+
+import org.silicon.api.Silicon;
+import org.silicon.api.backend.BackendType;
+import org.silicon.api.device.ComputeBuffer;
+import org.silicon.api.device.ComputeContext;
+import org.silicon.api.device.ComputeDevice;
+import org.silicon.api.device.SubAllocatingContext;
+import org.silicon.api.memory.BuddyAllocator;
+
+import java.util.Arrays;
+
+public class SubAllocationTest {
+
+    public static void main(String[] args) {
+        testBuddySplitMerge();
+        testBuddyRounding();
+        testBuddyDoubleFree();
+        System.out.println("OK BuddyAllocator");
+
+        int failures = 0;
+        int skipped = 0;
+
+        for (BackendType backend : BackendType.values()) {
+            try {
+                Silicon.chooseBackend(backend);
+                ComputeDevice device = Silicon.createDevice();
+                ComputeContext context = device.createContext();
+
+                System.out.println("=== Backend " + backend.formalName() + " (" + device.name() + ") ===");
+                testSubAllocatingContext(context);
+                System.out.println("OK " + backend.formalName());
+            } catch (IllegalStateException e) {
+                skipped++;
+                System.out.println("SKIP " + backend.formalName() + ": " + e.getMessage());
+            } catch (Throwable t) {
+                failures++;
+                System.err.println("FAIL " + backend.formalName() + ": " + t.getMessage());
+                t.printStackTrace(System.err);
+            }
+        }
+
+        if (failures > 0) {
+            throw new AssertionError("SubAllocationTest failed. failures=" + failures + ", skipped=" + skipped);
+        }
+
+        System.out.println("All sub-allocation tests passed. skipped=" + skipped);
+    }
+
+    private static void testBuddySplitMerge() {
+        BuddyAllocator allocator = new BuddyAllocator(1024, 64);
+
+        // the first request splits the whole range down to the smallest block
+        long a = allocator.allocate(64);
+        long b = allocator.allocate(64);
+        long c = allocator.allocate(128);
+        assertEquals(0, a, "first block at the start");
+        assertEquals(64, b, "second block is the buddy of the first");
+        assertEquals(128, c, "larger block after the split pair");
+        assertEquals(256, allocator.usedBytes(), "used after split");
+
+        // nothing of the full size is left until every block has been merged back
+        assertEquals(-1, allocator.allocate(1024), "full block while split");
+
+        allocator.free(a);
+        assertEquals(0, allocator.allocate(64), "freed block reused first");
+
+        allocator.free(0);
+        allocator.free(b);
+        allocator.free(c);
+        assertTrue(allocator.isEmpty(), "empty after freeing everything");
+        assertEquals(0, allocator.usedBytes(), "used after merge");
+        assertEquals(0, allocator.allocate(1024), "buddies merged back into the full block");
+        assertEquals(-1, allocator.allocate(64), "no room left");
+    }
+
+    private static void testBuddyRounding() {
+        BuddyAllocator allocator = new BuddyAllocator(1024, 64);
+
+        assertEquals(64, allocator.blockSizeFor(1), "rounded to the minimum block");
+        assertEquals(256, allocator.blockSizeFor(129), "rounded to the next power of two");
+
+        long offset = allocator.allocate(129);
+        assertEquals(0, offset % 256, "blocks are aligned to their size");
+        assertEquals(256, allocator.usedBytes(), "used includes rounding");
+
+        assertEquals(-1, allocator.allocate(0), "empty request");
+        assertEquals(-1, allocator.allocate(2048), "request above capacity");
+        expectIllegalArgument(() -> new BuddyAllocator(1000, 64), "capacity not a power of two");
+        expectIllegalArgument(() -> new BuddyAllocator(64, 128), "minimum block above capacity");
+    }
+
+    private static void testBuddyDoubleFree() {
+        BuddyAllocator allocator = new BuddyAllocator(1024, 64);
+        long offset = allocator.allocate(64);
+
+        allocator.free(offset);
+        expectIllegalArgument(() -> allocator.free(offset), "double free");
+        expectIllegalArgument(() -> allocator.free(32), "free of an unknown offset");
+        assertTrue(allocator.isEmpty(), "failed frees leave the allocator untouched");
+    }
+
+    private static void testSubAllocatingContext(ComputeContext context) {
+        long blockSize = 1 << 20;
+        SubAllocatingContext sub = new SubAllocatingContext(context, blockSize, SubAllocatingContext.DEFAULT_MIN_BLOCK);
+
+        try {
+            int[] data = new int[] {7, -7, 42, -1337};
+            ComputeBuffer first = sub.allocateArray(data);
+            ComputeBuffer second = sub.allocateBytes(1000);
+
+            if (sub.isForwarding()) {
+                // views at an offset are unsupported, every buffer comes from the wrapped context
+                assertEquals(0, sub.reservedBytes(), "nothing reserved while forwarding");
+                assertArrayEquals(data, first.get(new int[data.length]), "forwarded roundtrip");
+                first.free();
+                second.free();
+                System.out.println("SKIP sub-allocation: offset views unsupported, requests forwarded");
+                return;
+            }
+
+            assertEquals(blockSize, sub.reservedBytes(), "one block reserved");
+            assertEquals(SubAllocatingContext.DEFAULT_MIN_BLOCK + 1024, sub.usedBytes(), "used includes rounding");
+            assertArrayEquals(data, first.get(new int[data.length]), "view roundtrip");
+
+            ComputeBuffer large = sub.allocateBytes(2 * blockSize);
+            assertEquals(blockSize, sub.reservedBytes(), "large requests are forwarded");
+            large.free();
+
+            assertEquals(0, sub.trim(), "blocks in use are kept");
+
+            first.free();
+            first.free();
+            assertEquals(1024, sub.usedBytes(), "a double free returns the range once");
+
+            second.free();
+            assertEquals(0, sub.usedBytes(), "used after freeing every view");
+            assertEquals(blockSize, sub.trim(), "trim releases the empty block");
+            assertEquals(0, sub.reservedBytes(), "nothing reserved after trim");
+        } finally {
+            sub.free();
+        }
+    }
+
+    private static void expectIllegalArgument(Runnable action, String message) {
+        try {
+            action.run();
+        } catch (IllegalArgumentException expected) {
+            return;
+        }
+        throw new AssertionError("Expected IllegalArgumentException: " + message);
+    }
+
+    private static void assertTrue(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+
+    private static void assertEquals(long expected, long actual, String message) {
+        if (expected != actual) {
+            throw new AssertionError(message + " | expected=" + expected + " actual=" + actual);
+        }
+    }
+
+    private static void assertArrayEquals(int[] expected, int[] actual, String message) {
+        if (!Arrays.equals(expected, actual)) {
+            throw new AssertionError(message + " | expected=" + Arrays.toString(expected) + " actual=" + Arrays.toString(actual));
+        }
+    }
+}